@@ -17,11 +17,13 @@ package minicp.cp;
 
 import minicp.engine.core.IntVar;
 import minicp.engine.core.Solver;
+import minicp.search.IndexedBranching;
 import minicp.search.LimitedDiscrepancyBranching;
 import minicp.search.Sequencer;
 import minicp.util.Procedure;
 import minicp.util.exception.NotImplementedException;
 
+import java.util.Arrays;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -135,6 +137,51 @@ public final class BranchingScheme {
         };
     }
 
+    /**
+     * First-Fail strategy with indexed alternatives.
+     * It explores the same tree as {@link #firstFail(IntVar...)}
+     * without allocating anything at each node:
+     * the variable and the value of the decision taken at
+     * each depth are recorded in arrays.
+     * @param x the variable on which the first fail strategy is applied.
+     * @return a first-fail branching strategy
+     * @see Factory#makeDfs(Solver, IndexedBranching)
+     */
+    public static IndexedBranching indexedFirstFail(IntVar... x) {
+        return new IndexedBranching() {
+            private int[] var = new int[64];
+            private int[] value = new int[64];
+
+            @Override
+            public int expand(int depth) {
+                int sel = -1;
+                for (int i = 0; i < x.length; i++) {
+                    if (x[i].size() > 1 && (sel < 0 || x[i].size() < x[sel].size()))
+                        sel = i;
+                }
+                if (sel < 0)
+                    return 0;
+                if (depth >= var.length) {
+                    var = Arrays.copyOf(var, Math.max(2 * var.length, depth + 1));
+                    value = Arrays.copyOf(value, var.length);
+                }
+                var[depth] = sel;
+                value[depth] = x[sel].min();
+                return 2;
+            }
+
+            @Override
+            public void apply(int depth, int alternative) {
+                IntVar xs = x[var[depth]];
+                if (alternative == 0)
+                    xs.assign(value[depth]);
+                else
+                    xs.remove(value[depth]);
+                xs.getSolver().fixPoint();
+            }
+        };
+    }
+
     /**
      * Sequential Search combinator that linearly
      * considers a list of branching generator.
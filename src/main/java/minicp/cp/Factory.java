@@ -18,8 +18,12 @@ package minicp.cp;
 import minicp.engine.constraints.*;
 import minicp.engine.core.*;
 import minicp.search.DFSearch;
+import minicp.search.IndexedBranching;
 import minicp.search.Objective;
 import minicp.state.Copier;
+import minicp.state.FlatTrailer;
+import minicp.state.IncrementalCopier;
+import minicp.state.StateManager;
 import minicp.state.Trailer;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.Procedure;
@@ -77,6 +81,17 @@ public final class Factory {
         return new MiniCP(byCopy ? new Copier() : new Trailer());
     }
 
+    /**
+     * Creates a constraint programming solver
+     * @param sm the state manager in charge of the state of the solver,
+     *           e.g. a {@link Trailer}, a {@link FlatTrailer}, a {@link Copier}
+     *           or an {@link IncrementalCopier}
+     * @return a constraint programming solver
+     */
+    public static Solver makeSolver(StateManager sm) {
+        return new MiniCP(sm);
+    }
+
     /**
      * Creates a variable with a domain of specified arity.
      *
@@ -112,6 +127,21 @@ public final class Factory {
         return new IntVarImpl(cp, min, max, lazy);
     }
 
+    /**
+     * Creates a variable with a domain equal to the specified range,
+     * only storing its bounds. Its memory does not depend on the size of the range,
+     * but only the bounds can be removed from its domain.
+     *
+     * @param cp the solver in which the variable is created
+     * @param min the lower bound of the domain (included)
+     * @param max the upper bound of the domain (included) {@code max >= min}
+     * @return a variable with domain equal to the interval [min..max]
+     * @see IntervalVarImpl
+     */
+    public static IntVar makeIntervalVar(Solver cp, int min, int max) {
+        return new IntervalVarImpl(cp, min, max);
+    }
+
     /**
      * Creates a variable with a domain equal to the specified set of values.
      *
@@ -212,6 +242,37 @@ public final class Factory {
         return new DFSearch(cp.getStateManager(), branching);
     }
 
+    /**
+     * Creates a Depth First Search with custom branching heuristic
+     * whose alternatives are identified by their index,
+     * such that the search does not allocate anything at each node.
+     *
+     * @param cp the solver that will be used for the search
+     * @param branching the branching expanding each node of the
+     *                  tree and applying its alternatives
+     * @return the depth first search object ready to execute with
+     *         {@link DFSearch#solve()} or
+     *         {@link DFSearch#optimize(Objective)}
+     *         using the given branching scheme
+     * @see BranchingScheme#indexedFirstFail(IntVar...)
+     */
+    public static DFSearch makeDfs(Solver cp, IndexedBranching branching) {
+        return new DFSearch(cp.getStateManager(), branching);
+    }
+
+    /**
+     * Creates a sequence variable represented as a graph.
+     * Its nodes are {@code 0...nNodes-1}, the sequence begins at {@code nNodes}
+     * and ends at {@code nNodes+1}.
+     *
+     * @param cp the solver in which the variable is created
+     * @param nNodes the number of nodes that can be inserted in the sequence
+     * @return a sequence variable where every node can follow any other one
+     */
+    public static SequenceEdgeVar makeSequenceEdgeVar(Solver cp, int nNodes) {
+        return new SequenceEdgeVarImpl(cp, nNodes);
+    }
+
     // -------------- constraints -----------------------
 
     /**
@@ -75,6 +75,11 @@ public class AllDifferentDC extends AbstractConstraint {
         this.nVar = x.length;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         for (int i = 0; i < nVar; i++) {
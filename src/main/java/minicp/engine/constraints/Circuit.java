@@ -18,7 +18,8 @@ package minicp.engine.constraints;
 
 import minicp.engine.core.AbstractConstraint;
 import minicp.engine.core.IntVar;
-import minicp.state.StateInt;
+import minicp.state.StateIntArray;
+import minicp.state.StateManager;
 import minicp.util.exception.NotImplementedException;
 
 import static minicp.cp.Factory.allDifferent;
@@ -29,9 +30,9 @@ import static minicp.cp.Factory.allDifferent;
 public class Circuit extends AbstractConstraint {
 
     private final IntVar[] x;
-    private final StateInt[] dest;
-    private final StateInt[] orig;
-    private final StateInt[] lengthToDest;
+    private final StateIntArray dest;
+    private final StateIntArray orig;
+    private final StateIntArray lengthToDest;
 
     /**
      * Creates an Hamiltonian Circuit Constraint
@@ -44,13 +45,13 @@ public class Circuit extends AbstractConstraint {
         super(x[0].getSolver());
         assert (x.length > 0);
         this.x = x;
-        dest = new StateInt[x.length];
-        orig = new StateInt[x.length];
-        lengthToDest = new StateInt[x.length];
+        StateManager sm = getSolver().getStateManager();
+        dest = sm.makeStateIntArray(x.length, 0);
+        orig = sm.makeStateIntArray(x.length, 0);
+        lengthToDest = sm.makeStateIntArray(x.length, 0);
         for (int i = 0; i < x.length; i++) {
-            dest[i] = getSolver().getStateManager().makeStateInt(i);
-            orig[i] = getSolver().getStateManager().makeStateInt(i);
-            lengthToDest[i] = getSolver().getStateManager().makeStateInt(0);
+            dest.set(i, i);
+            orig.set(i, i);
         }
     }
 
@@ -66,6 +66,11 @@ public class Cumulative extends AbstractConstraint {
     }
 
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         for (int i = 0; i < start.length; i++) {
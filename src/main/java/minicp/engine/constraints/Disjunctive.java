@@ -60,6 +60,11 @@ public class Disjunctive extends AbstractConstraint {
     }
 
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
 
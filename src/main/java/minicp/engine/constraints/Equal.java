@@ -1,6 +1,7 @@
 package minicp.engine.constraints;
 
 import minicp.engine.core.AbstractConstraint;
+import minicp.engine.core.DeltaIntVar;
 import minicp.engine.core.IntVar;
 
 public class Equal extends AbstractConstraint {
@@ -21,6 +22,11 @@ public class Equal extends AbstractConstraint {
         this.y = y;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         if (y.isBound())
@@ -32,17 +38,22 @@ public class Equal extends AbstractConstraint {
             int[] domVal = new int[Math.max(x.size(), y.size())];
             pruneEquals(y, x, domVal);
             pruneEquals(x, y, domVal);
-            x.whenDomainChange(() -> {
-                boundsIntersect();
-                pruneEquals(x, y, domVal);
-            });
-            y.whenDomainChange(() -> {
-                boundsIntersect();
-                pruneEquals(y, x, domVal);
-            });
+            // the domains are now equal, only the values removed since then need to be removed from the other side
+            DeltaIntVar deltaX = x.delta();
+            DeltaIntVar deltaY = y.delta();
+            x.whenDomainChange(() -> pruneRemoved(deltaX, y, domVal));
+            y.whenDomainChange(() -> pruneRemoved(deltaY, x, domVal));
         }
     }
 
+    // removes from to the values removed from the variable of the delta since its last update
+    private void pruneRemoved(DeltaIntVar delta, IntVar to, int[] domVal) {
+        int nVal = delta.fillArray(domVal);
+        delta.update();
+        for (int k = 0; k < nVal; k++)
+            to.remove(domVal[k]);
+    }
+
     // dom consistent filtering in the direction from -> to
     // every value of to has a support in from
     private void pruneEquals(IntVar from, IntVar to, int[] domVal) {
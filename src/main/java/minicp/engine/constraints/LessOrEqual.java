@@ -32,6 +32,11 @@ public class LessOrEqual extends AbstractConstraint { // x <= y
         this.y = y;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         x.propagateOnBoundChange(this);
@@ -51,6 +51,11 @@ public class NotEqual extends AbstractConstraint {
         this(x, y, 0);
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         if (y.isBound())
@@ -18,8 +18,8 @@ package minicp.engine.constraints;
 import minicp.cp.Factory;
 import minicp.engine.core.AbstractConstraint;
 import minicp.engine.core.IntVar;
-import minicp.state.State;
 import minicp.state.StateInt;
+import minicp.state.StateLong;
 import minicp.util.exception.InconsistencyException;
 
 import java.util.Arrays;
@@ -32,7 +32,7 @@ public class Sum extends AbstractConstraint {
 
     private int[] free;
     private StateInt nFrees;
-    private State<Long> sumFixed;
+    private StateLong sumFixed;
     private IntVar[] x;
     private int[] min, max;
     private int n;
@@ -77,7 +77,7 @@ public class Sum extends AbstractConstraint {
         min = new int[x.length];
         max = new int[x.length];
         nFrees = getSolver().getStateManager().makeStateInt(n);
-        sumFixed = getSolver().getStateManager().makeStateRef(Long.valueOf(0));
+        sumFixed = getSolver().getStateManager().makeStateLong(0);
         free = IntStream.range(0, n).toArray();
     }
 
@@ -65,6 +65,11 @@ public class Cumulative extends AbstractConstraint {
         }
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         for (int i = 0; i < starts.length; ++i) // the starts must appear before the ends
@@ -1,6 +1,7 @@
 package minicp.engine.constraints.sequence;
 
 import minicp.engine.core.*;
+import minicp.state.StateInt;
 import minicp.util.exception.InconsistencyException;
 
 /**
@@ -13,6 +14,8 @@ public class Distance extends AbstractConstraint {
     private final int[][] transition;
     private int[] possible;   // store the possible InsertionsVar
     private int[] insertions; // store the insertions points for an insertion var
+    private StateInt currentDist;      // distance of the current sequence
+    private SequenceEventQueue events; // insertions since the last propagation
 
     /**
      * compute the lower bound on the distance of a sequence, assuming that all nodes must be visited in the sequence
@@ -33,12 +36,13 @@ public class Distance extends AbstractConstraint {
     public void post() {
         if (seq.nExcludedNode() > 0)
             throw InconsistencyException.INCONSISTENCY;
+        currentDist = getSolver().getStateManager().makeStateInt(computeCurrentDistance());
+        events = seq.propagateOnNodeEvents(this);
         propagate();
         if (isActive()) {
             seq.whenExclude(() -> {
                 throw InconsistencyException.INCONSISTENCY;
             });
-            seq.propagateOnInsert(this);
             distance.propagateOnBoundChange(this);
         }
     }
@@ -46,14 +50,28 @@ public class Distance extends AbstractConstraint {
     @Override
     public void propagate() {
         setActive(false);
-        int dist = computeCurrentDistance();
+        int dist = updateCurrentDistance();
         distance.removeBelow(dist);
         setDistanceToCompleteRoute(dist);
         if (!seq.isBound())
             setActive(true);
     }
 
-    // current distance of the sequence
+    // current distance of the sequence, updated with the insertions since the last propagation
+    private int updateCurrentDistance() {
+        int dist = currentDist.value();
+        for (int i = 0; i < events.nInserts(); ++i) {
+            int node = events.insertedNode(i);
+            int pred = events.insertedPred(i);
+            int succ = events.insertedSucc(i);
+            dist += transition[node][pred] + transition[succ][node] - transition[succ][pred];
+        }
+        events.clear();
+        currentDist.setValue(dist);
+        return dist;
+    }
+
+    // current distance of the sequence, computed from scratch
     private int computeCurrentDistance() {
         int n = seq.fillOrder(insertions, true);
         int distance = 0;
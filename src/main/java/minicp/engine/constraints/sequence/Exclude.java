@@ -23,6 +23,11 @@ public class Exclude extends AbstractConstraint {
         this.sequenceVar = sequenceVar;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         for (int node: excluded) {
@@ -19,6 +19,11 @@ public class ExcludeAllPossible extends AbstractConstraint {
         this.sequenceVars = sequenceVar;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         for (SequenceVar seq: sequenceVars)
@@ -18,6 +18,11 @@ public class NoEdgeFrom extends AbstractConstraint {
         this.node = invalidPredecessor;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         seq.removeInsertionAfter(node);
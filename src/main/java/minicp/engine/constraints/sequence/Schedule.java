@@ -16,6 +16,11 @@ public class Schedule extends AbstractConstraint {
         this.predecessor = pred;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
     @Override
     public void post() {
         sequenceVar.schedule(node, predecessor);
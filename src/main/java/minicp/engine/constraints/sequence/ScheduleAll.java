@@ -0,0 +1,40 @@
+package minicp.engine.constraints.sequence;
+
+import minicp.engine.core.AbstractConstraint;
+import minicp.engine.core.SequenceVar;
+
+/**
+ * Schedules a chain of nodes at once, see {@link SequenceVar#scheduleAll(int[], int, int)}
+ */
+public class ScheduleAll extends AbstractConstraint {
+
+    private SequenceVar sequenceVar;
+    private int[] order;
+    private int from;
+    private int to;
+
+    /**
+     * @param sequenceVar sequence where the nodes are scheduled
+     * @param order chain of nodes, {@code order[from]} being already scheduled. It is not copied
+     * @param from index of the scheduled node starting the chain
+     * @param to index after the last node to schedule
+     */
+    public ScheduleAll(SequenceVar sequenceVar, int[] order, int from, int to) {
+        super(sequenceVar.getSolver());
+        this.sequenceVar = sequenceVar;
+        this.order = order;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public Priority priority() {
+        return Priority.FAST;
+    }
+
+    @Override
+    public void post() {
+        sequenceVar.scheduleAll(order, from, to);
+        setActive(false);
+    }
+}
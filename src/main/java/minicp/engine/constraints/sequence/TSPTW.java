@@ -40,6 +40,11 @@ public class TSPTW extends AbstractConstraint {
         insertions = new int[sequenceVar.nNodes()];
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         if (seq.nExcludedNode() > 0)
@@ -84,6 +84,11 @@ public class TransitionCost extends AbstractConstraint {
         return true;
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         if (useHashMap) {
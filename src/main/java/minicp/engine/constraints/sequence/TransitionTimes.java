@@ -1,6 +1,7 @@
 package minicp.engine.constraints.sequence;
 
 import minicp.engine.core.AbstractConstraint;
+import minicp.engine.core.DeltaSequenceVar;
 import minicp.engine.core.IntVar;
 import minicp.engine.core.SequenceVar;
 import minicp.engine.core.Solver;
@@ -18,6 +19,7 @@ public class TransitionTimes extends AbstractConstraint {
     private int[] insertionsVar;
     private int[] insertionsPoint;
     private int[] order; // order of the scheduled nodes of the sequence
+    private DeltaSequenceVar delta; // nodes scheduled since the last propagation
 
     private int threshold;
 
@@ -119,10 +121,14 @@ public class TransitionTimes extends AbstractConstraint {
         threshold = thresholdRespectTriangularInequality(transition);
     }
 
+    @Override
+    public Priority priority() {
+        return Priority.SLOW;
+    }
+
     @Override
     public void post() {
         updatePossibleInsertions();
-        propagate();
         // register propagators
         int size = seq.fillPossible(insertionsVar);
         for (int i = 0; i < size; ++i) {
@@ -135,6 +141,8 @@ public class TransitionTimes extends AbstractConstraint {
             int insert = insertionsVar[i];
             time[insert].propagateOnBoundChange(this);
         }
+        delta = seq.delta(); // the nodes scheduled from now on are registered when propagating
+        propagate();
         if (distance != null && listenDistanceChange) {
             distance.propagateOnBoundChange(this);
         }
@@ -244,9 +252,23 @@ public class TransitionTimes extends AbstractConstraint {
         }
     }
 
+    /**
+     * listen to the time of the nodes scheduled since the last propagation,
+     * the possible nodes being listened by their {@link TransitionFromTimeWindow}
+     */
+    private void listenNewlyScheduled() {
+        if (!delta.changed())
+            return;
+        int size = delta.fillScheduled(insertionsVar);
+        for (int i = 0; i < size; ++i)
+            time[insertionsVar[i]].propagateOnBoundChange(this);
+        delta.update();
+    }
+
     @Override
     public void propagate() {
         setActive(false);
+        listenNewlyScheduled();
         int currentDistance = updateMinTimeScheduledAndDist();
         updateMaxTimeScheduled();
         if (!seq.isBound())
@@ -258,7 +280,7 @@ public class TransitionTimes extends AbstractConstraint {
     /**
      * inner class for updates of time windows. Use incremental update depending on the status of the node
      * - the node is excluded from the sequence -> set as inactive
-     * - the node is scheduled -> call the full propagation
+     * - the node is scheduled -> set as inactive, the outer constraint listens to its time
      * - the node is possible -> check its current insertions
      */
     public class TransitionFromTimeWindow extends AbstractConstraint {
@@ -273,39 +295,34 @@ public class TransitionTimes extends AbstractConstraint {
         @Override
         public void post() {
             // propagation is called from the outer class, no need to propagate here
-            if (!seq.isExcluded(node))
+            if (seq.isPossible(node))
                 time[node].propagateOnBoundChange(this);
         }
 
         @Override
         public boolean isActive() {
-            return (!seq.isExcluded(node) && TransitionTimes.this.isActive() && !TransitionTimes.this.isScheduled());
+            return (seq.isPossible(node) && TransitionTimes.this.isActive() && !TransitionTimes.this.isScheduled());
         }
 
         @Override
         public void propagate() {
-            if (seq.isScheduled(node)) {
-                if (!TransitionTimes.this.isScheduled())
-                    getSolver().schedule(TransitionTimes.this);
-            } else if (seq.isPossible(node)) {
-                // only update the insertions for this node
-                int nInsert = seq.fillScheduledInsertions(node, insertionsPoint);
-                int maxDetourAllowed = distance != null ? distance.max() - distance.min() : Integer.MAX_VALUE;
-                for (int j = 0; j < nInsert; ++j) { // for all of its scheduled insertion point candidate ...
-                    int pred = insertionsPoint[j];  // check that .. -> pred -> current -> succ -> .. is feasible
-                    int succ = seq.nextMember(insertionsPoint[j]); // successor of the insertion
-                    int timeReachingNode = time[pred].min() + serviceTime[pred] + transition[pred][node];
-                    if (timeReachingNode > time[node].max()) // check that pred -> current is feasible
+            // only update the insertions for this node
+            int nInsert = seq.fillScheduledInsertions(node, insertionsPoint);
+            int maxDetourAllowed = distance != null ? distance.max() - distance.min() : Integer.MAX_VALUE;
+            for (int j = 0; j < nInsert; ++j) { // for all of its scheduled insertion point candidate ...
+                int pred = insertionsPoint[j];  // check that .. -> pred -> current -> succ -> .. is feasible
+                int succ = seq.nextMember(insertionsPoint[j]); // successor of the insertion
+                int timeReachingNode = time[pred].min() + serviceTime[pred] + transition[pred][node];
+                if (timeReachingNode > time[node].max()) // check that pred -> current is feasible
+                    seq.removeInsertion(node, pred);
+                else { // check that current -> succ is feasible
+                    int timeDeparture = Math.max(timeReachingNode, time[node].min());
+                    if (timeDeparture + serviceTime[node] + transition[node][succ] > time[succ].max())
                         seq.removeInsertion(node, pred);
-                    else { // check that current -> succ is feasible
-                        int timeDeparture = Math.max(timeReachingNode, time[node].min());
-                        if (timeDeparture + serviceTime[node] + transition[node][succ] > time[succ].max())
+                    if (distance != null) { // check that doing the transition does not exceed the maximum distance
+                        int detour = transition[pred][node] + transition[node][succ] - transition[pred][succ];
+                        if (detour > maxDetourAllowed) // detour is too long
                             seq.removeInsertion(node, pred);
-                        if (distance != null) { // check that doing the transition does not exceed the maximum distance
-                            int detour = transition[pred][node] + transition[node][succ] - transition[pred][succ];
-                            if (detour > maxDetourAllowed) // detour is too long
-                                seq.removeInsertion(node, pred);
-                        }
                     }
                 }
             }
@@ -25,6 +25,31 @@ import java.util.Queue;
  */
 public interface Constraint {
 
+    /**
+     * Cost class of a constraint.
+     * The fix-point propagates the constraints of a cheaper class first,
+     * such that the expensive ones are propagated only once
+     * the cheaper ones are quiescent.
+     *
+     * @see #priority()
+     * @see Solver#fixPoint()
+     */
+    enum Priority {
+        /**
+         * Cheap constraints, typically unary or binary ones
+         * propagated in constant or linear time in the size of the domains
+         */
+        FAST,
+        /**
+         * Default class of the constraints
+         */
+        MEDIUM,
+        /**
+         * Expensive global constraints
+         */
+        SLOW
+    }
+
     /**
      * Initializes the constraint when it is posted to the solver.
      */
@@ -74,5 +99,15 @@ public interface Constraint {
      */
     boolean isActive();
 
+    /**
+     * Returns the cost class of the constraint,
+     * that determines its order of propagation in the fix-point.
+     *
+     * @return the priority of the constraint, {@link Priority#MEDIUM} by default
+     */
+    default Priority priority() {
+        return Priority.MEDIUM;
+    }
+
 
 }
@@ -0,0 +1,151 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.state.StateInt;
+import minicp.state.StateManager;
+
+/**
+ * Changes of the domain of an {@link IntVar}
+ * since the last call to {@link #update()}.
+ * <p>
+ * A constraint creates its deltas when it is posted
+ * and updates them at the end of its propagation,
+ * such that the next propagation only processes what changed in between:
+ * the old bounds and the values removed.
+ * The snapshot is reversible, it is consistent with the domain
+ * after a restoration of the state.
+ *
+ * @see IntVar#delta()
+ */
+public class DeltaIntVar {
+
+    private final IntVar x;
+    private final StateInt oldMin;
+    private final StateInt oldMax;
+    private final StateInt oldSize;
+
+    /**
+     * Creates a delta on a variable,
+     * with a snapshot of its current domain.
+     *
+     * @param x the variable whose changes are tracked
+     */
+    public DeltaIntVar(IntVar x) {
+        this.x = x;
+        StateManager sm = x.getSolver().getStateManager();
+        oldMin = sm.makeStateInt(x.min());
+        oldMax = sm.makeStateInt(x.max());
+        oldSize = sm.makeStateInt(x.size());
+    }
+
+    /**
+     * Returns the variable whose changes are tracked.
+     *
+     * @return the variable of this delta
+     */
+    public IntVar variable() {
+        return x;
+    }
+
+    /**
+     * Takes a snapshot of the current domain,
+     * such that the following changes are relative to it.
+     */
+    public void update() {
+        oldMin.setValue(x.min());
+        oldMax.setValue(x.max());
+        oldSize.setValue(x.size());
+    }
+
+    /**
+     * Returns true if the domain has changed since the last update.
+     *
+     * @return true if some values have been removed
+     */
+    public boolean changed() {
+        return x.size() != oldSize.value();
+    }
+
+    /**
+     * Returns true if the minimum has changed since the last update.
+     *
+     * @return true if the minimum has been increased
+     */
+    public boolean minChanged() {
+        return x.min() != oldMin.value();
+    }
+
+    /**
+     * Returns true if the maximum has changed since the last update.
+     *
+     * @return true if the maximum has been decreased
+     */
+    public boolean maxChanged() {
+        return x.max() != oldMax.value();
+    }
+
+    /**
+     * Returns the minimum of the domain at the last update.
+     *
+     * @return the old minimum
+     */
+    public int oldMin() {
+        return oldMin.value();
+    }
+
+    /**
+     * Returns the maximum of the domain at the last update.
+     *
+     * @return the old maximum
+     */
+    public int oldMax() {
+        return oldMax.value();
+    }
+
+    /**
+     * Returns the size of the domain at the last update.
+     *
+     * @return the old size
+     */
+    public int oldSize() {
+        return oldSize.value();
+    }
+
+    /**
+     * Returns the number of values removed since the last update.
+     *
+     * @return the number of values removed
+     */
+    public int size() {
+        return oldSize.value() - x.size();
+    }
+
+    /**
+     * Copies the values removed since the last update.
+     *
+     * @param dest an array large enough {@code dest.length >= size()}
+     * @return the number of values removed, stored in {@code dest[0,...,size()-1]}
+     */
+    public int fillArray(int[] dest) {
+        return x.fillDeltaArray(oldMin.value(), oldMax.value(), oldSize.value(), dest);
+    }
+
+    @Override
+    public String toString() {
+        return "delta of " + x + " since [" + oldMin.value() + ".." + oldMax.value() + "] #" + oldSize.value();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.state.StateInt;
+import minicp.state.StateManager;
+
+/**
+ * Changes of a {@link SequenceVar}
+ * since the last call to {@link #update()}:
+ * the nodes that have been scheduled and the ones that have been excluded.
+ * <p>
+ * A constraint creates its deltas when it is posted
+ * and updates them at the end of its propagation.
+ * The snapshot is reversible, it is consistent with the sequence
+ * after a restoration of the state.
+ *
+ * @see SequenceVar#delta()
+ */
+public class DeltaSequenceVar {
+
+    private final SequenceVar seq;
+    private final StateInt nScheduled;
+    private final StateInt nExcluded;
+
+    /**
+     * Creates a delta on a sequence variable,
+     * with a snapshot of its current domain.
+     *
+     * @param seq the sequence variable whose changes are tracked
+     */
+    public DeltaSequenceVar(SequenceVar seq) {
+        this.seq = seq;
+        StateManager sm = seq.getSolver().getStateManager();
+        nScheduled = sm.makeStateInt(seq.nScheduledNode());
+        nExcluded = sm.makeStateInt(seq.nExcludedNode());
+    }
+
+    /**
+     * Returns the variable whose changes are tracked.
+     *
+     * @return the variable of this delta
+     */
+    public SequenceVar variable() {
+        return seq;
+    }
+
+    /**
+     * Takes a snapshot of the current domain,
+     * such that the following changes are relative to it.
+     */
+    public void update() {
+        nScheduled.setValue(seq.nScheduledNode());
+        nExcluded.setValue(seq.nExcludedNode());
+    }
+
+    /**
+     * Returns true if nodes have been scheduled or excluded since the last update.
+     *
+     * @return true if the sequence has changed
+     */
+    public boolean changed() {
+        return nScheduled() > 0 || nExcluded() > 0;
+    }
+
+    /**
+     * Returns the number of nodes scheduled since the last update.
+     *
+     * @return the number of nodes scheduled
+     */
+    public int nScheduled() {
+        return seq.nScheduledNode() - nScheduled.value();
+    }
+
+    /**
+     * Returns the number of nodes excluded since the last update.
+     *
+     * @return the number of nodes excluded
+     */
+    public int nExcluded() {
+        return seq.nExcludedNode() - nExcluded.value();
+    }
+
+    /**
+     * Copies the nodes scheduled since the last update.
+     *
+     * @param dest an array large enough {@code dest.length >= nScheduled()}
+     * @return the number of nodes scheduled, stored in {@code dest[0,...,nScheduled()-1]}
+     */
+    public int fillScheduled(int[] dest) {
+        return seq.fillScheduledSince(nScheduled.value(), dest);
+    }
+
+    /**
+     * Copies the nodes excluded since the last update.
+     *
+     * @param dest an array large enough {@code dest.length >= nExcluded()}
+     * @return the number of nodes excluded, stored in {@code dest[0,...,nExcluded()-1]}
+     */
+    public int fillExcluded(int[] dest) {
+        return seq.fillExcludedSince(nExcluded.value(), dest);
+    }
+
+    @Override
+    public String toString() {
+        return "delta of " + seq + ": " + nScheduled() + " scheduled, " + nExcluded() + " excluded";
+    }
+}
@@ -43,6 +43,18 @@ public interface IntDomain {
      */
     int size();
 
+    /**
+     * Copies the values removed from the domain since it had the given bounds and size.
+     * The domain must only have been reduced since then.
+     *
+     * @param oldMin the minimum value of the domain at that time
+     * @param oldMax the maximum value of the domain at that time
+     * @param oldSize the size of the domain at that time
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since then, stored in {@code dest[0,...,oldSize - size() - 1]}
+     */
+    int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest);
+
     /**
      * Checks if the specified value belongs to the domain.
      *
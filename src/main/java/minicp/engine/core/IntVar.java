@@ -113,6 +113,32 @@ public interface IntVar {
      */
     int fillArray(int[] dest);
 
+    /**
+     * Copies the values removed from the domain since it had the given bounds and size,
+     * in time linear in the number of values removed.
+     * The domain must only have been reduced since then,
+     * see {@link DeltaIntVar} to track these changes between two propagations.
+     *
+     * @param oldMin the minimum value of the domain at that time
+     * @param oldMax the maximum value of the domain at that time
+     * @param oldSize the size of the domain at that time
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since then, stored in {@code dest[0,...,oldSize - size() - 1]}
+     */
+    int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest);
+
+    /**
+     * Creates a delta on this variable, that tracks the changes of its domain
+     * since the last call to {@link DeltaIntVar#update()}.
+     * It is typically created when posting a constraint
+     * and updated at the end of each of its propagations.
+     *
+     * @return a delta on this variable
+     */
+    default DeltaIntVar delta() {
+        return new DeltaIntVar(this);
+    }
+
     /**
      * Returns true if the domain of the variable has a single value.
      *
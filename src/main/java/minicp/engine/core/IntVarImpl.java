@@ -35,6 +35,31 @@ public class IntVarImpl implements IntVar {
     private StateStack<Constraint> onBind;
     private StateStack<Constraint> onBounds;
 
+    // events accumulated since the constraints were last scheduled, notified once by the solver
+    private static final int DOMAIN = 1;
+    private static final int BIND = 1 << 1;
+    private static final int BOUNDS = 1 << 2;
+    private int eventMask = 0;
+
+    private final VariableEvents events = new VariableEvents() {
+        @Override
+        public void notifyEvents() {
+            int mask = eventMask;
+            eventMask = 0;
+            if ((mask & DOMAIN) != 0)
+                scheduleAll(onDomain);
+            if ((mask & BIND) != 0)
+                scheduleAll(onBind);
+            if ((mask & BOUNDS) != 0)
+                scheduleAll(onBounds);
+        }
+
+        @Override
+        public void discardEvents() {
+            eventMask = 0;
+        }
+    };
+
     private DomainListener domListener = new DomainListener() {
         @Override
         public void empty() {
@@ -43,22 +68,22 @@ public class IntVarImpl implements IntVar {
 
         @Override
         public void bind() {
-            scheduleAll(onBind);
+            addEvent(BIND);
         }
 
         @Override
         public void change() {
-            scheduleAll(onDomain);
+            addEvent(DOMAIN);
         }
 
         @Override
         public void changeMin() {
-            scheduleAll(onBounds);
+            addEvent(BOUNDS);
         }
 
         @Override
         public void changeMax() {
-            scheduleAll(onBounds);
+            addEvent(BOUNDS);
         }
     };
 
@@ -103,6 +128,20 @@ public class IntVarImpl implements IntVar {
         onBounds = new StateStack<>(cp.getStateManager());
     }
 
+    /**
+     * Creates a variable with a given domain.
+     *
+     * @param cp the solver in which the variable is created
+     * @param domain the initial domain, it must be nonempty
+     */
+    protected IntVarImpl(Solver cp, IntDomain domain) {
+        this.cp = cp;
+        this.domain = domain;
+        onDomain = new StateStack<>(cp.getStateManager());
+        onBind = new StateStack<>(cp.getStateManager());
+        onBounds = new StateStack<>(cp.getStateManager());
+    }
+
     /**
      * Creates a variable with a given set of values as initial domain.
      *
@@ -182,6 +221,18 @@ public class IntVarImpl implements IntVar {
             cp.schedule(constraints.get(i));
     }
 
+    /**
+     * Records an event, the variable is scheduled for notification
+     * on its first event since the last notification.
+     *
+     * @param event the event that occurred
+     */
+    private void addEvent(int event) {
+        if (eventMask == 0)
+            cp.scheduleEvents(events);
+        eventMask |= event;
+    }
+
     @Override
     public int min() {
         return domain.min();
@@ -205,6 +256,11 @@ public class IntVarImpl implements IntVar {
         // END STRIP
     }
 
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        return domain.fillDeltaArray(oldMin, oldMax, oldSize, dest);
+    }
+
     @Override
     public boolean contains(int v) {
         return domain.contains(v);
@@ -102,6 +102,16 @@ public class IntVarViewMul implements IntVar {
         return s;
     }
 
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        int s = a >= 0 ? x.fillDeltaArray(oldMin / a, oldMax / a, oldSize, dest)
+                : x.fillDeltaArray(oldMax / a, oldMin / a, oldSize, dest);
+        for (int i = 0; i < s; i++) {
+            dest[i] *= a;
+        }
+        return s;
+    }
+
     @Override
     public boolean isBound() {
         return x.isBound();
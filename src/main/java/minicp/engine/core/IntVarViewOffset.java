@@ -98,6 +98,15 @@ public class IntVarViewOffset implements IntVar {
         return s;
     }
 
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        int s = x.fillDeltaArray(oldMin - o, oldMax - o, oldSize, dest);
+        for (int i = 0; i < s; i++) {
+            dest[i] += o;
+        }
+        return s;
+    }
+
     @Override
     public boolean isBound() {
         return x.isBound();
@@ -0,0 +1,157 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.state.StateInterval;
+import minicp.state.StateManager;
+
+import java.security.InvalidParameterException;
+
+
+/**
+ * Implementation of a domain with a {@link StateInterval}.
+ * Only the bounds of the domain are stored:
+ * removing a value strictly between them is not supported.
+ */
+public class IntervalDomain implements IntDomain {
+    private StateInterval domain;
+
+    public IntervalDomain(StateManager sm, int min, int max) {
+        if (min == Integer.MIN_VALUE || max == Integer.MAX_VALUE) throw new InvalidParameterException("consider reducing the domains, Integer.MIN _VALUE and Integer.MAX_VALUE not allowed");
+        if (min > max) throw new InvalidParameterException("at least one setValue in the domain");
+        domain = new StateInterval(sm, min, max);
+    }
+
+    @Override
+    public int fillArray(int[] dest) {
+        return domain.fillArray(dest);
+    }
+
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        // the values are only removed on the bounds
+        int k = 0;
+        for (int v = oldMin; v < min(); v++)
+            dest[k++] = v;
+        for (int v = max() + 1; v <= oldMax; v++)
+            dest[k++] = v;
+        return k;
+    }
+
+    @Override
+    public int min() {
+        return domain.min();
+    }
+
+    @Override
+    public int max() {
+        return domain.max();
+    }
+
+    @Override
+    public int size() {
+        return domain.size();
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return domain.contains(v);
+    }
+
+    @Override
+    public boolean isBound() {
+        return domain.size() == 1;
+    }
+
+    /**
+     * Removes a value from the domain, which must be one of its bounds
+     * if the domain is not reduced to it.
+     *
+     * @throws UnsupportedOperationException if the value lies strictly between the bounds
+     */
+    @Override
+    public void remove(int v, DomainListener l) {
+        if (!domain.contains(v))
+            return;
+        if (v == min())
+            removeBelow(v + 1, l);
+        else if (v == max())
+            removeAbove(v - 1, l);
+        else
+            throw new UnsupportedOperationException("an interval domain cannot have holes, only its bounds can be removed");
+    }
+
+    @Override
+    public void removeAllBut(int v, DomainListener l) {
+        if (domain.contains(v)) {
+            if (domain.size() != 1) {
+                boolean maxChanged = max() != v;
+                boolean minChanged = min() != v;
+                domain.removeAllBut(v);
+                l.bind();
+                l.change();
+                if (maxChanged) l.changeMax();
+                if (minChanged) l.changeMin();
+            }
+        } else {
+            domain.removeAll();
+            l.empty();
+        }
+    }
+
+    @Override
+    public void removeBelow(int value, DomainListener l) {
+        if (domain.min() < value) {
+            domain.removeBelow(value);
+            switch (domain.size()) {
+                case 0:
+                    l.empty();
+                    break;
+                case 1:
+                    l.bind();
+                default:
+                    l.changeMin();
+                    l.change();
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void removeAbove(int value, DomainListener l) {
+        if (domain.max() > value) {
+            domain.removeAbove(value);
+            switch (domain.size()) {
+                case 0:
+                    l.empty();
+                    break;
+                case 1:
+                    l.bind();
+                default:
+                    l.changeMax();
+                    l.change();
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (size() == 0) return "{}";
+        return domain.toString();
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+
+/**
+ * Implementation of a variable
+ * with an {@link IntervalDomain}: only its bounds are stored,
+ * using two reversible integers whatever the size of the domain.
+ * It is meant for variables only subject to bound reasoning, such as times.
+ * Removing a value strictly between the bounds is not supported.
+ */
+public class IntervalVarImpl extends IntVarImpl {
+
+    /**
+     * Creates a variable with the elements {@code {min,...,max}}
+     * as initial domain.
+     *
+     * @param cp the solver in which the variable is created
+     * @param min the minimum value of the domain
+     * @param max the maximum value of the domain with {@code max >= min}
+     */
+    public IntervalVarImpl(Solver cp, int min, int max) {
+        super(cp, new IntervalDomain(cp.getStateManager(), min, max));
+    }
+
+}
@@ -17,20 +17,24 @@ package minicp.engine.core;
 
 import minicp.cp.Factory;
 import minicp.search.Objective;
+import minicp.search.SharedBound;
 import minicp.state.StateManager;
 import minicp.state.StateStack;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.Procedure;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 
 public class MiniCP implements Solver {
 
-    private Queue<Constraint> propagationQueue = new ArrayDeque<>();
+    // one queue per priority, the cheapest constraints are propagated first
+    private final List<ArrayDeque<Constraint>> propagationQueue;
+    // variables whose events are not yet notified to their constraints
+    private final ArrayDeque<VariableEvents> pendingEvents = new ArrayDeque<>();
     private List<Procedure> fixPointListeners = new LinkedList<>();
 
     private final StateManager sm;
@@ -40,6 +44,10 @@ public class MiniCP implements Solver {
     public MiniCP(StateManager sm) {
         this.sm = sm;
         vars = new StateStack<>(sm);
+        int nPriorities = Constraint.Priority.values().length;
+        propagationQueue = new ArrayList<>(nPriorities);
+        for (int i = 0; i < nPriorities; i++)
+            propagationQueue.add(new ArrayDeque<>());
     }
 
     @Override
@@ -50,10 +58,15 @@ public class MiniCP implements Solver {
     public void schedule(Constraint c) {
         if (c.isActive() && !c.isScheduled()) {
             c.setScheduled(true);
-            propagationQueue.add(c);
+            propagationQueue.get(c.priority().ordinal()).add(c);
         }
     }
 
+    @Override
+    public void scheduleEvents(VariableEvents x) {
+        pendingEvents.add(x);
+    }
+
     @Override
     public void onFixPoint(Procedure listener) {
         fixPointListeners.add(listener);
@@ -67,17 +80,36 @@ public class MiniCP implements Solver {
     public void fixPoint() {
         try {
             notifyFixPoint();
-            while (!propagationQueue.isEmpty()) {
-                propagate(propagationQueue.remove());
+            Constraint c;
+            while ((c = nextToPropagate()) != null) {
+                propagate(c);
             }
         } catch (InconsistencyException e) {
-            // empty the queue and unset the scheduled status
-            while (!propagationQueue.isEmpty())
-                propagationQueue.remove().setScheduled(false);
+            // empty the queues and unset the scheduled status
+            while (!pendingEvents.isEmpty())
+                pendingEvents.remove().discardEvents();
+            for (ArrayDeque<Constraint> queue : propagationQueue)
+                while (!queue.isEmpty())
+                    queue.remove().setScheduled(false);
             throw e;
         }
     }
 
+    /**
+     * Notifies the pending events, then removes the next constraint to propagate
+     * from the queue of the cheapest priority that is not empty.
+     *
+     * @return the next constraint to propagate, null if every queue is empty
+     */
+    private Constraint nextToPropagate() {
+        while (!pendingEvents.isEmpty())
+            pendingEvents.remove().notifyEvents();
+        for (ArrayDeque<Constraint> queue : propagationQueue)
+            if (!queue.isEmpty())
+                return queue.remove();
+        return null;
+    }
+
     private void propagate(Constraint c) {
         c.setScheduled(false);
         if (c.isActive())
@@ -89,6 +121,11 @@ public class MiniCP implements Solver {
         return new Minimize(x);
     }
 
+    @Override
+    public Objective minimize(IntVar x, SharedBound bound) {
+        return new Minimize(x, bound);
+    }
+
     @Override
     public Objective maximize(IntVar x) {
         return minimize(Factory.minus(x));
@@ -16,23 +16,60 @@
 package minicp.engine.core;
 
 import minicp.search.Objective;
+import minicp.search.SharedBound;
 import minicp.util.exception.InconsistencyException;
 
 /**
  * Minimization objective function
  */
 public class Minimize implements Objective {
-    private int bound = Integer.MAX_VALUE;
+    private int bound = Integer.MAX_VALUE; // enforced at each fix-point
+    private int best = Integer.MAX_VALUE;  // best bound known
     private final IntVar x;
+    private final SharedBound shared;
 
     public Minimize(IntVar x) {
+        this(x, null);
+    }
+
+    /**
+     * Creates a minimization objective whose bound is shared
+     * with other solvers, possibly running in other threads.
+     * The best value published by any of them is enforced
+     * on each {@link #refresh()}.
+     *
+     * @param x the variable to minimize
+     * @param shared the best value found by all the solvers
+     */
+    public Minimize(IntVar x, SharedBound shared) {
         this.x = x;
+        this.shared = shared;
         x.getSolver().onFixPoint(() -> x.removeAbove(bound));
     }
 
     public void tighten() {
         if (!x.isBound()) throw new RuntimeException("objective not bound");
-        this.bound = x.max() - 1;
+        this.best = x.max() - 1;
+        this.bound = best;
+        if (shared != null)
+            shared.improve(x.max());
         throw InconsistencyException.INCONSISTENCY;
     }
+
+    @Override
+    public void refresh() {
+        if (shared != null)
+            best = Math.min(best, shared.get() - 1);
+        bound = best;
+    }
+
+    @Override
+    public int bound() {
+        return bound;
+    }
+
+    @Override
+    public void enforce(int bound) {
+        this.bound = bound;
+    }
 }
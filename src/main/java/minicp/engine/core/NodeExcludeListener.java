@@ -0,0 +1,17 @@
+package minicp.engine.core;
+
+/**
+ * Listener called whenever a node is excluded from a {@link SequenceVar}
+ *
+ * @see SequenceVar#whenExclude(NodeExcludeListener)
+ */
+@FunctionalInterface
+public interface NodeExcludeListener {
+
+    /**
+     * Called when a node has been excluded from the sequence
+     *
+     * @param node the node excluded
+     */
+    void exclude(int node);
+}
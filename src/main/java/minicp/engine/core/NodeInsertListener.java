@@ -0,0 +1,19 @@
+package minicp.engine.core;
+
+/**
+ * Listener called whenever a node is scheduled into a {@link SequenceVar}
+ *
+ * @see SequenceVar#whenInsert(NodeInsertListener)
+ */
+@FunctionalInterface
+public interface NodeInsertListener {
+
+    /**
+     * Called when a node has been inserted between two consecutive members of the sequence
+     *
+     * @param node the node inserted
+     * @param pred the predecessor of the node at the time of the insertion
+     * @param succ the successor of the node at the time of the insertion
+     */
+    void insert(int node, int pred, int succ);
+}
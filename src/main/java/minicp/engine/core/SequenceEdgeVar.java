@@ -2,16 +2,32 @@ package minicp.engine.core;
 
 import minicp.util.Procedure;
 
+/**
+ * Sequence variable represented as a graph: the edge {@code (from, to)} tells that {@code to}
+ * can directly follow {@code from} in the final sequence.
+ * Nodes are numbered {@code 0...nNodes-1}, the sequence begins at {@link #begin()} = {@code nNodes}
+ * and ends at {@link #end()} = {@code nNodes+1}.
+ * Each node keeps its set of candidate predecessors and successors,
+ * allowing to filter both sides of a node in linear time.
+ */
 public interface SequenceEdgeVar {
 
     Solver getSolver();
 
-    int nScheduled();
+    int begin();
+    int end();
+
+    int nScheduled();   // number of scheduled nodes, begin and end excluded
     int nPossible();
-    int nRequired();
+    int nRequired();    // number of scheduled nodes, begin and end included
+    int nExcluded();
     boolean isBound();
     int nNodes();
 
+    boolean isScheduled(int node);
+    boolean isPossible(int node);
+    boolean isExcluded(int node);
+
     int nextMember(int node);
     int predMember(int node);
 
@@ -20,28 +36,28 @@ public interface SequenceEdgeVar {
     void exclude(int node);
     void excludeAllPossible();
 
-    int fillOrder(int[] dest);      // O(nScheduled)
+    int fillOrder(int[] dest);      // O(nScheduled), begin and end included
     int fillPossible(int[] dest);   // O(nPossible)
     int fillExcluded(int[] dest);   // O(nExcluded)
 
     void removeEdge(int from, int to);  // 2 operations: removePred and removeSucc, O(1)
-    void removeAllEdgesFrom(int from);  // O(nPossible)
-    void removeAllEdgesTo(int to);      // O(nPossible)
-    void hasEdge(int from, int to);     // O(1)
+    void removeAllEdgesFrom(int from);  // O(nSucc)
+    void removeAllEdgesTo(int to);      // O(nPred)
+    boolean hasEdge(int from, int to);  // O(1)
 
     int nPredecessors(int node);            // O(1)
     int nScheduledPredecessors(int node);   // O(1)
     int nPossiblePredecessors(int node);    // O(1)
-    void fillPredecessors(int node, int[] dest);            // O(nPred)
-    void fillScheduledPredecessors(int node, int[] dest);   // O(min(nScheduled, nPred))
-    void fillPossiblePredecessors(int node, int[] dest);    // O(min(nPossible,  nPred))
+    int fillPredecessors(int node, int[] dest);             // O(nPred)
+    int fillScheduledPredecessors(int node, int[] dest);    // O(min(nScheduled, nPred))
+    int fillPossiblePredecessors(int node, int[] dest);     // O(min(nPossible,  nPred))
 
     int nSuccessors(int node);              // O(1)
     int nScheduledSuccessors(int node);     // O(1)
     int nPossibleSuccessors(int node);      // O(1)
-    void fillSuccessors(int node, int[] dest);              // O(nSucc)
-    void fillScheduledSuccessors(int node, int[] dest);     // O(min(nScheduled, nPred))
-    void fillPossibleSuccessors(int node, int[] dest);      // O(min(nPossible,  nPred))
+    int fillSuccessors(int node, int[] dest);               // O(nSucc)
+    int fillScheduledSuccessors(int node, int[] dest);      // O(min(nScheduled, nSucc))
+    int fillPossibleSuccessors(int node, int[] dest);       // O(min(nPossible,  nSucc))
 
     void whenFixed(Procedure f);
     void whenInsert(Procedure f);
@@ -50,21 +66,23 @@ public interface SequenceEdgeVar {
     void propagateOnInsert(Constraint c);
     void propagateOnExclude(Constraint c);
 
-    InsertionVar getInsertionVar(int node); // same methods for retrieving edges, can propagate on it
+    InsertionVar getInsertionVar(int node); // insertions are the predecessors of the node, can propagate on it
 
     /*
-     * - a node scheduled in the sequence might still have a set of successors and predecessors
-     * - canInsert(int from, int to) if hasEdge(int from, int to) && isScheduled(from) && hasEdge(int to, int fromSucc)
+     * - a node scheduled in the sequence keeps the edges from its predecessor and to its successor,
+     *   together with the edges linking it to possible nodes
+     * - canInsert(int pred, int node) if hasEdge(pred, node) && isScheduled(pred) && hasEdge(node, succ[pred])
      *
      * - insert(int pred, int node) is more complex:
      *      predSucc = succ[pred]
      *      succ[pred] = node
      *      succ[node] = predSucc
-     *      pred[node] = node
+     *      pred[node] = pred
      *      pred[predSucc] = node       // change the order of the sequence
-     *      removeEdge(pred, node)      // not anymore a potential edge
-     *      removeEdge(node, predSucc)  // not anymore a potential edge
+     *      removeEdge(pred, predSucc)  // a node now lies between them
+     *      removeEdge(node, x) and removeEdge(x, node) for the scheduled nodes x not adjacent to node
      *
+     * - a possible node without predecessor or successor is excluded
      */
 
 }
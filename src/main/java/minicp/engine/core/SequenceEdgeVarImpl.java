@@ -0,0 +1,667 @@
+package minicp.engine.core;
+
+import minicp.state.StateInt;
+import minicp.state.StateIntArray;
+import minicp.state.StateManager;
+import minicp.state.StateSequenceSet;
+import minicp.state.StateStack;
+import minicp.util.Procedure;
+
+import static minicp.util.exception.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Implementation of a {@link SequenceEdgeVar}, where every node holds
+ * a sparse set of candidate predecessors and a sparse set of candidate successors.
+ * Removing an edge updates both sets in O(1).
+ */
+public class SequenceEdgeVarImpl implements SequenceEdgeVar {
+
+    private final Solver cp;
+    private final int nNodes;               // number of nodes available (omitting begin and end)
+    private final int begin;                // beginning of the sequence
+    private final int end;                  // end of the sequence
+    private final int n;                    // number of nodes, begin and end included
+    private final NodeSet[] preds;          // candidate predecessors of the nodes
+    private final NodeSet[] succs;          // candidate successors of the nodes
+    private final StateIntArray nScheduledPreds;    // number of scheduled nodes within the predecessors
+    private final StateIntArray nScheduledSuccs;    // number of scheduled nodes within the successors
+    private final StateIntArray succ;       // successors of the nodes in the sequence
+    private final StateIntArray pred;       // predecessors of the nodes in the sequence
+    private final StateSequenceSet domain;  // domain for the set of Scheduled, Possible and Excluded nodes
+    private final InsertionVarInEdgeSequence[] insertionVars; // created on demand
+    private final StateStack<Constraint> onInsert;
+    private final StateStack<Constraint> onFix;
+    private final StateStack<Constraint> onExclude;
+    private final int[] values;
+
+    /**
+     * Reversible sparse set over {@code 0...n-1}, whose values can be iterated in place.
+     * Only removals are done, so that iterating from the last value to the first one
+     * visits every value even when values are removed during the iteration.
+     */
+    private static class NodeSet {
+
+        private final int[] values;
+        private final int[] indexes;
+        private final StateInt size;
+
+        NodeSet(StateManager sm, int n) {
+            values = new int[n];
+            indexes = new int[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = i;
+                indexes[i] = i;
+            }
+            size = sm.makeStateInt(n);
+        }
+
+        int size() {
+            return size.value();
+        }
+
+        boolean contains(int v) {
+            return indexes[v] < size.value();
+        }
+
+        boolean remove(int v) {
+            int s = size.value();
+            int i = indexes[v];
+            if (i >= s)
+                return false;
+            int last = values[s - 1];
+            values[i] = last;
+            indexes[last] = i;
+            values[s - 1] = v;
+            indexes[v] = s - 1;
+            size.setValue(s - 1);
+            return true;
+        }
+
+        int fill(int[] dest) {
+            int s = size.value();
+            System.arraycopy(values, 0, dest, 0, s);
+            return s;
+        }
+    }
+
+    /**
+     * Insertion var of a node, whose insertion points are the predecessors of the node.
+     */
+    private class InsertionVarInEdgeSequence implements InsertionVar {
+
+        private final int id;
+        private final StateStack<Constraint> onInsert;
+        private final StateStack<Constraint> onDomain;
+        private final StateStack<Constraint> onExclude;
+
+        InsertionVarInEdgeSequence(int id) {
+            this.id = id;
+            onInsert = new StateStack<>(cp.getStateManager());
+            onDomain = new StateStack<>(cp.getStateManager());
+            onExclude = new StateStack<>(cp.getStateManager());
+        }
+
+        @Override
+        public Solver getSolver() {
+            return cp;
+        }
+
+        @Override
+        public boolean isBound() {
+            return !isPossible(id);
+        }
+
+        @Override
+        public void removeInsert(int i) {
+            removeEdge(i, id);
+        }
+
+        @Override
+        public void removeAllInsert() {
+            exclude(id);
+        }
+
+        @Override
+        public void removeAllInsertBut(int i) {
+            if (isScheduled(i))  // equivalent to the insertion of the node
+                insert(i, id);
+            else if (isPossible(i) && hasEdge(i, id)) {
+                NodeSet set = preds[id];
+                for (int k = set.size() - 1; k >= 0; --k) {
+                    if (k < set.size() && set.values[k] != i)
+                        removeEdge(set.values[k], id);
+                }
+            } else
+                throw INCONSISTENCY; // trying to assign an invalid insertion point
+        }
+
+        @Override
+        public boolean contains(int i) {
+            return hasEdge(i, id);
+        }
+
+        @Override
+        public int node() {
+            return id;
+        }
+
+        @Override
+        public int fillInsertions(int[] dest) {
+            return fillPredecessors(id, dest);
+        }
+
+        @Override
+        public int size() {
+            return nPredecessors(id);
+        }
+
+        @Override
+        public void whenInsert(Procedure f) {
+            onInsert.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnInsert(Constraint c) {
+            onInsert.push(c);
+        }
+
+        @Override
+        public void whenDomainChange(Procedure f) {
+            onDomain.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnDomainChange(Constraint c) {
+            onDomain.push(c);
+        }
+
+        @Override
+        public void whenExclude(Procedure f) {
+            onExclude.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnExclude(Constraint c) {
+            onExclude.push(c);
+        }
+
+        @Override
+        public void whenBind(Procedure f) {
+            onExclude.push(constraintClosure(f));
+            onInsert.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnBind(Constraint c) {
+            onInsert.push(c);
+            onExclude.push(c);
+        }
+    }
+
+    /**
+     * Creates a sequence over the nodes {@code 0...nNodes-1}, beginning at {@code nNodes} and ending at {@code nNodes+1}.
+     * At first, every node can follow any other one.
+     *
+     * @param cp the solver
+     * @param nNodes number of nodes that can be inserted in the sequence
+     */
+    public SequenceEdgeVarImpl(Solver cp, int nNodes) {
+        this.cp = cp;
+        this.nNodes = nNodes;
+        this.begin = nNodes;
+        this.end = nNodes + 1;
+        this.n = nNodes + 2;
+        StateManager sm = cp.getStateManager();
+        succ = sm.makeStateIntArray(n, 0);
+        pred = sm.makeStateIntArray(n, 0);
+        for (int i = 0; i < nNodes; ++i) {
+            succ.set(i, i);
+            pred.set(i, i);
+        }
+        succ.set(begin, end); // the sequence is a closed loop at the beginning
+        succ.set(end, begin);
+        pred.set(begin, end);
+        pred.set(end, begin);
+
+        domain = new StateSequenceSet(sm, n);
+        domain.require(begin);
+        domain.require(end);
+
+        // edges at first: begin -> {0...nNodes-1, end}, i -> {0...nNodes-1, end} \ {i}
+        preds = new NodeSet[n];
+        succs = new NodeSet[n];
+        for (int i = 0; i < n; ++i) {
+            preds[i] = new NodeSet(sm, n);
+            succs[i] = new NodeSet(sm, n);
+            preds[i].remove(end);
+            succs[i].remove(begin);
+            if (i != begin && i != end) {
+                preds[i].remove(i);
+                succs[i].remove(i);
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            succs[end].remove(i);
+            preds[begin].remove(i);
+        }
+        nScheduledPreds = sm.makeStateIntArray(n, 1); // begin is always a scheduled predecessor at first
+        nScheduledSuccs = sm.makeStateIntArray(n, 1); // end is always a scheduled successor at first
+        nScheduledPreds.set(begin, 0);
+        nScheduledSuccs.set(end, 0);
+
+        insertionVars = new InsertionVarInEdgeSequence[n];
+        onInsert = new StateStack<>(sm);
+        onFix = new StateStack<>(sm);
+        onExclude = new StateStack<>(sm);
+        values = new int[n];
+    }
+
+    @Override
+    public Solver getSolver() {
+        return cp;
+    }
+
+    @Override
+    public int begin() {
+        return begin;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+
+    @Override
+    public int nScheduled() {
+        return domain.nRequired() - 2;
+    }
+
+    @Override
+    public int nPossible() {
+        return domain.nPossible();
+    }
+
+    @Override
+    public int nRequired() {
+        return domain.nRequired();
+    }
+
+    @Override
+    public int nExcluded() {
+        return domain.nExcluded();
+    }
+
+    @Override
+    public boolean isBound() {
+        return domain.nPossible() == 0;
+    }
+
+    @Override
+    public int nNodes() {
+        return nNodes;
+    }
+
+    @Override
+    public boolean isScheduled(int node) {
+        return domain.isRequired(node);
+    }
+
+    @Override
+    public boolean isPossible(int node) {
+        return domain.isPossible(node);
+    }
+
+    @Override
+    public boolean isExcluded(int node) {
+        return domain.isExcluded(node);
+    }
+
+    @Override
+    public int nextMember(int node) {
+        return succ.get(node);
+    }
+
+    @Override
+    public int predMember(int node) {
+        return pred.get(node);
+    }
+
+    @Override
+    public boolean canInsert(int pred, int node) {
+        return isPossible(node) && isScheduled(pred) && pred != end
+                && hasEdge(pred, node) && hasEdge(node, succ.get(pred));
+    }
+
+    @Override
+    public void insert(int pred, int node) {
+        if (!isScheduled(pred) || pred == end)
+            throw INCONSISTENCY;
+        if (!isPossible(node)) {
+            // the node is either already scheduled or excluded
+            if (succ.get(pred) != node || isExcluded(node))
+                throw INCONSISTENCY;
+            return; // trying to do the same insertion twice
+        }
+        int predSucc = succ.get(pred);
+        if (!hasEdge(pred, node) || !hasEdge(node, predSucc))
+            throw INCONSISTENCY;
+        domain.require(node);
+        succ.set(pred, node);
+        succ.set(node, predSucc);
+        this.pred.set(node, pred);
+        this.pred.set(predSucc, node);
+        // the node is now a scheduled neighbor of its candidates
+        NodeSet set = succs[node];
+        for (int k = 0; k < set.size(); ++k)
+            nScheduledPreds.set(set.values[k], nScheduledPreds.get(set.values[k]) + 1);
+        set = preds[node];
+        for (int k = 0; k < set.size(); ++k)
+            nScheduledSuccs.set(set.values[k], nScheduledSuccs.get(set.values[k]) + 1);
+
+        removeEdge(pred, predSucc); // a node now lies between them
+        // the only scheduled neighbors of the node are its predecessor and successor in the sequence
+        set = succs[node];
+        for (int k = set.size() - 1; k >= 0; --k) {
+            if (k < set.size()) {
+                int x = set.values[k];
+                if (x != predSucc && isScheduled(x))
+                    removeEdge(node, x);
+            }
+        }
+        set = preds[node];
+        for (int k = set.size() - 1; k >= 0; --k) {
+            if (k < set.size()) {
+                int x = set.values[k];
+                if (x != pred && isScheduled(x))
+                    removeEdge(x, node);
+            }
+        }
+
+        if (isBound())
+            scheduleAll(onFix);
+        if (insertionVars[node] != null) {
+            scheduleAll(insertionVars[node].onInsert);
+            scheduleAll(insertionVars[node].onDomain);
+        }
+        scheduleAll(onInsert);
+    }
+
+    @Override
+    public void exclude(int node) {
+        if (isScheduled(node))
+            throw INCONSISTENCY;
+        if (!domain.exclude(node))
+            return; // already excluded
+        removeAllEdgesFrom(node);
+        removeAllEdgesTo(node);
+        if (isBound())
+            scheduleAll(onFix);
+        if (insertionVars[node] != null)
+            scheduleAll(insertionVars[node].onExclude);
+        scheduleAll(onExclude);
+    }
+
+    @Override
+    public void excludeAllPossible() {
+        int size = domain.getPossible(values);
+        for (int i = size - 1; i >= 0; --i)
+            exclude(values[i]);
+    }
+
+    @Override
+    public int fillOrder(int[] dest) {
+        dest[0] = begin;
+        int i = 1;
+        for (; dest[i - 1] != end; ++i)
+            dest[i] = succ.get(dest[i - 1]);
+        return i;
+    }
+
+    @Override
+    public int fillPossible(int[] dest) {
+        return domain.getPossible(dest);
+    }
+
+    @Override
+    public int fillExcluded(int[] dest) {
+        return domain.getExcluded(dest);
+    }
+
+    @Override
+    public void removeEdge(int from, int to) {
+        if (!hasEdge(from, to))
+            return;
+        succs[from].remove(to);
+        preds[to].remove(from);
+        if (isScheduled(from))
+            nScheduledPreds.set(to, nScheduledPreds.get(to) - 1);
+        if (isScheduled(to))
+            nScheduledSuccs.set(from, nScheduledSuccs.get(from) - 1);
+        if (insertionVars[to] != null)
+            scheduleAll(insertionVars[to].onDomain);
+        checkNode(from);
+        checkNode(to);
+    }
+
+    /**
+     * Excludes a possible node that can no longer be linked to the sequence,
+     * and fails if a scheduled node has lost its predecessors or successors.
+     */
+    private void checkNode(int node) {
+        boolean disconnected = (node != begin && preds[node].size() == 0)
+                || (node != end && succs[node].size() == 0);
+        if (!disconnected)
+            return;
+        if (isPossible(node))
+            exclude(node);
+        else if (isScheduled(node))
+            throw INCONSISTENCY;
+    }
+
+    @Override
+    public void removeAllEdgesFrom(int from) {
+        NodeSet set = succs[from];
+        for (int k = set.size() - 1; k >= 0; --k) {
+            if (k < set.size())
+                removeEdge(from, set.values[k]);
+        }
+    }
+
+    @Override
+    public void removeAllEdgesTo(int to) {
+        NodeSet set = preds[to];
+        for (int k = set.size() - 1; k >= 0; --k) {
+            if (k < set.size())
+                removeEdge(set.values[k], to);
+        }
+    }
+
+    @Override
+    public boolean hasEdge(int from, int to) {
+        if (from < 0 || from >= n || to < 0 || to >= n)
+            return false;
+        return succs[from].contains(to);
+    }
+
+    @Override
+    public int nPredecessors(int node) {
+        return preds[node].size();
+    }
+
+    @Override
+    public int nScheduledPredecessors(int node) {
+        return nScheduledPreds.get(node);
+    }
+
+    @Override
+    public int nPossiblePredecessors(int node) {
+        return preds[node].size() - nScheduledPreds.get(node);
+    }
+
+    @Override
+    public int fillPredecessors(int node, int[] dest) {
+        return preds[node].fill(dest);
+    }
+
+    @Override
+    public int fillScheduledPredecessors(int node, int[] dest) {
+        int j = 0;
+        if (domain.nRequired() < preds[node].size()) { // quicker to iterate over the current sequence
+            int current = begin;
+            while (current != end) {
+                if (hasEdge(current, node))
+                    dest[j++] = current;
+                current = succ.get(current);
+            }
+        } else { // quicker to iterate over the predecessors
+            NodeSet set = preds[node];
+            for (int k = 0; k < set.size(); ++k) {
+                if (isScheduled(set.values[k]))
+                    dest[j++] = set.values[k];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public int fillPossiblePredecessors(int node, int[] dest) {
+        int j = 0;
+        if (domain.nPossible() < preds[node].size()) { // quicker to iterate over the possible nodes
+            int size = domain.getPossible(values);
+            for (int k = 0; k < size; ++k) {
+                if (hasEdge(values[k], node))
+                    dest[j++] = values[k];
+            }
+        } else { // quicker to iterate over the predecessors
+            NodeSet set = preds[node];
+            for (int k = 0; k < set.size(); ++k) {
+                if (isPossible(set.values[k]))
+                    dest[j++] = set.values[k];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public int nSuccessors(int node) {
+        return succs[node].size();
+    }
+
+    @Override
+    public int nScheduledSuccessors(int node) {
+        return nScheduledSuccs.get(node);
+    }
+
+    @Override
+    public int nPossibleSuccessors(int node) {
+        return succs[node].size() - nScheduledSuccs.get(node);
+    }
+
+    @Override
+    public int fillSuccessors(int node, int[] dest) {
+        return succs[node].fill(dest);
+    }
+
+    @Override
+    public int fillScheduledSuccessors(int node, int[] dest) {
+        int j = 0;
+        if (domain.nRequired() < succs[node].size()) { // quicker to iterate over the current sequence
+            int current = succ.get(begin);
+            while (current != begin) {
+                if (hasEdge(node, current))
+                    dest[j++] = current;
+                current = succ.get(current);
+            }
+        } else { // quicker to iterate over the successors
+            NodeSet set = succs[node];
+            for (int k = 0; k < set.size(); ++k) {
+                if (isScheduled(set.values[k]))
+                    dest[j++] = set.values[k];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public int fillPossibleSuccessors(int node, int[] dest) {
+        int j = 0;
+        if (domain.nPossible() < succs[node].size()) { // quicker to iterate over the possible nodes
+            int size = domain.getPossible(values);
+            for (int k = 0; k < size; ++k) {
+                if (hasEdge(node, values[k]))
+                    dest[j++] = values[k];
+            }
+        } else { // quicker to iterate over the successors
+            NodeSet set = succs[node];
+            for (int k = 0; k < set.size(); ++k) {
+                if (isPossible(set.values[k]))
+                    dest[j++] = set.values[k];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public InsertionVar getInsertionVar(int node) {
+        if (node == begin || node == end || node < 0 || node >= nNodes)
+            return null;
+        if (insertionVars[node] == null)
+            insertionVars[node] = new InsertionVarInEdgeSequence(node);
+        return insertionVars[node];
+    }
+
+    /**  =====  propagation methods  =====  */
+
+    @Override
+    public void whenFixed(Procedure f) {
+        onFix.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenInsert(Procedure f) {
+        onInsert.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenExclude(Procedure f) {
+        onExclude.push(constraintClosure(f));
+    }
+
+    @Override
+    public void propagateOnFix(Constraint c) {
+        onFix.push(c);
+    }
+
+    @Override
+    public void propagateOnInsert(Constraint c) {
+        onInsert.push(c);
+    }
+
+    @Override
+    public void propagateOnExclude(Constraint c) {
+        onExclude.push(c);
+    }
+
+    protected void scheduleAll(StateStack<Constraint> constraints) {
+        for (int i = 0; i < constraints.size(); i++)
+            cp.schedule(constraints.get(i));
+    }
+
+    private Constraint constraintClosure(Procedure f) {
+        Constraint c = new ConstraintClosure(cp, f);
+        getSolver().post(c, false);
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder(String.format("%d", begin));
+        int current = begin;
+        while (current != end) {
+            current = succ.get(current);
+            description.append(" -> ");
+            description.append(current);
+        }
+        return description.toString();
+    }
+}
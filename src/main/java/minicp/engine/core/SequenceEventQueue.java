@@ -0,0 +1,159 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.state.StateInt;
+import minicp.state.StateManager;
+
+/**
+ * Queue of the nodes scheduled into and excluded from a {@link SequenceVar}
+ * since the last propagation of a constraint.
+ * <p>
+ * The constraint is scheduled on each event and reads the events
+ * in its {@link Constraint#propagate()} method,
+ * then calls {@link #clear()} before acting on the sequence.
+ * A node is inserted or excluded at most once in a branch of the search,
+ * such that the queue never holds more events than the number of nodes.
+ * The size of the queue is reversible: the fix-point is reached
+ * (and the queue is empty) when the state is saved,
+ * so that the events of a failed propagation are discarded on restoration.
+ *
+ * @see SequenceVar#propagateOnNodeEvents(Constraint)
+ */
+public class SequenceEventQueue {
+
+    private final int[] insertNode;
+    private final int[] insertPred;
+    private final int[] insertSucc;
+    private final int[] excludeNode;
+    private final StateInt nInserts;
+    private final StateInt nExcludes;
+
+    /**
+     * Creates a queue of events and registers it on the sequence.
+     *
+     * @param seq the sequence whose events are recorded
+     * @param c the constraint scheduled on each event
+     */
+    public SequenceEventQueue(SequenceVar seq, Constraint c) {
+        StateManager sm = seq.getSolver().getStateManager();
+        int n = seq.nNodes();
+        insertNode = new int[n];
+        insertPred = new int[n];
+        insertSucc = new int[n];
+        excludeNode = new int[n];
+        nInserts = sm.makeStateInt(0);
+        nExcludes = sm.makeStateInt(0);
+        Solver cp = seq.getSolver();
+        seq.whenInsert((node, pred, succ) -> {
+            if (c.isActive()) {
+                int i = nInserts.value();
+                insertNode[i] = node;
+                insertPred[i] = pred;
+                insertSucc[i] = succ;
+                nInserts.setValue(i + 1);
+                cp.schedule(c);
+            }
+        });
+        seq.whenExclude(node -> {
+            if (c.isActive()) {
+                int i = nExcludes.value();
+                excludeNode[i] = node;
+                nExcludes.setValue(i + 1);
+                cp.schedule(c);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of insertions since the last {@link #clear()}.
+     *
+     * @return the number of insertions recorded
+     */
+    public int nInserts() {
+        return nInserts.value();
+    }
+
+    /**
+     * Returns the node of an insertion.
+     *
+     * @param i the index of the insertion, in the order of the events
+     * @return the node inserted
+     */
+    public int insertedNode(int i) {
+        return insertNode[i];
+    }
+
+    /**
+     * Returns the predecessor of the node of an insertion,
+     * at the time of the insertion.
+     *
+     * @param i the index of the insertion, in the order of the events
+     * @return the predecessor of the node inserted
+     */
+    public int insertedPred(int i) {
+        return insertPred[i];
+    }
+
+    /**
+     * Returns the successor of the node of an insertion,
+     * at the time of the insertion.
+     *
+     * @param i the index of the insertion, in the order of the events
+     * @return the successor of the node inserted
+     */
+    public int insertedSucc(int i) {
+        return insertSucc[i];
+    }
+
+    /**
+     * Returns the number of exclusions since the last {@link #clear()}.
+     *
+     * @return the number of exclusions recorded
+     */
+    public int nExcludes() {
+        return nExcludes.value();
+    }
+
+    /**
+     * Returns the node of an exclusion.
+     *
+     * @param i the index of the exclusion, in the order of the events
+     * @return the node excluded
+     */
+    public int excludedNode(int i) {
+        return excludeNode[i];
+    }
+
+    /**
+     * Returns true if no event has been recorded since the last {@link #clear()}.
+     *
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return nInserts.value() == 0 && nExcludes.value() == 0;
+    }
+
+    /**
+     * Removes the events recorded.
+     */
+    public void clear() {
+        if (nInserts.value() != 0)
+            nInserts.setValue(0);
+        if (nExcludes.value() != 0)
+            nExcludes.setValue(0);
+    }
+}
@@ -70,6 +70,19 @@ public interface SequenceVar {
      */
     void schedule(int node, int pred);
 
+    /**
+     * set a chain of nodes into the sequence: each node {@code order[i]} with {@code from < i < to}
+     * is scheduled right after {@code order[i-1]}. {@code order[from]} must already be scheduled.
+     * The sequence listeners are notified once for the whole chain
+     * @param order chain of nodes to schedule
+     * @param from index of the scheduled node starting the chain
+     * @param to index after the last node to schedule
+     */
+    default void scheduleAll(int[] order, int from, int to) {
+        for (int i = from + 1; i < to; ++i)
+            schedule(order[i], order[i - 1]);
+    }
+
     /**
      * tell if a node can be scheduled with a given predecessor
      * @param node node trying to be scheduled
@@ -102,6 +115,39 @@ public interface SequenceVar {
 
     int fillExcluded(int[] dest);
 
+    /**
+     * Copies the nodes scheduled since the sequence had the given number of scheduled nodes,
+     * in time linear in the number of nodes scheduled.
+     * The sequence must only have been reduced since then,
+     * see {@link DeltaSequenceVar} to track these changes between two propagations.
+     *
+     * @param nScheduled the number of scheduled nodes at that time, as given by {@link #nScheduledNode()}
+     * @param dest an array large enough {@code dest.length >= nScheduledNode() - nScheduled}
+     * @return the number of nodes scheduled since then
+     */
+    int fillScheduledSince(int nScheduled, int[] dest);
+
+    /**
+     * Copies the nodes excluded since the sequence had the given number of excluded nodes,
+     * in time linear in the number of nodes excluded.
+     * The sequence must only have been reduced since then.
+     *
+     * @param nExcluded the number of excluded nodes at that time, as given by {@link #nExcludedNode()}
+     * @param dest an array large enough {@code dest.length >= nExcludedNode() - nExcluded}
+     * @return the number of nodes excluded since then
+     */
+    int fillExcludedSince(int nExcluded, int[] dest);
+
+    /**
+     * Creates a delta on this variable, that tracks the nodes scheduled and excluded
+     * since the last call to {@link DeltaSequenceVar#update()}.
+     *
+     * @return a delta on this variable
+     */
+    default DeltaSequenceVar delta() {
+        return new DeltaSequenceVar(this);
+    }
+
     int fillScheduledInsertions(int node, int[] dest);
 
     int fillPossibleInsertions(int node, int[] dest);
@@ -155,6 +201,38 @@ public interface SequenceVar {
      */
     void whenExclude(Procedure f);
 
+    /**
+     * Asks that the listener is called with the node, its predecessor and its successor
+     * whenever a node is scheduled into the sequence.
+     * Contrary to {@link #whenInsert(Procedure)}, the listener is called immediately,
+     * it should only record the event, see {@link SequenceEventQueue}.
+     *
+     * @param f the listener
+     */
+    void whenInsert(NodeInsertListener f);
+
+    /**
+     * Asks that the listener is called with the node
+     * whenever a node is excluded from the sequence.
+     * Contrary to {@link #whenExclude(Procedure)}, the listener is called immediately,
+     * it should only record the event, see {@link SequenceEventQueue}.
+     *
+     * @param f the listener
+     */
+    void whenExclude(NodeExcludeListener f);
+
+    /**
+     * Asks that {@link Constraint#propagate()} is called whenever
+     * a node is scheduled or excluded, with the events
+     * recorded into a queue that the constraint reads at its next propagation.
+     *
+     * @param c the constraint to propagate on the events of this variable
+     * @return the queue of events for the constraint
+     */
+    default SequenceEventQueue propagateOnNodeEvents(Constraint c) {
+        return new SequenceEventQueue(this, c);
+    }
+
     /**
      * Asks that {@link Constraint#propagate()} is called whenever the domain
      * of this variable is reduced to a singleton.
@@ -0,0 +1,792 @@
+package minicp.engine.core;
+
+import minicp.state.*;
+import minicp.util.Procedure;
+
+import static minicp.util.exception.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Implementation of a {@link SequenceVar} with a compact representation of the insertions,
+ * meant for sequences over a large number of nodes.
+ * <p>
+ * The insertion points of all the nodes are rows of bits in a single {@link StateLongArray},
+ * together with its transpose giving the nodes that can be inserted after a given node.
+ * For n nodes, the two matrices hold n^2/4 bytes of bits, against the 8 n^2 bytes
+ * of the int sparse sets of the insertion vars of {@link SequenceVarImpl},
+ * and as much again for its reverse index of the insertions.
+ * What the state manager adds depends on how it saves the words:
+ * a {@link Trailer} keeps the save level of each word in a long,
+ * doubling the footprint to about n^2/2 bytes,
+ * while a {@link Copier} copies both matrices, n^2/4 bytes, at each saved level.
+ * The {@link InsertionVar} of a node is only created when requested with {@link #getInsertionVar(int)}.
+ */
+public class SequenceVarCompactImpl implements SequenceVar {
+
+    private final Solver cp;
+    private final int nNodes;                   // number of nodes available (omitting begin and end)
+    private final int maxIndex;                 // max index used for the node (max between begin and end)
+    private final int nOmitted;                 // number of unused indexes in the representation for the domain
+    private final int begin;                    // beginning of the sequence
+    private final int end;                      // end of the sequence
+    private final int nInsertionPoints;         // insertion points belong to 0...nInsertionPoints-1
+    private final int insertionWords;           // number of words in a row of insertions
+    private final int candidateWords;           // number of words in a row of candidates
+    private final StateLongArray insertions;    // bit v of the row of a node: v is an insertion point of the node
+    private final StateLongArray candidates;    // bit node of the row of v: the node can be inserted after v,
+                                                // nodes that are no longer possible may remain set
+    private final StateIntArray nbScheduled;    // number of scheduled insertions of each node
+    private final StateIntArray nbPossible;     // number of possible insertions of each node
+    private final StateIntArray succ;           // successors of the nodes
+    private final StateIntArray pred;           // predecessors of the nodes
+    private final StateSequenceSet domain;      // domain for the set of Scheduled, Possible and Excluded variables
+    private final InsertionVarInCompactSequence[] insertionVars; // created on demand
+    private final StateStack<Constraint> onInsert;    // a node has been inserted into the sequence
+    private final StateStack<Constraint> onBind;      // all nodes are scheduled or excluded: no possible node remain
+    private final StateStack<Constraint> onExclude;   // a node has been excluded from the sequence
+    private final StateStack<NodeInsertListener> onInsertNode;   // listeners called with each node inserted
+    private final StateStack<NodeExcludeListener> onExcludeNode; // listeners called with each node excluded
+    private final int[] values;
+    private final int[] buffer;
+    private final int[] chain;                  // nodes linked by a call to scheduleAll
+    private final int[] chainSucc;              // successor of each of these nodes when it was linked
+    private final int[] counts;                 // occurrences of each possible node among the candidates of the chain
+    private final int[] touched;                // possible nodes with a nonzero count
+
+    /**
+     * Insertion var of a node, only holding the constraints registered on it.
+     */
+    private class InsertionVarInCompactSequence implements InsertionVar {
+
+        private final int id;
+        private final StateStack<Constraint> onInsert;
+        private final StateStack<Constraint> onDomain;
+        private final StateStack<Constraint> onExclude;
+
+        InsertionVarInCompactSequence(int id) {
+            this.id = id;
+            onInsert = new StateStack<>(cp.getStateManager());
+            onDomain = new StateStack<>(cp.getStateManager());
+            onExclude = new StateStack<>(cp.getStateManager());
+        }
+
+        @Override
+        public Solver getSolver() {
+            return cp;
+        }
+
+        @Override
+        public boolean isBound() {
+            return !SequenceVarCompactImpl.this.isPossible(id);
+        }
+
+        @Override
+        public void removeInsert(int i) {
+            removeInsertion(id, i);
+        }
+
+        @Override
+        public void removeAllInsert() {
+            exclude(id);
+        }
+
+        @Override
+        public void removeAllInsertBut(int i) {
+            if (isScheduled(i))  // equivalent to the scheduling of the variable
+                schedule(id, i);
+            else if (isPossible(i) && isInsertion(id, i))
+                removeAllInsertionsBut(id, i);
+            else
+                throw INCONSISTENCY; // trying to assign an invalid insertion point
+        }
+
+        @Override
+        public boolean contains(int i) {
+            return isInsertion(id, i);
+        }
+
+        @Override
+        public int node() {
+            return id;
+        }
+
+        @Override
+        public int fillInsertions(int[] dest) {
+            return SequenceVarCompactImpl.this.fillInsertions(id, dest);
+        }
+
+        @Override
+        public int size() {
+            return nInsertions(id);
+        }
+
+        @Override
+        public void whenInsert(Procedure f) {
+            onInsert.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnInsert(Constraint c) {
+            onInsert.push(c);
+        }
+
+        @Override
+        public void whenDomainChange(Procedure f) {
+            onDomain.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnDomainChange(Constraint c) {
+            onDomain.push(c);
+        }
+
+        @Override
+        public void whenExclude(Procedure f) {
+            onExclude.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnExclude(Constraint c) {
+            onExclude.push(c);
+        }
+
+        @Override
+        public void whenBind(Procedure f) {
+            onExclude.push(constraintClosure(f));
+            onInsert.push(constraintClosure(f));
+        }
+
+        @Override
+        public void propagateOnBind(Constraint c) {
+            onInsert.push(c);
+            onExclude.push(c);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder("{");
+            int n = fillInsertions(buffer);
+            for (int i = 0; i < n; ++i) {
+                if (i > 0)
+                    b.append(',');
+                b.append(buffer[i]);
+            }
+            return b.append('}').toString();
+        }
+    }
+
+    public SequenceVarCompactImpl(Solver cp, int nNodes, int begin, int end) {
+        this.cp = cp;
+        this.nNodes = nNodes;
+        this.maxIndex = Math.max(nNodes, Math.max(begin, end) + 1);
+        // number of unused nodes in the representation of the domain
+        // belong to {nNodes...maxIndex} \ {begin, end}
+        this.nOmitted = maxIndex - nNodes - (begin >= nNodes ? 1 : 0) - (end >= nNodes ? 1 : 0);
+        this.begin = begin;
+        this.end = end;
+        StateManager sm = cp.getStateManager();
+        succ = sm.makeStateIntArray(maxIndex, 0);
+        pred = sm.makeStateIntArray(maxIndex, 0);
+        for (int i = 0; i < nNodes; ++i) {
+            if (i == begin | i == end)
+                continue;
+            succ.set(i, i);
+            pred.set(i, i);
+        }
+        succ.set(begin, end); // the sequence is a closed loop at the beginning
+        succ.set(end, begin);
+        pred.set(begin, end);
+        pred.set(end, begin);
+
+        domain = new StateSequenceSet(sm, maxIndex);
+        for (int i = nNodes; i < maxIndex; ++i) {
+            if (i != begin && i != end)
+                domain.exclude(i);
+        }
+        domain.require(begin); // the beginning and ending nodes are always in the domain
+        domain.require(end);
+
+        // valid insertions at first: {0...nNodes-1} \ {node, end} + {begin}
+        nInsertionPoints = Math.max(begin + 1, nNodes);
+        insertionWords = (nInsertionPoints + 63) >>> 6;
+        candidateWords = (nNodes + 63) >>> 6;
+        long[] rows = new long[nNodes * insertionWords];
+        long[] columns = new long[nInsertionPoints * candidateWords];
+        nbScheduled = sm.makeStateIntArray(nNodes, 0);
+        nbPossible = sm.makeStateIntArray(nNodes, 0);
+        for (int node = 0; node < nNodes; ++node) {
+            if (node == begin || node == end)
+                continue;
+            int nPossible = 0;
+            for (int v = 0; v < nInsertionPoints; ++v) {
+                if (v == node || v == end || (v >= nNodes && v != begin))
+                    continue;
+                rows[node * insertionWords + (v >>> 6)] |= 1L << v;
+                columns[v * candidateWords + (node >>> 6)] |= 1L << node;
+                if (v != begin)
+                    nPossible++;
+            }
+            nbScheduled.set(node, 1); // the beginning node is always a valid predecessor at first
+            nbPossible.set(node, nPossible);
+        }
+        insertions = sm.makeStateLongArray(rows.length, 0L);
+        for (int i = 0; i < rows.length; ++i)
+            if (rows[i] != 0L)
+                insertions.set(i, rows[i]);
+        candidates = sm.makeStateLongArray(columns.length, 0L);
+        for (int i = 0; i < columns.length; ++i)
+            if (columns[i] != 0L)
+                candidates.set(i, columns[i]);
+
+        insertionVars = new InsertionVarInCompactSequence[nNodes];
+        onInsert = new StateStack<>(sm);
+        onBind = new StateStack<>(sm);
+        onExclude = new StateStack<>(sm);
+        onInsertNode = new StateStack<>(sm);
+        onExcludeNode = new StateStack<>(sm);
+        values = new int[maxIndex];
+        buffer = new int[maxIndex];
+        chain = new int[nNodes];
+        chainSucc = new int[nNodes];
+        counts = new int[nNodes];
+        touched = new int[nNodes];
+    }
+
+    /**  =====  bit matrices  =====  */
+
+    private boolean hasBit(StateLongArray matrix, int words, int row, int col) {
+        return (matrix.get(row * words + (col >>> 6)) & (1L << col)) != 0;
+    }
+
+    /**
+     * Clears a bit of a matrix.
+     *
+     * @return true if the bit was set
+     */
+    private boolean clearBit(StateLongArray matrix, int words, int row, int col) {
+        int i = row * words + (col >>> 6);
+        long word = matrix.get(i);
+        long mask = 1L << col;
+        if ((word & mask) == 0)
+            return false;
+        matrix.set(i, word & ~mask);
+        return true;
+    }
+
+    /**
+     * Copies the columns of the bits set in a row of a matrix.
+     *
+     * @return the number of bits set
+     */
+    private int fillRow(StateLongArray matrix, int words, int row, int[] dest) {
+        int base = row * words;
+        int k = 0;
+        for (int w = 0; w < words; ++w) {
+            long word = matrix.get(base + w);
+            while (word != 0) {
+                dest[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Removes every insertion of a node, that is scheduled or excluded.
+     * Its bits in the candidates are kept, the node being no longer possible.
+     */
+    private void clearInsertions(int node) {
+        int base = node * insertionWords;
+        for (int w = 0; w < insertionWords; ++w)
+            if (insertions.get(base + w) != 0L)
+                insertions.set(base + w, 0L);
+        nbScheduled.set(node, 0);
+        nbPossible.set(node, 0);
+    }
+
+    /**
+     * Removes all the insertions of a possible node except a possible insertion point.
+     */
+    private void removeAllInsertionsBut(int node, int v) {
+        int n = fillRow(insertions, insertionWords, node, buffer);
+        for (int i = 0; i < n; ++i) {
+            if (buffer[i] != v) {
+                clearBit(insertions, insertionWords, node, buffer[i]);
+                clearBit(candidates, candidateWords, buffer[i], node);
+            }
+        }
+        nbScheduled.set(node, 0);
+        nbPossible.set(node, 1);
+    }
+
+    /**  =====  listeners  =====  */
+
+    private void notifyInsertionVarInsert(int node) {
+        if (insertionVars[node] != null)
+            scheduleAll(insertionVars[node].onInsert);
+    }
+
+    private void notifyInsertionVarExclude(int node) {
+        if (insertionVars[node] != null)
+            scheduleAll(insertionVars[node].onExclude);
+    }
+
+    private void notifyInsertionVarChange(int node) {
+        if (insertionVars[node] != null)
+            scheduleAll(insertionVars[node].onDomain);
+    }
+
+    @Override
+    public Solver getSolver() {
+        return cp;
+    }
+
+    @Override
+    public int begin() {
+        return begin;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+
+    @Override
+    public boolean isBound() {
+        return domain.nPossible() == 0;
+    }
+
+    @Override
+    public int nextMember(int node) {
+        return succ.get(node);
+    }
+
+    @Override
+    public int predMember(int node) {
+        return pred.get(node);
+    }
+
+    @Override
+    public int fillOrder(int[] dest) {
+        return fillOrder(dest, true);
+    }
+
+    @Override
+    public int fillOrder(int[] dest, boolean includeBounds) {
+        dest[0] = includeBounds ? begin : succ.get(begin);
+        int lastElem = includeBounds ? end : pred.get(end);
+        int i = 1;
+        for (;dest[i-1] != lastElem; ++i)
+            dest[i] = succ.get(dest[i-1]);
+        return i;
+    }
+
+    @Override
+    public int nScheduledNode() {
+        return nScheduledNode(false);
+    }
+
+    @Override
+    public int nScheduledNode(boolean includeBounds) {
+        if (includeBounds)
+            return domain.nRequired();
+        else
+            return domain.nRequired() - 2;
+    }
+
+    @Override
+    public int nPossibleNode() {
+        return domain.nPossible();
+    }
+
+    @Override
+    public int nExcludedNode() {
+        return domain.nExcluded() - nOmitted;
+    }
+
+    @Override
+    public int nNodes() {
+        return nNodes(false);
+    }
+
+    @Override
+    public int nNodes(boolean includeBounds) {
+        if (includeBounds)
+            return nNodes + 2;
+        else
+            return nNodes;
+    }
+
+    @Override
+    public boolean canSchedule(int node, int pred) {
+        return isPossible(node) && isScheduled(pred) && isInsertion(node, pred);
+    }
+
+    @Override
+    public void schedule(int node, int pred) {
+        int succNode = link(node, pred);
+        if (succNode >= 0) {
+            chain[0] = node;
+            countScheduledInsertions(1);
+            notifyLinked(node, pred, succNode);
+            if (isBound())
+                scheduleAll(onBind);
+            scheduleAll(onInsert);
+        }
+    }
+
+    @Override
+    public void scheduleAll(int[] order, int from, int to) {
+        // the whole chain is linked first, such that the counters of the possible nodes are updated once
+        int nLinked = 0;
+        for (int i = from + 1; i < to; ++i) {
+            int succNode = link(order[i], order[i - 1]);
+            if (succNode >= 0) {
+                chain[nLinked] = order[i];
+                chainSucc[nLinked++] = succNode;
+            }
+        }
+        if (nLinked > 0) {
+            countScheduledInsertions(nLinked);
+            // the later nodes of the chain are linked after a node, leaving its predecessor unchanged
+            for (int i = 0; i < nLinked; ++i)
+                notifyLinked(chain[i], pred.get(chain[i]), chainSucc[i]);
+            if (isBound())
+                scheduleAll(onBind);
+            scheduleAll(onInsert);
+        }
+    }
+
+    /**
+     * link a node right after a scheduled predecessor, without updating the counters of the other nodes
+     * nor notifying any listener
+     * @return the successor of the node once linked, -1 if it was already scheduled at this place
+     */
+    private int link(int node, int pred) {
+        if (!isScheduled(pred))
+            throw INCONSISTENCY;
+        if (!domain.require(node)) {
+            // the node is either already scheduled or excluded
+            if (succ.get(pred) != node || isExcluded(node)) // the insertion points asked differs from the current / the node is excluded
+                throw INCONSISTENCY;
+            else // trying to do the same insertion twice
+                return -1;
+        }
+        else if (!isInsertion(node, pred))
+            throw INCONSISTENCY; // the insertion var did not contain the node
+        int succNode = succ.get(pred);
+        succ.set(pred, node);
+        succ.set(node, succNode);
+        this.pred.set(node, pred);
+        this.pred.set(succNode, node);
+        clearInsertions(node);
+        return succNode;
+    }
+
+    /**
+     * the nodes chain[0..nLinked-1] are now scheduled insertion points of the possible nodes
+     * that can be inserted after them: the occurrences are counted over the candidates of all the linked nodes,
+     * and the counters of each possible node are then set once
+     */
+    private void countScheduledInsertions(int nLinked) {
+        int nTouched = 0;
+        for (int j = 0; j < nLinked; ++j) {
+            int base = chain[j] * candidateWords;
+            for (int w = 0; w < candidateWords; ++w) {
+                long word = candidates.get(base + w);
+                while (word != 0) {
+                    int candidate = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (isPossible(candidate) && counts[candidate]++ == 0)
+                        touched[nTouched++] = candidate;
+                }
+            }
+        }
+        for (int i = 0; i < nTouched; ++i) {
+            int candidate = touched[i];
+            nbPossible.set(candidate, nbPossible.get(candidate) - counts[candidate]);
+            nbScheduled.set(candidate, nbScheduled.get(candidate) + counts[candidate]);
+            counts[candidate] = 0;
+        }
+    }
+
+    private void notifyLinked(int node, int pred, int succNode) {
+        notifyInsertionVarInsert(node);
+        notifyInsertionVarChange(node);
+        notifyInsert(node, pred, succNode);
+    }
+
+    @Override
+    public void exclude(int node) {
+        if (isScheduled(node))
+            throw INCONSISTENCY;
+        if (isExcluded(node))
+            return;
+        removeInsertionAfter(node); // remove this node for all others insertions
+        if (domain.exclude(node)) {
+            if (isBound())
+                scheduleAll(onBind);
+            clearInsertions(node);
+            notifyInsertionVarExclude(node);
+            scheduleAll(onExclude);
+            notifyExclude(node);
+        }
+    }
+
+    @Override
+    public void excludeAllPossible() {
+        int size = domain.getPossible(values);
+        domain.excludeAllPossible();
+        scheduleAll(onBind); // notify that the variable is fixed
+        scheduleAll(onExclude); // nodes have been excluded
+        for (int i = 0 ; i < size; ++i) {
+            clearInsertions(values[i]);
+            notifyInsertionVarExclude(values[i]);
+            notifyExclude(values[i]);
+        }
+    }
+
+    @Override
+    public boolean isScheduled(int node) {
+        return domain.isRequired(node);
+    }
+
+    @Override
+    public boolean isPossible(int node) {
+        return domain.isPossible(node);
+    }
+
+    @Override
+    public boolean isExcluded(int node) {
+        return domain.isExcluded(node);
+    }
+
+    @Override
+    public int fillScheduled(int[] dest) {
+        return domain.getRequired(dest);
+    }
+
+    @Override
+    public int fillPossible(int[] dest) {
+        return domain.getPossible(dest);
+    }
+
+    @Override
+    public int fillExcluded(int[] dest) {
+        return domain.getExcluded(dest);
+    }
+
+    @Override
+    public int fillScheduledSince(int nScheduled, int[] dest) {
+        return domain.getRequiredSince(nScheduled + 2, dest); // begin and end are required first
+    }
+
+    @Override
+    public int fillExcludedSince(int nExcluded, int[] dest) {
+        return domain.getExcludedSince(nExcluded + nOmitted, dest);
+    }
+
+    @Override
+    public int fillScheduledInsertions(int node, int[] dest) {
+        if (!isPossible(node))
+            return 0;
+        int j = 0; // indexing used for dest
+        if (domain.nRequired() < nInsertions(node)) { // quicker to iterate over the current sequence
+            int size = domain.nRequired();
+            int current = end; // the end of the sequence can never be a valid insertion
+            for (int i = 0; i < size; ++i) {
+                current = nextMember(current);
+                if (isInsertion(node, current))
+                    dest[j++] = current;
+            }
+        } else { // quicker to iterate over the remaining insertions
+            int s = fillRow(insertions, insertionWords, node, buffer);
+            for (int i = 0; i < s; i++) {
+                if (domain.isRequired(buffer[i]))
+                    dest[j++] = buffer[i];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public int fillPossibleInsertions(int node, int[] dest) {
+        if (!isPossible(node))
+            return 0;
+        int j = 0; // indexing used for dest
+        if (domain.nPossible() < nInsertions(node)) { // quicker to iterate over the possible nodes
+            int size = domain.getPossible(buffer);
+            for (int i = 0; i < size; ++i) {
+                if (isInsertion(node, buffer[i]))
+                    dest[j++] = buffer[i];
+            }
+        } else { // quicker to iterate over the remaining insertions
+            int s = fillRow(insertions, insertionWords, node, buffer);
+            for (int i = 0; i < s; i++) {
+                if (domain.isPossible(buffer[i]))
+                    dest[j++] = buffer[i];
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public int nPossibleInsertions(int node) {
+        return nbPossible.get(node);
+    }
+
+    @Override
+    public int nScheduledInsertions(int node) {
+        return nbScheduled.get(node);
+    }
+
+    @Override
+    public int nInsertions(int node) {
+        return nbPossible.get(node) + nbScheduled.get(node);
+    }
+
+    @Override
+    public int fillInsertions(int node, int[] dest) {
+        return fillRow(insertions, insertionWords, node, dest);
+    }
+
+    @Override
+    public boolean isInsertion(int node, int predecessor) {
+        if (node < 0 || node >= nNodes || predecessor < 0 || predecessor >= nInsertionPoints)
+            return false;
+        return hasBit(insertions, insertionWords, node, predecessor);
+    }
+
+    @Override
+    public void removeInsertion(int node, int insertion) {
+        if (isInsertion(node, insertion)) {
+            clearBit(insertions, insertionWords, node, insertion);
+            clearBit(candidates, candidateWords, insertion, node);
+            // update the counters for the number of scheduled and possible insertions
+            if (isScheduled(insertion))
+                nbScheduled.set(node, nbScheduled.get(node) - 1);
+            else if (isPossible(insertion))
+                nbPossible.set(node, nbPossible.get(node) - 1);
+            if (nInsertions(node) == 0)
+                exclude(node);
+            notifyInsertionVarChange(node);
+        }
+    }
+
+    @Override
+    public void removeInsertionAfter(int node) {
+        if (node < 0 || node >= nInsertionPoints)
+            return;
+        int base = node * candidateWords;
+        for (int w = 0; w < candidateWords; ++w) {
+            long word = candidates.get(base + w);
+            while (word != 0) {
+                int candidate = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (isPossible(candidate))
+                    removeInsertion(candidate, node);
+            }
+        }
+    }
+
+    @Override
+    public InsertionVar getInsertionVar(int i) {
+        if (i == begin || i == end || i < 0 || i >= nNodes)
+            return null;
+        if (insertionVars[i] == null)
+            insertionVars[i] = new InsertionVarInCompactSequence(i);
+        return insertionVars[i];
+    }
+
+    /**  =====  propagation methods  =====  */
+
+    @Override
+    public void whenBind(Procedure f) {
+        onBind.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenInsert(Procedure f) {
+        onInsert.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenExclude(Procedure f) {
+        onExclude.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenInsert(NodeInsertListener f) {
+        onInsertNode.push(f);
+    }
+
+    @Override
+    public void whenExclude(NodeExcludeListener f) {
+        onExcludeNode.push(f);
+    }
+
+    @Override
+    public void propagateOnBind(Constraint c) {
+        onBind.push(c);
+    }
+
+    @Override
+    public void propagateOnInsert(Constraint c) {
+        onInsert.push(c);
+    }
+
+    @Override
+    public void propagateOnExclude(Constraint c) {
+        onExclude.push(c);
+    }
+
+    protected void scheduleAll(StateStack<Constraint> constraints) {
+        for (int i = 0; i < constraints.size(); i++)
+            cp.schedule(constraints.get(i));
+    }
+
+    private void notifyInsert(int node, int pred, int succ) {
+        for (int i = 0; i < onInsertNode.size(); i++)
+            onInsertNode.get(i).insert(node, pred, succ);
+    }
+
+    private void notifyExclude(int node) {
+        for (int i = 0; i < onExcludeNode.size(); i++)
+            onExcludeNode.get(i).exclude(node);
+    }
+
+    private Constraint constraintClosure(Procedure f) {
+        Constraint c = new ConstraintClosure(cp, f);
+        getSolver().post(c, false);
+        return c;
+    }
+
+    @Override
+    public String toString() {
+        return ordering(true, " -> ");
+    }
+
+    @Override
+    public String ordering() {
+        return ordering(false);
+    }
+
+    @Override
+    public String ordering(boolean includeBounds) {
+        return ordering(includeBounds, " -> ");
+    }
+
+    @Override
+    public String ordering(boolean includeBounds, String join) {
+        if (nScheduledNode(includeBounds) == 0)
+            return "";
+        int current = includeBounds ? begin : nextMember(begin);
+        int last = includeBounds ? end : predMember(end);
+        StringBuilder description = new StringBuilder(String.format("%d", current));
+        while (current != last) {
+            current = nextMember(current);
+            description.append(join);
+            description.append(current);
+        }
+        return description.toString();
+    }
+}
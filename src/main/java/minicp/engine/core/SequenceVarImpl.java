@@ -24,8 +24,8 @@ public class SequenceVarImpl implements SequenceVar {
     private final int maxIndex;                 // max index used for the node (max between begin and end)
     private final int nOmitted;                // number of unused indexes in the representation for the domain
     private InsertionVarInSequence[] insertionVars;
-    private StateInt[] succ;                    // successors of the nodes
-    private StateInt[] pred;                    // predecessors of the nodes
+    private StateIntArray succ;                 // successors of the nodes
+    private StateIntArray pred;                 // predecessors of the nodes
     private StateSequenceSet domain;            // domain for the set of Scheduled, Possible and Excluded variables
 
     // TODO constructor from a set of specified edges
@@ -35,10 +35,22 @@ public class SequenceVarImpl implements SequenceVar {
     private StateStack<Constraint> onInsert;    // a node has been inserted into the sequence
     private StateStack<Constraint> onBind;      // all nodes are scheduled or excluded: no possible node remain
     private StateStack<Constraint> onExclude;   // a node has been excluded from the sequence
+    private StateStack<NodeInsertListener> onInsertNode;   // listeners called with each node inserted
+    private StateStack<NodeExcludeListener> onExcludeNode; // listeners called with each node excluded
     private final int begin;                    // beginning of the sequence
     private final int end;                      // end of the sequence
 
     private final int[] values;
+    private final int[] chain;                  // nodes linked by a call to scheduleAll
+    private final int[] chainSucc;              // successor of each of these nodes when it was linked
+    private final int[] counts;                 // occurrences of each possible node among the candidates of the chain
+    private final int[] touched;                // possible nodes with a nonzero count
+
+    // reverse index of the insertions: succCandidates[v][0..nSuccCandidates[v]-1] are the nodes
+    // whose insertion var contains v. Nodes that are no longer possible may remain in it
+    private final int[][] succCandidates;
+    private final int[][] succCandidateIndex; // position of a node within succCandidates[v]
+    private final StateIntArray nSuccCandidates;
 
     /**
      * listener for the whole sequence. For more information about the changes (i.e. what insertion has occurred?),
@@ -193,6 +205,8 @@ public class SequenceVarImpl implements SequenceVar {
             values[0] = v;
             indexes[val] = index;
             values[index] = val;
+            for (int i = 1; i < size(); i++)
+                removeSuccCandidate(values[i], id);
             if (isScheduled) {
                 nbScheduled.setValue(1);
                 nbPossible.setValue(0);
@@ -332,19 +346,19 @@ public class SequenceVarImpl implements SequenceVar {
         this.begin = begin;
         this.end = end;
         insertionVars = new InsertionVarInSequence[nNodes];
-        succ = new StateInt[maxIndex];
-        pred = new StateInt[maxIndex];
+        succ = cp.getStateManager().makeStateIntArray(maxIndex, 0);
+        pred = cp.getStateManager().makeStateIntArray(maxIndex, 0);
         for (int i=0; i < nNodes; ++i) {
             if (i == begin | i == end)
                 continue;
             insertionVars[i] = new InsertionVarInSequence(i);
-            succ[i] = cp.getStateManager().makeStateInt(i);
-            pred[i] = cp.getStateManager().makeStateInt(i);
+            succ.set(i, i);
+            pred.set(i, i);
         }
-        succ[begin] = cp.getStateManager().makeStateInt(end); // the sequence is a closed loop at the beginning
-        succ[end] = cp.getStateManager().makeStateInt(begin);
-        pred[begin] = cp.getStateManager().makeStateInt(end);
-        pred[end] = cp.getStateManager().makeStateInt(begin);
+        succ.set(begin, end); // the sequence is a closed loop at the beginning
+        succ.set(end, begin);
+        pred.set(begin, end);
+        pred.set(end, begin);
 
         domain = new StateSequenceSet(cp.getStateManager(), maxIndex);
         for (int i=nNodes; i < maxIndex; ++i) {
@@ -356,7 +370,50 @@ public class SequenceVarImpl implements SequenceVar {
         onInsert = new StateStack<>(cp.getStateManager());
         onBind = new StateStack<>(cp.getStateManager());
         onExclude = new StateStack<>(cp.getStateManager());
+        onInsertNode = new StateStack<>(cp.getStateManager());
+        onExcludeNode = new StateStack<>(cp.getStateManager());
         values = new int[nNodes];
+        chain = new int[nNodes];
+        chainSucc = new int[nNodes];
+        counts = new int[nNodes];
+        touched = new int[nNodes];
+
+        int nInsertionPoints = Math.max(begin + 1, nNodes);
+        succCandidates = new int[nInsertionPoints][nNodes];
+        succCandidateIndex = new int[nInsertionPoints][nNodes];
+        int[] size = new int[nInsertionPoints];
+        for (int node = 0; node < nNodes; ++node) {
+            if (insertionVars[node] == null)
+                continue;
+            int nInsert = insertionVars[node].fillInsertions(values);
+            for (int i = 0; i < nInsert; ++i) {
+                int v = values[i];
+                succCandidateIndex[v][node] = size[v];
+                succCandidates[v][size[v]++] = node;
+            }
+        }
+        nSuccCandidates = cp.getStateManager().makeStateIntArray(nInsertionPoints, 0);
+        for (int v = 0; v < nInsertionPoints; ++v)
+            nSuccCandidates.set(v, size[v]);
+    }
+
+    /**
+     * Removes a node from the nodes that can be inserted after an insertion point.
+     *
+     * @param v the insertion point
+     * @param node the node whose insertion var does not contain v any more
+     */
+    private void removeSuccCandidate(int v, int node) {
+        int s = nSuccCandidates.get(v);
+        int i = succCandidateIndex[v][node];
+        if (i >= s)
+            return;
+        int last = succCandidates[v][s - 1];
+        succCandidates[v][i] = last;
+        succCandidateIndex[v][last] = i;
+        succCandidates[v][s - 1] = node;
+        succCandidateIndex[v][node] = s - 1;
+        nSuccCandidates.set(v, s - 1);
     }
 
     @Override
@@ -381,12 +438,12 @@ public class SequenceVarImpl implements SequenceVar {
 
     @Override
     public int nextMember(int node) {
-        return succ[node].value();
+        return succ.get(node);
     }
 
     @Override
     public int predMember(int node) {
-        return pred[node].value();
+        return pred.get(node);
     }
 
     @Override
@@ -396,11 +453,11 @@ public class SequenceVarImpl implements SequenceVar {
 
     @Override
     public int fillOrder(int[] dest, boolean includeBounds) {
-        dest[0] = includeBounds ? begin : succ[begin].value();
-        int lastElem = includeBounds ? end : pred[end].value();
+        dest[0] = includeBounds ? begin : succ.get(begin);
+        int lastElem = includeBounds ? end : pred.get(end);
         int i = 1;
         for (;dest[i-1] != lastElem; ++i)
-            dest[i] = succ[dest[i-1]].value();
+            dest[i] = succ.get(dest[i-1]);
         return i;
     }
 
@@ -447,38 +504,94 @@ public class SequenceVarImpl implements SequenceVar {
 
     @Override
     public void schedule(int node, int pred) {
+        int succNode = link(node, pred);
+        if (succNode >= 0) {
+            chain[0] = node;
+            countScheduledInsertions(1);
+            notifyLinked(node, pred, succNode);
+            if (isBound())
+                seqListener.bind();
+            seqListener.insert();
+        }
+    }
+
+    @Override
+    public void scheduleAll(int[] order, int from, int to) {
+        // the whole chain is linked first, such that the counters of the possible nodes are updated once
+        int nLinked = 0;
+        for (int i = from + 1; i < to; ++i) {
+            int succNode = link(order[i], order[i - 1]);
+            if (succNode >= 0) {
+                chain[nLinked] = order[i];
+                chainSucc[nLinked++] = succNode;
+            }
+        }
+        if (nLinked > 0) {
+            countScheduledInsertions(nLinked);
+            // the later nodes of the chain are linked after a node, leaving its predecessor unchanged
+            for (int i = 0; i < nLinked; ++i)
+                notifyLinked(chain[i], pred.get(chain[i]), chainSucc[i]);
+            if (isBound())
+                seqListener.bind();
+            seqListener.insert();
+        }
+    }
+
+    /**
+     * link a node right after a scheduled predecessor, without updating the counters of the other nodes
+     * nor notifying any listener
+     * @return the successor of the node once linked, -1 if it was already scheduled at this place
+     */
+    private int link(int node, int pred) {
         if (!isScheduled(pred))
             throw INCONSISTENCY;
         if (!domain.require(node)) {
             // the node is either already scheduled or excluded
-            if (succ[pred].value() != node || isExcluded(node)) // the insertion points asked differs from the current / the node is excluded
+            if (succ.get(pred) != node || isExcluded(node)) // the insertion points asked differs from the current / the node is excluded
                 throw INCONSISTENCY;
             else // trying to do the same insertion twice
-                return;
+                return -1;
         }
         else if (!insertionVars[node].contains(pred))
             throw INCONSISTENCY; // the insertion var did not contain the node
-        int succNode = succ[pred].value();
-        succ[pred].setValue(node);
-        succ[node].setValue(succNode);
-        this.pred[node].setValue(pred);
-        this.pred[succNode].setValue(node);
-
+        int succNode = succ.get(pred);
+        succ.set(pred, node);
+        succ.set(node, succNode);
+        this.pred.set(node, pred);
+        this.pred.set(succNode, node);
         insertionVars[node].removeAll();
-        int[] values = new int[nNodes];
-        int size = domain.getPossible(values);
-        for (int i = 0; i < size ; ++i) {
-            if (insertionVars[values[i]].contains(node)) {
-                // the insertion point related to this node belongs now a scheduled insertion point
-                insertionVars[values[i]].nbPossible.decrement();
-                insertionVars[values[i]].nbScheduled.increment();
+        return succNode;
+    }
+
+    /**
+     * the nodes chain[0..nLinked-1] are now scheduled insertion points of the possible nodes
+     * that can be inserted after them: the occurrences are counted over the candidates of the linked nodes,
+     * given by the reverse index, and the counters of each possible node are then set once
+     */
+    private void countScheduledInsertions(int nLinked) {
+        int nTouched = 0;
+        for (int j = 0; j < nLinked; ++j) {
+            int node = chain[j];
+            int size = nSuccCandidates.get(node);
+            for (int i = 0; i < size; ++i) {
+                int candidate = succCandidates[node][i];
+                if (isPossible(candidate) && counts[candidate]++ == 0)
+                    touched[nTouched++] = candidate;
             }
         }
-        if (isBound())
-            seqListener.bind();
+        for (int i = 0; i < nTouched; ++i) {
+            InsertionVarInSequence candidate = insertionVars[touched[i]];
+            int count = counts[touched[i]];
+            candidate.nbPossible.setValue(candidate.nbPossible.value() - count);
+            candidate.nbScheduled.setValue(candidate.nbScheduled.value() + count);
+            counts[touched[i]] = 0;
+        }
+    }
+
+    private void notifyLinked(int node, int pred, int succNode) {
         insertionVars[node].listener.insert();
         insertionVars[node].listener.change();
-        seqListener.insert();
+        notifyInsert(node, pred, succNode);
     }
 
     @Override
@@ -487,10 +600,7 @@ public class SequenceVarImpl implements SequenceVar {
             throw INCONSISTENCY;
         if (isExcluded(node))
             return;
-        int size = domain.getPossible(values);
-        for (int i = 0; i < size ; ++i) {// remove this node for all others insertions
-            insertionVars[values[i]].removeInsert(node);
-        }
+        removeInsertionAfter(node); // remove this node for all others insertions
         if (domain.exclude(node)) {
             if (isBound())
                 seqListener.bind();
@@ -498,6 +608,7 @@ public class SequenceVarImpl implements SequenceVar {
             insertionVars[node].listener.exclude();
             //insertionVars[node].listener.change();  // not called as it technically does not change its domain
             seqListener.exclude();
+            notifyExclude(node);
         }
     }
 
@@ -510,6 +621,7 @@ public class SequenceVarImpl implements SequenceVar {
         for (int i = 0 ; i < size; ++i) {
             insertionVars[values[i]].removeAll(); //
             insertionVars[values[i]].listener.exclude();
+            notifyExclude(values[i]);
         }
     }
 
@@ -543,6 +655,16 @@ public class SequenceVarImpl implements SequenceVar {
         return domain.getExcluded(dest);
     }
 
+    @Override
+    public int fillScheduledSince(int nScheduled, int[] dest) {
+        return domain.getRequiredSince(nScheduled + 2, dest); // begin and end are required first
+    }
+
+    @Override
+    public int fillExcludedSince(int nExcluded, int[] dest) {
+        return domain.getExcludedSince(nExcluded + nOmitted, dest);
+    }
+
     @Override
     public int fillScheduledInsertions(int node, int[] dest) {
         if (!isPossible(node))
@@ -628,6 +750,7 @@ public class SequenceVarImpl implements SequenceVar {
     @Override
     public void removeInsertion(int node, int insertion) {
         if (insertionVars[node].remove(insertion)) {
+            removeSuccCandidate(insertion, node);
             // update the counters for the number of scheduled and possible insertions
             if (isScheduled(insertion))
                 insertionVars[node].nbScheduled.decrement();
@@ -656,9 +779,11 @@ public class SequenceVarImpl implements SequenceVar {
 
     @Override
     public void removeInsertionAfter(int node) {
-        int n = fillPossible(values);
-        for (int i = 0; i < n ; ++i) {
-            removeInsertion(values[i], node);
+        // backward, such that the removal of a candidate only moves the ones already visited
+        for (int i = nSuccCandidates.get(node) - 1; i >= 0 ; --i) {
+            int candidate = succCandidates[node][i];
+            if (isPossible(candidate))
+                removeInsertion(candidate, node);
         }
     }
 
@@ -684,6 +809,16 @@ public class SequenceVarImpl implements SequenceVar {
         onExclude.push(constraintClosure(f));
     }
 
+    @Override
+    public void whenInsert(NodeInsertListener f) {
+        onInsertNode.push(f);
+    }
+
+    @Override
+    public void whenExclude(NodeExcludeListener f) {
+        onExcludeNode.push(f);
+    }
+
     @Override
     public void propagateOnBind(Constraint c) {
         onBind.push(c);
@@ -704,6 +839,16 @@ public class SequenceVarImpl implements SequenceVar {
             cp.schedule(constraints.get(i));
     }
 
+    private void notifyInsert(int node, int pred, int succ) {
+        for (int i = 0; i < onInsertNode.size(); i++)
+            onInsertNode.get(i).insert(node, pred, succ);
+    }
+
+    private void notifyExclude(int node) {
+        for (int i = 0; i < onExcludeNode.size(); i++)
+            onExcludeNode.get(i).exclude(node);
+    }
+
     private Constraint constraintClosure(Procedure f) {
         Constraint c = new ConstraintClosure(cp, f);
         getSolver().post(c, false);
@@ -2,8 +2,16 @@ package minicp.engine.core;
 
 import minicp.util.Procedure;
 
+/**
+ * Sequence variable without begin and end nodes.
+ * The front of the sequence is represented by {@link #BOTTOM}, which is always scheduled:
+ * inserting a node after {@link #BOTTOM} makes it the first node of the sequence.
+ * For a sequence {@code a -> b}, {@code predMember(a) == BOTTOM} and {@code nextMember(b) == BOTTOM}.
+ */
 public interface SequenceVarNoBound {
 
+    int BOTTOM = -1; // front of the sequence, predecessor of the first node and successor of the last one
+
     Solver getSolver();
 
     int nScheduled();
@@ -33,6 +41,8 @@ public interface SequenceVarNoBound {
     int nScheduledInsertions(int node);
     int nInsertions(int node);
 
+    InsertionVar getInsertionVar(int node); // insertion points of a node, BOTTOM included
+
     /**
      * fill operations to get predecessors can give bottom as a result
      *
@@ -51,6 +61,7 @@ public interface SequenceVarNoBound {
      *  - should succ[b] == a or succ[b] == bottom?
      *      - same for pred[a]
      *
+     * current choice: fill operations always yield bottom if it is present, succ[b] == bottom and pred[a] == bottom
      */
 
     int fillInsertions(int node, int[] dest);
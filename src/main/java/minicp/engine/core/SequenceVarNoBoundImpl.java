@@ -1,21 +1,24 @@
 package minicp.engine.core;
 
 import minicp.state.StateInt;
+import minicp.state.StateIntArray;
 import minicp.state.StateSequenceSet;
 import minicp.state.StateStack;
 import minicp.util.Procedure;
 
 import java.util.Set;
 
+import static minicp.util.exception.InconsistencyException.INCONSISTENCY;
+
 public class SequenceVarNoBoundImpl implements SequenceVarNoBound{
 
     private Solver cp;
     private int nNodes;
     private InsertionVarInSequence[] insertionVars;
-    private StateInt[] succ;                    // successors of the nodes
-    private StateInt[] pred;                    // predecessors of the nodes
+    private StateIntArray succ;                 // successors of the nodes, the successor of bottom is stored at nNodes
+    private StateIntArray pred;                 // predecessors of the nodes, the predecessor of bottom is stored at nNodes
     private StateSequenceSet domain;
-    private static final int bottom = -1;       // empty sequence
+    private static final int bottom = BOTTOM;   // empty sequence
 
     // constraints registered for this sequence
     private StateStack<Constraint> onInsert;    // a node has been inserted into the sequence
@@ -25,7 +28,7 @@ public class SequenceVarNoBoundImpl implements SequenceVarNoBound{
     private final int[] values;
 
     public SequenceVarNoBoundImpl(Solver cp, Set<Integer> nodes) {
-        this(cp, nodes.stream().max(Integer::compareTo).get());
+        this(cp, nodes.stream().max(Integer::compareTo).get() + 1);
         for (int i = 0; i < nNodes ; ++i) {
             if (!nodes.contains(i))
                 exclude(i);
@@ -35,184 +38,337 @@ public class SequenceVarNoBoundImpl implements SequenceVarNoBound{
     public SequenceVarNoBoundImpl(Solver cp, int nNodes) {
         this.cp = cp;
         this.nNodes = nNodes;
-        values = new int[nNodes];
+        values = new int[nNodes + 1];
         insertionVars = new InsertionVarInSequence[nNodes];
-        succ = new StateInt[nNodes];
-        pred = new StateInt[nNodes];
+        succ = cp.getStateManager().makeStateIntArray(nNodes + 1, 0);
+        pred = cp.getStateManager().makeStateIntArray(nNodes + 1, 0);
         for (int i = 0; i < nNodes; ++i) {
             insertionVars[i] = new InsertionVarInSequence(i);
-            succ[i] = cp.getStateManager().makeStateInt(i);
-            pred[i] = cp.getStateManager().makeStateInt(i);
+            succ.set(i, i);
+            pred.set(i, i);
         }
+        succ.set(nNodes, bottom); // the empty sequence is a closed loop on bottom
+        pred.set(nNodes, bottom);
         domain = new StateSequenceSet(cp.getStateManager(), nNodes);
         onInsert = new StateStack<>(cp.getStateManager());
         onBind = new StateStack<>(cp.getStateManager());
         onExclude = new StateStack<>(cp.getStateManager());
     }
 
+    /**
+     * index used in the arrays for a node, bottom being stored at nNodes
+     */
+    private int indexOf(int node) {
+        return node == bottom ? nNodes : node;
+    }
+
+    /**
+     * node related to an index in the arrays
+     */
+    private int nodeOf(int index) {
+        return index == nNodes ? bottom : index;
+    }
+
     @Override
     public Solver getSolver() {
-        return null;
+        return cp;
     }
 
     @Override
     public int nScheduled() {
-        return 0;
+        return domain.nRequired();
     }
 
     @Override
     public int nPossible() {
-        return 0;
+        return domain.nPossible();
     }
 
     @Override
     public int nRequired() {
-        return 0;
+        return domain.nRequired(); // no begin nor end node: the same as nScheduled
     }
 
     @Override
     public boolean isBound() {
-        return false;
+        return domain.nPossible() == 0;
     }
 
     @Override
     public int nextMember(int node) {
-        return 0;
+        return succ.get(indexOf(node));
     }
 
     @Override
     public int predMember(int node) {
-        return 0;
+        return pred.get(indexOf(node));
     }
 
     @Override
     public int nNodes() {
-        return 0;
+        return nNodes;
     }
 
     @Override
     public void schedule(int node, int pred) {
-
+        if (!isScheduled(pred) || node == bottom)
+            throw INCONSISTENCY;
+        if (!domain.require(node)) {
+            // the node is either already scheduled or excluded
+            if (nextMember(pred) != node || isExcluded(node)) // the insertion points asked differs from the current / the node is excluded
+                throw INCONSISTENCY;
+            else // trying to do the same insertion twice
+                return;
+        }
+        else if (!insertionVars[node].contains(pred))
+            throw INCONSISTENCY; // the insertion var did not contain the node
+        int succNode = nextMember(pred);
+        succ.set(indexOf(pred), node);
+        succ.set(node, succNode);
+        this.pred.set(node, pred);
+        this.pred.set(indexOf(succNode), node);
+
+        insertionVars[node].removeAll();
+        for (int candidate = 0; candidate < nNodes; ++candidate) {
+            if (isPossible(candidate) && insertionVars[candidate].contains(node)) {
+                // the insertion point related to this node belongs now a scheduled insertion point
+                insertionVars[candidate].nbPossible.decrement();
+                insertionVars[candidate].nbScheduled.increment();
+            }
+        }
+        if (isBound())
+            scheduleAll(onBind);
+        insertionVars[node].listener.insert();
+        insertionVars[node].listener.change();
+        scheduleAll(onInsert);
     }
 
     @Override
     public boolean canSchedule(int node, int pred) {
-        return false;
+        return isPossible(node) && isScheduled(pred) && insertionVars[node].contains(pred);
     }
 
     @Override
     public void exclude(int node) {
+        if (isScheduled(node))
+            throw INCONSISTENCY;
+        if (isExcluded(node))
+            return;
+        removeInsertionAfter(node); // remove this node for all others insertions
+        if (domain.exclude(node)) {
+            if (isBound())
+                scheduleAll(onBind);
+            insertionVars[node].removeAll();
+            insertionVars[node].listener.exclude();
+            scheduleAll(onExclude);
+        }
+    }
 
+    /**
+     * remove a node from the insertions of all possible nodes
+     */
+    private void removeInsertionAfter(int node) {
+        for (int candidate = 0; candidate < nNodes; ++candidate) {
+            if (isPossible(candidate))
+                removeInsertion(candidate, node);
+        }
     }
 
     @Override
     public void excludeAllPossible() {
-
+        int size = domain.getPossible(values);
+        domain.excludeAllPossible();
+        scheduleAll(onBind); // notify that the variable is fixed
+        scheduleAll(onExclude); // nodes have been excluded
+        for (int i = 0 ; i < size; ++i) {
+            insertionVars[values[i]].removeAll();
+            insertionVars[values[i]].listener.exclude();
+        }
     }
 
     @Override
     public boolean isScheduled(int node) {
-        return false;
+        return node == bottom || domain.isRequired(node); // bottom is always part of the sequence
     }
 
     @Override
     public boolean isPossible(int node) {
-        return false;
+        return node != bottom && domain.isPossible(node);
     }
 
     @Override
     public boolean isExcluded(int node) {
-        return false;
+        return node != bottom && domain.isExcluded(node);
     }
 
     @Override
     public int fillOrder(int[] dest) {
-        return 0;
+        int i = 0;
+        for (int current = nextMember(bottom); current != bottom; current = nextMember(current))
+            dest[i++] = current;
+        return i;
     }
 
     @Override
     public int fillScheduled(int[] dest) {
-        return 0;
+        return domain.getRequired(dest);
     }
 
     @Override
     public int fillPossible(int[] dest) {
-        return 0;
+        return domain.getPossible(dest);
     }
 
     @Override
     public int fillExcluded(int[] dest) {
-        return 0;
+        return domain.getExcluded(dest);
     }
 
     @Override
     public int fillScheduledInsertions(int node, int[] dest) {
-        return 0;
+        if (!isPossible(node))
+            return 0;
+        int j = 0; // indexing used for dest
+        InsertionVarInSequence var = insertionVars[node];
+        if (domain.nRequired() + 1 < var.size()) { // quicker to iterate over the current sequence
+            int current = bottom;
+            do {
+                // does node in the current sequence belong to a valid insertion?
+                if (var.contains(current))
+                    dest[j++] = current;
+                current = nextMember(current);
+            } while (current != bottom);
+        } else { // quicker to iterate over the remaining insertions inside the insertion var
+            int s = var.size();
+            for (int i = 0; i < s; i++) {
+                int insertion = nodeOf(var.values[i]);
+                if (isScheduled(insertion))
+                    dest[j++] = insertion;
+            }
+        }
+        return j;
     }
 
     @Override
     public int fillPossibleInsertions(int node, int[] dest) {
-        return 0;
+        if (!isPossible(node))
+            return 0;
+        int j = 0; // indexing used for dest
+        InsertionVarInSequence var = insertionVars[node];
+        if (domain.nPossible() < var.size()) { // quicker to iterate over the possible nodes
+            int size = domain.getPossible(values);
+            for (int i = 0; i < size; ++i) {
+                if (var.contains(values[i]))
+                    dest[j++] = values[i];
+            }
+        } else { // quicker to iterate over the remaining insertions inside the insertion var
+            int s = var.size();
+            for (int i = 0; i < s; i++) {
+                int insertion = nodeOf(var.values[i]);
+                if (isPossible(insertion))
+                    dest[j++] = insertion;
+            }
+        }
+        return j;
     }
 
     @Override
     public int nPossibleInsertions(int node) {
-        return 0;
+        return insertionVars[node].nbPossible();
     }
 
     @Override
     public int nScheduledInsertions(int node) {
-        return 0;
+        return insertionVars[node].nbScheduled();
     }
 
     @Override
     public int nInsertions(int node) {
-        return 0;
+        return insertionVars[node].size();
     }
 
     @Override
     public int fillInsertions(int node, int[] dest) {
-        return 0;
+        return insertionVars[node].fillInsertions(dest);
     }
 
     @Override
     public boolean isInsertion(int node, int predecessor) {
-        return false;
+        return insertionVars[node].contains(predecessor);
     }
 
+    /**
+     * remove an insertion point for an insertion var. The insertion trying to be removed cannot be in the excluded
+     * set of the domain yet!
+     * trigger the propagation
+     * @param node
+     * @param predecessor
+     */
     @Override
     public void removeInsertion(int node, int predecessor) {
+        if (insertionVars[node].remove(predecessor)) {
+            // update the counters for the number of scheduled and possible insertions
+            if (isScheduled(predecessor))
+                insertionVars[node].nbScheduled.decrement();
+            else if (isPossible(predecessor))
+                insertionVars[node].nbPossible.decrement();
+            if (insertionVars[node].size() == 0)
+                exclude(node);
+            insertionVars[node].listener.change();
+        }
+    }
 
+    @Override
+    public InsertionVar getInsertionVar(int node) {
+        return insertionVars[node];
     }
 
+    /**  =====  propagation methods  =====  */
+
     @Override
     public void whenBind(Procedure f) {
-
+        onBind.push(constraintClosure(f));
     }
 
     @Override
     public void whenInsert(Procedure f) {
-
+        onInsert.push(constraintClosure(f));
     }
 
     @Override
     public void whenExclude(Procedure f) {
-
+        onExclude.push(constraintClosure(f));
     }
 
     @Override
     public void propagateOnBind(Constraint c) {
-
+        onBind.push(c);
     }
 
     @Override
     public void propagateOnInsert(Constraint c) {
-
+        onInsert.push(c);
     }
 
     @Override
     public void propagateOnExclude(Constraint c) {
+        onExclude.push(c);
+    }
+
+    private Constraint constraintClosure(Procedure f) {
+        Constraint c = new ConstraintClosure(cp, f);
+        getSolver().post(c, false);
+        return c;
+    }
 
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("bottom");
+        for (int current = nextMember(bottom); current != bottom; current = nextMember(current)) {
+            description.append(" -> ");
+            description.append(current);
+        }
+        return description.toString();
     }
 
     private class InsertionVarInSequence implements InsertionVar {
@@ -246,24 +402,69 @@ public class SequenceVarNoBoundImpl implements SequenceVarNoBound{
         };
 
         public InsertionVarInSequence(int id) {
+            this.id = id;
             n = nNodes + 1; // number of elements is nNodes + bottom
-            nbPossible = cp.getStateManager().makeStateInt(n-1); // consider all nodes except itself as possible
+            nbPossible = cp.getStateManager().makeStateInt(n - 2); // consider all nodes except itself as possible
             nbScheduled = cp.getStateManager().makeStateInt(1); // bottom is always scheduled at first
             onDomain = new StateStack<>(cp.getStateManager());
             onInsert = new StateStack<>(cp.getStateManager());
             onExclude = new StateStack<>(cp.getStateManager());
 
-            // TODO fill correctly the values, use bottom symbol as well
+            // valid insertions at first: {0...id-1...id+1...nNodes-1} + {bottom}, bottom being stored at nNodes
             values = new int[n];
             indexes = new int[n];
             for (int i = 0; i < n; i++) {
                 values[i] = i;
                 indexes[i] = i;
             }
+            exchangePositions(id, values[n - 1]); // a node cannot have itself as predecessor
+        }
 
-            nbScheduled.setValue(1);
+        private void exchangePositions(int val1, int val2) {
+            int i1 = indexes[val1];
+            int i2 = indexes[val2];
+            values[i1] = val2;
+            values[i2] = val1;
+            indexes[val1] = i2;
+            indexes[val2] = i1;
         }
 
+        /**
+         * remove an insertion point from the set of possible insertions
+         * does not interact with nbScheduled nor nbPossible, and should only be called by the SequenceVarNoBoundImpl
+         * @param node insertion point to remove
+         */
+        private boolean remove(int node) {
+            if (!contains(node))
+                return false;
+            exchangePositions(indexOf(node), values[size() - 1]);
+            return true;
+        }
+
+        /**
+         * remove all insertions points except the one specified
+         * does not schedule into the sequence, and should only be called by the SequenceVarNoBoundImpl
+         * @param node insertion point to keep
+         */
+        private void removeAllBut(int node) {
+            exchangePositions(indexOf(node), values[0]);
+            nbScheduled.setValue(0);
+            nbPossible.setValue(1);
+        }
+
+        /**
+         * remove all insertions points from the set of insertions
+         * does not exclude / schedule into the sequence, and should only be called by the SequenceVarNoBoundImpl
+         */
+        private void removeAll() {
+            nbPossible.setValue(0);
+            nbScheduled.setValue(0);
+        }
+
+        public int nbScheduled() {return nbScheduled.value();}
+
+        public int nbPossible() {return nbPossible.value();}
+
         @Override
         public Solver getSolver() {
             return cp;
@@ -276,77 +477,90 @@ public class SequenceVarNoBoundImpl implements SequenceVarNoBound{
 
         @Override
         public void removeInsert(int i) {
-
+            SequenceVarNoBoundImpl.this.removeInsertion(id, i);
         }
 
         @Override
         public void removeAllInsert() {
-
+            SequenceVarNoBoundImpl.this.exclude(id);
         }
 
         @Override
         public void removeAllInsertBut(int i) {
-
+            if (isScheduled(i))  // equivalent to the scheduling of the variable
+                schedule(id, i);
+            else if (isPossible(i) && contains(i))
+                removeAllBut(i);
+            else
+                throw INCONSISTENCY; // trying to assign an invalid insertion point
         }
 
         @Override
         public boolean contains(int i) {
-            return false;
+            if (i < bottom || i >= nNodes)
+                return false;
+            else
+                return indexes[indexOf(i)] < size();
         }
 
         @Override
         public int node() {
-            return 0;
+            return id;
         }
 
         @Override
         public int fillInsertions(int[] dest) {
-            return 0;
+            int s = size();
+            for (int i = 0; i < s; ++i)
+                dest[i] = nodeOf(values[i]);
+            return s;
         }
 
         @Override
         public int size() {
-            return 0;
+            return nbPossible.value() + nbScheduled.value();
         }
 
         @Override
         public void whenInsert(Procedure f) {
-
+            onInsert.push(constraintClosure(f));
         }
 
         @Override
         public void propagateOnInsert(Constraint c) {
-
+            onInsert.push(c);
         }
 
         @Override
         public void whenDomainChange(Procedure f) {
-
+            onDomain.push(constraintClosure(f));
         }
 
         @Override
         public void propagateOnDomainChange(Constraint c) {
-
+            onDomain.push(c);
         }
 
         @Override
         public void whenExclude(Procedure f) {
-
+            onExclude.push(constraintClosure(f));
         }
 
         @Override
         public void propagateOnExclude(Constraint c) {
-
+            onExclude.push(c);
         }
 
         @Override
         public void whenBind(Procedure f) {
-
+            onExclude.push(constraintClosure(f));
+            onInsert.push(constraintClosure(f));
         }
 
         @Override
         public void propagateOnBind(Constraint c) {
-
+            onInsert.push(c);
+            onExclude.push(c);
         }
     }
 
@@ -16,6 +16,7 @@
 package minicp.engine.core;
 
 import minicp.search.Objective;
+import minicp.search.SharedBound;
 import minicp.state.StateManager;
 import minicp.util.Procedure;
 
@@ -53,6 +54,16 @@ public interface Solver {
      */
     void fixPoint();
 
+    /**
+     * Schedules the notification of the events of a variable.
+     * The events are notified before the next constraint is propagated,
+     * such that the events accumulated by a propagation schedule
+     * each listening constraint once.
+     *
+     * @param x the events of a variable, scheduled once until they are notified
+     */
+    void scheduleEvents(VariableEvents x);
+
     /**
      * Returns the state manager in charge of the global
      * state of the solver.
@@ -77,6 +88,17 @@ public interface Solver {
      */
     Objective minimize(IntVar x);
 
+    /**
+     * Creates a minimization objective on the given variable
+     * whose bound is shared with other solvers.
+     *
+     * @param x the variable to minimize
+     * @param bound the best value found by all the solvers sharing it
+     * @return an objective that can minimize x
+     * @see minicp.search.Portfolio
+     */
+    Objective minimize(IntVar x, SharedBound bound);
+
     /**
      * Creates a maximization objective on the given variable.
      *
@@ -44,6 +44,11 @@ public class SparseSetDomain implements IntDomain {
         return domain.fillArray(dest);
     }
 
+    @Override
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        return domain.fillDeltaArray(oldMin, oldMax, oldSize, dest);
+    }
+
     @Override
     public int min() {
         return domain.min();
@@ -0,0 +1,38 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+
+package minicp.engine.core;
+
+/**
+ * Events of a variable accumulated while a constraint is propagated,
+ * notified to the constraints listening to the variable
+ * once the propagation is over.
+ *
+ * @see Solver#scheduleEvents(VariableEvents)
+ */
+public interface VariableEvents {
+
+    /**
+     * Schedules the constraints listening to the events accumulated
+     * and forgets the events.
+     */
+    void notifyEvents();
+
+    /**
+     * Forgets the events accumulated without scheduling any constraint.
+     */
+    void discardEvents();
+}
@@ -3,8 +3,14 @@ package minicp.examples.darp;
 import minicp.engine.constraints.sequence.*;
 import minicp.engine.core.*;
 import minicp.search.DFSearch;
+import minicp.search.Objective;
+import minicp.search.ParallelLNS;
 import minicp.search.SearchStatistics;
+import minicp.search.SharedBound;
+import minicp.search.SolutionStore;
+import minicp.state.Checkpoint;
 import minicp.state.StateInt;
+import minicp.state.StateManager;
 import minicp.state.StateSparseSet;
 import minicp.util.Procedure;
 import minicp.util.exception.InconsistencyException;
@@ -16,6 +22,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static minicp.cp.BranchingScheme.*;
@@ -62,6 +70,42 @@ public class DARPInsertion extends DARPSolver{
         darpSolveStatistics.setSearchStatistics(stats);
     }
 
+    /**
+     * solve an instance using a {@link ParallelLNS} minimizing the sum of the route lengths,
+     * each worker owning its model and relaxing the best solution found by all of them
+     * @param instance instance to solve
+     * @param nWorkers number of workers, each of them running in its own thread
+     * @param darpSolveStatistics solve statistics, containing the maximum allowed run time before the search
+     *                            and statistics related to the search after
+     * @return best solution found within maxRunTime. null if no solution found
+     */
+    public DARPInstance.DARPSolution solveParallelLns(DARPInstance instance, int nWorkers, DARPSolveStatistics darpSolveStatistics) {
+        initCp(instance);
+        int version = getVersion();
+        ParallelLNS lns = new ParallelLNS(nWorkers, PARALLEL_FAILURE_LIMIT, (id, bound) -> {
+            DARPInsertion worker = new DARPInsertion();
+            worker.setVersion(version);
+            worker.setSeed(getSeed() + id);
+            worker.cp = worker.new DarpInsertionCP(instance, true);
+            return worker.cp.parallelLnsModel(bound);
+        });
+        lns.setSeed(getSeed());
+        darpSolveStatistics.init();
+        SolutionStore.Incumbent best = lns.solve(stats -> darpSolveStatistics.isFinished());
+        darpSolveStatistics.finish();
+        if (best == null) {
+            if (getVerbosity() > 0)
+                System.out.println("no solution found");
+            return null;
+        }
+        cp.bestSolution = cp.routesToSolution(best.solution());
+        cp.bestSolution.computeNoExcept();
+        darpSolveStatistics.addSolution(cp.bestSolution);
+        if (getVerbosity() > 0)
+            System.out.printf("best solution %d\n", best.objective());
+        return cp.bestSolution;
+    }
+
     @Override
     public String description() {return "insertion";}
 
@@ -79,6 +123,9 @@ public class DARPInsertion extends DARPSolver{
         initCp(instance);
     }
 
+    private DARPInsertion() {
+    }
+
     public void initCp(DARPInstance instance) {
         cp = new DarpInsertionCP(instance);
     }
@@ -87,6 +134,10 @@ public class DARPInsertion extends DARPSolver{
     private static final int PRECEDE = 1;
     private static final int SAME_NODE = 2;
     private static final int NOT_PRECEDE = 0;
+    // neighborhoods of the parallel LNS: number of requests relaxed and failures allowed
+    private static final int PARALLEL_MIN_RELAX = 2;
+    private static final int PARALLEL_RELAX_RANGE = 5;
+    private static final int PARALLEL_FAILURE_LIMIT = 1000;
 
     public class DarpInsertionCP {
 
@@ -147,6 +198,15 @@ public class DARPInsertion extends DARPSolver{
         DARPInstance darp;
 
         public DarpInsertionCP(DARPInstance darpInstance) {
+            this(darpInstance, false);
+        }
+
+        /**
+         * @param darpInstance instance to solve
+         * @param linkRouteLength if true, routeLength and sumRouteLength are the lengths of the routes and their sum,
+         *                        that can be minimized
+         */
+        public DarpInsertionCP(DARPInstance darpInstance, boolean linkRouteLength) {
             this.darp = darpInstance;
             numVars = darpInstance.nRequests * 2 + 2 * darpInstance.nVehicles;
 
@@ -218,7 +278,7 @@ public class DARPInsertion extends DARPSolver{
             this.stops = new ArrayList<>(); // no need to specify end nodes, only pickup and drops
             stops.addAll(Arrays.asList(darp.stops).subList(0, 2 * darp.nRequests));
             initCpVars();
-            postConstraints();
+            postConstraints(linkRouteLength);
             currentSolution = constructSolution();
         }
 
@@ -250,7 +310,7 @@ public class DARPInsertion extends DARPSolver{
             }
         }
 
-        private void postConstraints() {
+        private void postConstraints(boolean linkRouteLength) {
             // post the constraints
             // serving time pickup + serving + travel time to delivery <= serving time delivery
             for (int i = rangePickupMin; i < rangePickupMax; ++i) {
@@ -289,10 +349,15 @@ public class DARPInsertion extends DARPSolver{
                 cp.post(new Cumulative(routes[i], starts, ends, darp.vehicleCapacity, vertexLoadChange), false);
                 // transition time between nodes
                 //cp.post(new TransitionTimes(routes[i], servingTime, routeLength[i], travelTimeMatrix, serviceTime, false), false);
-                cp.post(new TransitionTimes(routes[i], servingTime, travelTimeMatrix, serviceTime), false);
+                if (linkRouteLength)
+                    cp.post(new TransitionTimes(routes[i], servingTime, routeLength[i], travelTimeMatrix, serviceTime), false);
+                else
+                    cp.post(new TransitionTimes(routes[i], servingTime, travelTimeMatrix, serviceTime), false);
             }
             // objective value is the sum of all routes
             // cp.post(new Sum(routeDuration, sumRouteDuration), false);
+            if (linkRouteLength)
+                cp.post(sum(routeLength, sumRouteLength), false);
             // the nodes can be visited once
             cp.post(new Disjoint(routes), false);
             cp.fixPoint();
@@ -303,12 +368,22 @@ public class DARPInsertion extends DARPSolver{
          * @param nRelax number of customers to remove from the current solution
          */
         public void relax(int nRelax) {
+            relax(nRelax, currentSolution, DARPInsertion.this::nextInt);
+        }
+
+        /**
+         * relax a solution, by removing nRelax customers from it
+         * @param nRelax number of customers to remove from the solution
+         * @param solution solution to relax
+         * @param nextInt random generator, giving an integer between 0 (included) and its argument (excluded)
+         */
+        private void relax(int nRelax, DARPInstance.DARPSolution solution, IntUnaryOperator nextInt) {
             int[] possibleCustomers = IntStream.range(0, darp.nRequests).toArray();
             int relaxEnd = 0;
             int toRelax;
             int cRelaxed;
             while (relaxEnd < nRelax && relaxEnd < darp.nRequests) { // relax as many requests as asked
-                toRelax = relaxEnd + nextInt(darp.nRequests - relaxEnd);
+                toRelax = relaxEnd + nextInt.applyAsInt(darp.nRequests - relaxEnd);
                 cRelaxed = possibleCustomers[toRelax];
                 possibleCustomers[toRelax] = possibleCustomers[relaxEnd];
                 possibleCustomers[relaxEnd] = cRelaxed;
@@ -319,14 +394,86 @@ public class DARPInsertion extends DARPSolver{
                 customersLeft.remove(possibleCustomers[i]);
             }
             for (int v = 0; v < darp.nVehicles; ++v) {
-                int prev = routes[v].begin();
-                for (int current: currentSolution.succ[v]) {
+                int[] keptOrder = new int[solution.succ[v].size() + 1];
+                int nKept = 0;
+                keptOrder[nKept++] = routes[v].begin();
+                for (int current: solution.succ[v]) {
                     if (!customersLeft.contains(getCorrespondingRequest(current))) {
-                        cp.post(new Schedule(routes[v], current, prev), false); // the vehicle goes through this node
-                        prev = current; // only updated when a non-relaxed node is met, to complete the partial route
+                        keptOrder[nKept++] = current; // the vehicle goes through this node, after the previous non-relaxed one
+                    }
+                }
+                cp.post(new ScheduleAll(routes[v], keptOrder, 0, nKept), false);
+            }
+        }
+
+        /**
+         * give this model as a worker of a {@link ParallelLNS} minimizing the sum of the route lengths.
+         * The solutions are given as the nodes visited by each vehicle, followed by its end depot
+         * @param bound bound shared by the workers
+         * @return model of the worker
+         */
+        public ParallelLNS.Model parallelLnsModel(SharedBound bound) {
+            Objective objective = cp.minimize(sumRouteLength, bound);
+            Supplier<Procedure[]> treeSearch = version == 2 ? this::blindRequestTreeSearch : this::boundImpactRequestTreeSearch;
+            DFSearch search = makeDfs(cp, () -> {
+                Procedure[] alternatives = treeSearch.get();
+                // every request is inserted, but a route may still have possible nodes scheduled in another one:
+                // they are excluded such that the length of the routes, and thus the objective, are fixed
+                if (alternatives.length == 0 && !sumRouteLength.isBound())
+                    return branch(() -> cp.post(new ExcludeAllPossible(routes)));
+                return alternatives;
+            });
+            return new ParallelLNS.Model() {
+                @Override
+                public DFSearch search() {
+                    return search;
+                }
+
+                @Override
+                public Objective objective() {
+                    return objective;
+                }
+
+                @Override
+                public int objectiveValue() {
+                    return sumRouteLength.min();
+                }
+
+                @Override
+                public int[] solution() {
+                    int[] order = new int[2 * darp.nRequests + darp.nVehicles];
+                    int n = 0;
+                    for (SequenceVar route : routes) {
+                        for (int current = route.nextMember(route.begin()); current != route.end(); current = route.nextMember(current))
+                            order[n++] = current;
+                        order[n++] = route.end();
                     }
+                    return order;
+                }
+
+                @Override
+                public void relax(int[] solution, Random random) {
+                    int nRelax = PARALLEL_MIN_RELAX + random.nextInt(PARALLEL_RELAX_RANGE);
+                    DarpInsertionCP.this.relax(nRelax, routesToSolution(solution), random::nextInt);
                 }
+            };
+        }
+
+        /**
+         * construct a solution from the nodes visited by each vehicle, each route being followed by its end depot
+         * @param order nodes visited by the vehicles, as given by a {@link ParallelLNS.Model} of this model
+         * @return solution visiting the nodes in the given order
+         */
+        public DARPInstance.DARPSolution routesToSolution(int[] order) {
+            DARPInstance.DARPSolution solution = darp.constructSolution(stops);
+            int vehicle = 0;
+            for (int node : order) {
+                if (node >= rangeEndDepotMin)
+                    vehicle++;
+                else
+                    solution.addStop(vehicle, node);
             }
+            return solution;
         }
 
         public void postSequence(String sequence) {
@@ -426,21 +573,29 @@ public class DARPInsertion extends DARPSolver{
                     int failureLimitFinal = 1000;
                     int maxRange = darp.nRequests / 2 - range;
                     boolean running = !solveStatistics.isFinished();
+                    // the model is set once, each relaxation being rewound to this checkpoint
+                    StateManager sm = cp.getStateManager();
+                    Checkpoint model = sm.checkpoint("model");
                     for (int minNeighborhood = 2; minNeighborhood <= maxRange && running; ++minNeighborhood) {
                         if (minNeighborhood == maxRange)
                             minNeighborhood = 2; // reset of the neighborhood
                         for (int offsetNeighborhood = 0; offsetNeighborhood < range && running; ++offsetNeighborhood) {
                             for (int i = 0; i < numIters && running; ++i) {
                                 int nRelax = minNeighborhood + offsetNeighborhood;
-                                stats = search.solveSubjectTo(searchStatistics -> (
+                                try {
+                                    relax(nRelax);
+                                    stats = search.solve(searchStatistics -> (
                                             searchStatistics.numberOfSolutions() == 1 ||
                                             solveStatistics.isFinished() ||
-                                            searchStatistics.numberOfFailures() > failureLimitFinal),
-                                        () -> relax(nRelax));
+                                            searchStatistics.numberOfFailures() > failureLimitFinal));
+                                } catch (InconsistencyException e) {
+                                }
+                                sm.rewind(model);
                                 running = !solveStatistics.isFinished();
                             }
                         }
                     }
+                    sm.release(model);
                 } else if (!feasibleSolution) {
                     if (getVerbosity() > 0)
                         System.out.println("no solution found");
@@ -992,10 +1147,14 @@ public class DARPInsertion extends DARPSolver{
         solver.setSeed( -241020543);
         int maxRunTime = args.length > 1 ? Integer.parseInt(args[1]) : 300;
         int verbosity = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int nWorkers = args.length > 3 ? Integer.parseInt(args[3]) : 1; // parallel LNS if more than one worker
         solver.setVerbosity(verbosity);
         DARPSolveStatistics solveStats = new DARPSolveStatistics(maxRunTime);
 
-        solver.solveLns(instance, solveStats);
+        if (nWorkers > 1)
+            solver.solveParallelLns(instance, nWorkers, solveStats);
+        else
+            solver.solveLns(instance, solveStats);
         if (verbosity > 1) {
             System.out.println(solveStats);
             System.out.println("\n" + solveStats.bestSolution());
@@ -237,13 +237,13 @@ public class DARPLnsFfpa extends DARPSolver{
 
             servingTime = new IntVar[numVars];
             for (int i = 0; i < 2*darp.nRequests; i++) {
-                servingTime[i] = makeIntVar(cp,darp.stops[i].twStart(), darp.stops[i].twEnd(), true);
+                servingTime[i] = makeIntervalVar(cp,darp.stops[i].twStart(), darp.stops[i].twEnd());
             }
             for (int i = rangeStartDepotMin; i < rangeStartDepotMax; i++) {
-                servingTime[i] = makeIntVar(cp,darp.startDepot.twStart(), darp.startDepot.twEnd(), true);
+                servingTime[i] = makeIntervalVar(cp,darp.startDepot.twStart(), darp.startDepot.twEnd());
             }
             for (int i = rangeEndDepotMin; i < rangeEndDepotMax; i++) {
-                servingTime[i] = makeIntVar(cp,darp.endDepot.twStart(), darp.endDepot.twEnd(), true);
+                servingTime[i] = makeIntervalVar(cp,darp.endDepot.twStart(), darp.endDepot.twEnd());
             }
 
             servingVehicle = new IntVar[numVars];
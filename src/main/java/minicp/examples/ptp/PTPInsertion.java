@@ -287,7 +287,7 @@ public class PTPInsertion {
         tripsLeft = new StateSparseSet(cp.getStateManager(), nTrips, 0);
         int sumMaxDist = 0;
         for (int i = 0 ; i < nNodes; ++i) {
-            time[i] = makeIntVar(cp, twStart[i], twEnd[i], true);
+            time[i] = makeIntervalVar(cp, twStart[i], twEnd[i]);
         }
         for (int v = 0; v < nVehicle; ++v) {
             int nWindow = Availability[v].length;
@@ -7,6 +7,7 @@ import minicp.engine.constraints.LessOrEqual;
 import minicp.engine.constraints.sequence.*;
 import minicp.engine.core.*;
 import minicp.search.DFSearch;
+import minicp.search.IndexedBranching;
 import minicp.search.Objective;
 import minicp.search.SearchStatistics;
 import minicp.util.Procedure;
@@ -15,7 +16,6 @@ import minicp.util.exception.InconsistencyException;
 import java.util.*;
 import java.util.function.BiConsumer;
 
-import static minicp.cp.BranchingScheme.EMPTY;
 import static minicp.cp.BranchingScheme.firstFail;
 import static minicp.cp.Factory.*;
 import static minicp.util.exception.InconsistencyException.INCONSISTENCY;
@@ -50,9 +50,6 @@ public class TsptwSolver {
 
     private int[] nodes; // used for fill operations on nodes in the branching
     private int[] insertion; // used for fill operations on insertions in the branching
-    private Procedure[] branching; // contain the branching procedures
-    private Integer[] heuristicVal; // heuristic values
-    private Integer[] branchingRange; // index used to sort using the heuristic values
     private Random random; // used to randomize the branching and the relaxation
     private int seed; // seed used by random
 
@@ -62,6 +59,7 @@ public class TsptwSolver {
     private int[] bestSolOrder; // best solution ordering
     private TsptwResult bestSol; // value for the best solution
     private int[] relaxedNodes; // set of relaxed nodes
+    private int[] keptOrder; // ordering of the non-relaxed nodes, scheduled at once
     private Set<Integer> relaxed; // set of relaxed nodes
     private final boolean solProvided; // true if an initial solution was provided
     private long init; // time at which the solver has started, in millis
@@ -95,9 +93,6 @@ public class TsptwSolver {
         begin = 0;
         end = nNodes;
         visitOrder = new int[nNodes];
-        heuristicVal = new Integer[nNodes];
-        branchingRange = new Integer[nNodes];
-        branching = new Procedure[nNodes];
         // transition from node to node
         distances = new int[nNodesWithDepot][nNodesWithDepot];
         twStart = new int[nNodesWithDepot];
@@ -117,6 +112,7 @@ public class TsptwSolver {
         relaxedNodes = new int[nNodes];
         bestSolOrder = new int[nNodesWithDepot];
         currentSolOrder = new int[nNodesWithDepot];
+        keptOrder = new int[nNodesWithDepot];
         // solution
         if (initial == null) { // no initial solution given
             bestSol = new TsptwResult(Integer.MAX_VALUE);
@@ -166,7 +162,7 @@ public class TsptwSolver {
         initCpVars();
         postSatisfactionConstraint();
 
-        DFSearch search = makeDfs(cp, this::branchOnOneInsertionVar);
+        DFSearch search = makeDfs(cp, branchOnOneInsertionVar());
         search.onSolution(() -> {
             int nVisit = this.nVisitedNodes.max();
             if (nVisit > bestNVisited) {
@@ -191,7 +187,7 @@ public class TsptwSolver {
         if (!foundFirstSol) {
             if (verbosity > 1)
                 System.out.println("switching branching");
-            search = makeDfs(cp, this::branchForSatisfiability);
+            search = makeDfs(cp, branchForSatisfiability());
             search.onSolution(() -> {
                 int nVisit = this.nVisitedNodes.max();
                 if (nVisit > bestNVisited) {
@@ -258,7 +254,7 @@ public class TsptwSolver {
         initCpVars();
         postOptimisationConstraint();
 
-        DFSearch search = makeDfs(cp, this::branchOnOneInsertionVar);
+        DFSearch search = makeDfs(cp, branchOnOneInsertionVar());
         search.onSolution(() -> {
             if (this.routingCost.max() < bestSol.cost) {
                 int current = begin;
@@ -409,7 +405,8 @@ public class TsptwSolver {
             System.out.println("\n");
         }
 
-        int pred = begin;
+        int nKept = 0;
+        keptOrder[nKept++] = begin;
         int current;
         for (int i = 1 ; i < nVisited - 1 ; ++i) {
             current = currentSolOrder[i];
@@ -432,14 +429,9 @@ public class TsptwSolver {
                 i = firstNodeIdx + nRelax;
                 current = currentSolOrder[i];
             }
-            try {
-                cp.post(new Schedule(route, current, pred), false);
-            } catch (Exception e) {
-                int a = 0;
-                throw e;
-            }
-            pred = current;
+            keptOrder[nKept++] = current;
         }
+        cp.post(new ScheduleAll(route, keptOrder, 0, nKept), false);
         // close the sequence
         //System.out.println(route.ordering(false, " "));
     }
@@ -483,45 +475,8 @@ public class TsptwSolver {
      *
      * @return branching to solve the TSPTW instance
      */
-    public Procedure[] branchForSatisfiability() {
-        if (route.isBound()) // all nodes have been sequenced
-            return EMPTY;
-
-        // select the node with the least insertions points
-        int size = route.fillPossible(nodes);
-        int minInsert = Integer.MAX_VALUE;
-        int nFound = 0;
-        for (int i = 0 ; i < size; ++i) {
-            int nInsert = route.nScheduledInsertions(nodes[i]);
-            if (nInsert < minInsert && nInsert > 0) {
-                minInsert = nInsert;
-                insertion[0] = nodes[i];
-                nFound = 1;
-            } else if (nInsert == minInsert) {
-                insertion[nFound++] = nodes[i];
-            }
-        }
-        if (nFound == 0) {
-            return EMPTY;
-        }
-
-        int branchingNode = insertion[random.nextInt(nFound)]; // randomly select the node amongst the nodes that have been selected
-        // branch on every scheduled insertion
-        route.fillScheduledInsertions(branchingNode, nodes);
-        for (int i = 0 ; i < minInsert; ++i) {
-            int pred = nodes[i];
-            branchingRange[i] = i;
-            heuristicVal[i] =  satisfiabilityHeuristic(branchingNode, pred);
-            branching[i] = () -> cp.post(new Schedule(route, branchingNode, pred));
-        }
-        // sort according to the heuristic
-        Arrays.sort(branchingRange, 0, minInsert, Comparator.comparingInt(j -> heuristicVal[j]));
-        Procedure[] branchingSorted = new Procedure[minInsert];
-        for (int i = 0 ; i < minInsert ; ++i)
-            branchingSorted[i] = branching[branchingRange[i]];
-        // exclude all possible nodes, binding the sequence and giving a solution
-        //branchingSorted[minInsert] = () -> {cp.post(new ExcludeAllPossible(route));};
-        return branchingSorted;
+    public IndexedBranching branchForSatisfiability() {
+        return new InsertionBranching(true);
     }
 
     /**
@@ -532,43 +487,83 @@ public class TsptwSolver {
      *
      * @return branching to solve the TSPTW instance
      */
-    public Procedure[] branchOnOneInsertionVar() {
-        if (route.isBound()) // all nodes have been sequenced
-            return EMPTY;
-
-        // select the node with the least insertions points
-        int size = route.fillPossible(nodes);
-        int minInsert = Integer.MAX_VALUE;
-        int nFound = 0;
-        for (int i = 0 ; i < size; ++i) {
-            int nInsert = route.nScheduledInsertions(nodes[i]);
-            if (nInsert < minInsert && nInsert > 0) {
-                minInsert = nInsert;
-                insertion[0] = nodes[i];
-                nFound = 1;
-            } else if (nInsert == minInsert) {
-                insertion[nFound++] = nodes[i];
+    public IndexedBranching branchOnOneInsertionVar() {
+        return new InsertionBranching(false);
+    }
+
+    /**
+     * branching on the scheduled insertions of the node with the least of them
+     * the node and its sorted predecessors are kept per depth, such that a node of the search allocates nothing
+     */
+    private class InsertionBranching implements IndexedBranching {
+
+        private final boolean satisfiability; // a node without any scheduled insertion gives a solution instead of a failure
+        private int[] branchingNode = new int[16]; // node inserted at each depth
+        private int[][] preds = new int[16][];     // predecessors of the node at each depth, by increasing heuristic value
+        private int[] heuristicVal = new int[0];   // heuristic value of each predecessor of the current node
+
+        InsertionBranching(boolean satisfiability) {
+            this.satisfiability = satisfiability;
+        }
+
+        @Override
+        public int expand(int depth) {
+            if (route.isBound()) // all nodes have been sequenced
+                return 0;
+
+            // select the node with the least insertions points
+            int size = route.fillPossible(nodes);
+            int minInsert = Integer.MAX_VALUE;
+            int nFound = 0;
+            for (int i = 0 ; i < size; ++i) {
+                int nInsert = route.nScheduledInsertions(nodes[i]);
+                if (nInsert < minInsert && nInsert > 0) {
+                    minInsert = nInsert;
+                    insertion[0] = nodes[i];
+                    nFound = 1;
+                } else if (nInsert == minInsert) {
+                    insertion[nFound++] = nodes[i];
+                }
+            }
+            if (nFound == 0) {
+                if (satisfiability)
+                    return 0;
+                throw INCONSISTENCY;
             }
+
+            int node = insertion[random.nextInt(nFound)]; // randomly select the node amongst the nodes that have been selected
+            if (depth >= branchingNode.length) {
+                branchingNode = Arrays.copyOf(branchingNode, Math.max(2 * branchingNode.length, depth + 1));
+                preds = Arrays.copyOf(preds, branchingNode.length);
+            }
+            if (preds[depth] == null || preds[depth].length < nodes.length)
+                preds[depth] = new int[nodes.length];
+            if (heuristicVal.length < nodes.length)
+                heuristicVal = new int[nodes.length];
+            branchingNode[depth] = node;
+            int[] sorted = preds[depth];
+            // branch on every scheduled insertion, sorted according to the heuristic
+            // with a stable insertion sort, as there are few of them
+            route.fillScheduledInsertions(node, nodes);
+            for (int i = 0 ; i < minInsert; ++i) {
+                int pred = nodes[i];
+                int val = satisfiability ? satisfiabilityHeuristic(node, pred) : heuristic(node, pred);
+                int j = i;
+                for (; j > 0 && heuristicVal[j - 1] > val; --j) {
+                    heuristicVal[j] = heuristicVal[j - 1];
+                    sorted[j] = sorted[j - 1];
+                }
+                heuristicVal[j] = val;
+                sorted[j] = pred;
+            }
+            return minInsert;
         }
-        if (nFound == 0)
-            throw INCONSISTENCY;
-
-        int branchingNode = insertion[random.nextInt(nFound)]; // randomly select the node amongst the nodes that have been selected
-
-        // branch on every scheduled insertion
-        route.fillScheduledInsertions(branchingNode, nodes);
-        for (int i = 0 ; i < minInsert; ++i) {
-            int pred = nodes[i];
-            branchingRange[i] = i;
-            heuristicVal[i] =  heuristic(branchingNode, pred);
-            branching[i] = () -> cp.post(new Schedule(route, branchingNode, pred));
+
+        @Override
+        public void apply(int depth, int alternative) {
+            route.schedule(branchingNode[depth], preds[depth][alternative]);
+            cp.fixPoint();
         }
-        // sort according to the heuristic
-        Arrays.sort(branchingRange, 0, minInsert, Comparator.comparingInt(j -> heuristicVal[j]));
-        Procedure[] branchingSorted = new Procedure[minInsert];
-        for (int i = 0 ; i < minInsert ; ++i)
-            branchingSorted[i] = branching[branchingRange[i]];
-        return branchingSorted;
     }
 
     /* ================================ heuristic ================================================================  */
@@ -695,7 +690,7 @@ public class TsptwSolver {
         cp = makeSolver();
         initCpVars();
         postOptimisationConstraint();
-        DFSearch search = makeDfs(cp, this::branchOnOneInsertionVar);
+        DFSearch search = makeDfs(cp, branchOnOneInsertionVar());
         search.onSolution(() -> {
             int current = begin;
             for (int i = 1 ; i < nNodes; ++i) {
@@ -17,12 +17,12 @@ package minicp.search;
 
 import minicp.state.StateManager;
 import minicp.util.exception.InconsistencyException;
-import minicp.util.exception.NotImplementedException;
 import minicp.util.Procedure;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -31,9 +31,13 @@ import java.util.function.Supplier;
  */
 public class DFSearch {
 
-    private Supplier<Procedure[]> branching;
+    private IndexedBranching branching;
     private StateManager sm;
 
+    // frames of the explicit stack, one per depth of the current node
+    private int[] nextAlternative = new int[64];
+    private int[] nAlternatives = new int[64];
+
     private List<Procedure> solutionListeners = new LinkedList<Procedure>();
     private List<Procedure> failureListeners = new LinkedList<Procedure>();
 
@@ -50,6 +54,23 @@ public class DFSearch {
      *                  is thrown.
      */
     public DFSearch(StateManager sm, Supplier<Procedure[]> branching) {
+        this(sm, new ProcedureBranching(branching));
+    }
+
+    /**
+     * Creates a Depth First Search object with a given branching
+     * whose alternatives are identified by their index,
+     * such that the search does not allocate anything at each node.
+     *
+     * @param sm the state manager that will be saved and restored
+     *           at each node of the search tree
+     * @param branching the branching in charge of defining the number of
+     *                  children nodes at each node of the depth-first-search tree
+     *                  and of applying each of them.
+     *                  A backtrack occurs when a {@link InconsistencyException}
+     *                  is thrown.
+     */
+    public DFSearch(StateManager sm, IndexedBranching branching) {
         this.sm = sm;
         this.branching = branching;
     }
@@ -76,22 +97,28 @@ public class DFSearch {
         failureListeners.add(listener);
     }
 
-    private void notifySolution() {
+    void notifySolution() {
         solutionListeners.forEach(s -> s.call());
     }
 
-    private void notifyFailure() {
+    void notifyFailure() {
         failureListeners.forEach(s -> s.call());
     }
 
+    StateManager getStateManager() {
+        return sm;
+    }
+
+    IndexedBranching getBranching() {
+        return branching;
+    }
+
     private SearchStatistics solve(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
         sm.withNewState(() -> {
             try {
                 dfs2(statistics, limit);
                 statistics.setCompleted();
             } catch (StopSearchException ignored) {
-            } catch (StackOverflowError e) {
-                throw new NotImplementedException("dfs with explicit stack needed to pass this test");
             }
         });
         return statistics;
@@ -105,7 +132,7 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics solve() {
-        SearchStatistics statistics = new SearchStatistics();
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
         return solve(statistics, stats -> false);
     }
 
@@ -119,7 +146,7 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics solve(Predicate<SearchStatistics> limit) {
-        SearchStatistics statistics = new SearchStatistics();
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
         return solve(statistics, limit);
     }
 
@@ -140,7 +167,7 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics solveSubjectTo(Predicate<SearchStatistics> limit, Procedure subjectTo) {
-        SearchStatistics statistics = new SearchStatistics();
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
         sm.withNewState(() -> {
             try {
                 subjectTo.call();
@@ -176,9 +203,13 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics optimize(Objective obj, Predicate<SearchStatistics> limit) {
-        SearchStatistics statistics = new SearchStatistics();
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
         onSolution(() -> obj.tighten());
-        return solve(statistics, limit);
+        // the limit is tested at each node, where the bound may be improved by other searches
+        return solve(statistics, stats -> {
+            obj.refresh();
+            return limit.test(stats);
+        });
     }
 
     /**
@@ -201,7 +232,7 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics optimizeSubjectTo(Objective obj, Predicate<SearchStatistics> limit, Procedure subjectTo) {
-        SearchStatistics statistics = new SearchStatistics();
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
         sm.withNewState(() -> {
             try {
                 subjectTo.call();
@@ -214,67 +245,187 @@ public class DFSearch {
     }
 
 
-    private void dfs(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
-        if (limit.test(statistics))
-            throw new StopSearchException();
-        Procedure[] branches = branching.get();
-        if (branches.length == 0) {
-            statistics.incrSolutions();
-            notifySolution();
-        } else {
-            for (Procedure b : branches) {
-                sm.withNewState(() -> {
-                    try {
-                        statistics.incrNodes();
-                        b.call();
-                        dfs(statistics, limit);
-                    } catch (InconsistencyException e) {
-                        statistics.incrFailures();
-                        notifyFailure();
-                    }
-                });
-            }
-        }
+    /**
+     * Decomposes the top of the search tree into subproblems
+     * that can be solved independently, for instance in parallel.
+     * The tree is explored up to the given depth and each node reached
+     * at that depth, or each solution found above it, gives a subproblem
+     * described by the index of the branch taken at each level.
+     * The failed nodes are discarded.
+     * The state is restored once the decomposition is done.
+     *
+     * @param depth the number of decisions of the subproblems
+     * @return the decisions of each subproblem, in the depth first order
+     * @see #solveSubproblem(int[], Predicate)
+     */
+    public List<int[]> decompose(int depth) {
+        List<int[]> subproblems = new ArrayList<>();
+        int[] decisions = new int[depth];
+        sm.withNewState(() -> decompose(decisions, 0, subproblems));
+        return subproblems;
     }
 
-    // STUDENT
+    private void decompose(int[] decisions, int level, List<int[]> subproblems) {
+        if (level == decisions.length) {
+            subproblems.add(decisions.clone());
+            return;
+        }
+        int n = branching.expand(level);
+        if (n == 0) {
+            subproblems.add(Arrays.copyOf(decisions, level));
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            int alternative = i;
+            decisions[level] = i;
+            sm.withNewState(() -> {
+                try {
+                    branching.apply(level, alternative);
+                    decompose(decisions, level + 1, subproblems);
+                } catch (InconsistencyException ignored) {
+                }
+            });
+        }
+    }
 
-    // BEGIN STRIP
+    /**
+     * Replays a list of decisions from the current node:
+     * at each level, the branching is called and the branch
+     * with the recorded index is executed.
+     * The branching must be deterministic and the bound of the objective,
+     * if any, must be the one enforced when the decisions were recorded
+     * for the replay to reach the same node.
+     *
+     * @param decisions the index of the branch taken at each level
+     * @throws InconsistencyException if a decision fails
+     */
+    public void replay(int[] decisions) {
+        for (int level = 0; level < decisions.length; level++) {
+            if (decisions[level] >= branching.expand(level))
+                throw new IllegalArgumentException("the decisions do not match the branching");
+            branching.apply(level, decisions[level]);
+        }
+    }
 
-    // solution to DFS with explicit stack
-    private void expandNode(Stack<Procedure> alternatives, SearchStatistics statistics) {
-        Procedure[] alts = branching.get();
-        if (alts.length == 0) {
-            statistics.incrSolutions();
-            notifySolution();
-        } else {
-            for (int i = alts.length - 1; i >= 0; i--) {
-                Procedure a = alts[i];
-                alternatives.push(() -> sm.restoreState());
-                alternatives.push(() -> {
-                    statistics.incrNodes();
-                    a.call();
-                    expandNode(alternatives, statistics);
-                });
-                alternatives.push(() -> sm.saveState());
+    /**
+     * Effectively start a depth first search
+     * below the node reached by replaying some decisions.
+     * The state is restored after the search.
+     *
+     * @param decisions the index of the branch taken at each level
+     *                  to reach the root of the subproblem
+     * @param limit a predicate called at each node
+     *             that stops the search when it becomes true
+     * @return an object with the statistics on the search,
+     *         that is completed if the replay of the decisions fails
+     * @see #decompose(int)
+     */
+    public SearchStatistics solveSubproblem(int[] decisions, Predicate<SearchStatistics> limit) {
+        SearchStatistics statistics = new SearchStatistics(sm.getStatistics());
+        sm.withNewState(() -> {
+            try {
+                replay(decisions);
+            } catch (InconsistencyException e) {
+                statistics.incrFailures();
+                notifyFailure();
+                statistics.setCompleted();
+                return;
             }
-        }
+            solve(statistics, limit);
+        });
+        return statistics;
     }
 
+    // STUDENT
 
+    // BEGIN STRIP
+
+    // solution to DFS with explicit stack:
+    // a frame is the index of the next alternative and the number of alternatives at each depth,
+    // the state being saved before applying an alternative and restored after exploring it
     private void dfs2(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
-        Stack<Procedure> alternatives = new Stack<Procedure>();
-        expandNode(alternatives, statistics);
-        while (!alternatives.isEmpty()) {
+        if (limit.test(statistics)) throw new StopSearchException();
+        int n = branching.expand(0);
+        if (n == 0) {
+            // the root is a solution, that may be rejected by a tightened objective
+            try {
+                statistics.incrSolutions();
+                notifySolution();
+            } catch (InconsistencyException e) {
+                statistics.incrFailures();
+                notifyFailure();
+            }
+            return;
+        }
+        int depth = 0;
+        nextAlternative[0] = 0;
+        nAlternatives[0] = n;
+        while (depth >= 0) {
             if (limit.test(statistics)) throw new StopSearchException();
+            if (nextAlternative[depth] == nAlternatives[depth]) {
+                // every alternative of the node was explored, back to its parent
+                depth--;
+                if (depth >= 0)
+                    sm.restoreState();
+                continue;
+            }
+            int alternative = nextAlternative[depth]++;
+            sm.saveState();
+            statistics.incrNodes();
             try {
-                alternatives.pop().call();
+                branching.apply(depth, alternative);
+                n = branching.expand(depth + 1);
+                if (n == 0) {
+                    statistics.incrSolutions();
+                    notifySolution();
+                    sm.restoreState();
+                } else {
+                    depth++;
+                    if (depth == nAlternatives.length) {
+                        nextAlternative = Arrays.copyOf(nextAlternative, 2 * depth);
+                        nAlternatives = Arrays.copyOf(nAlternatives, 2 * depth);
+                    }
+                    nextAlternative[depth] = 0;
+                    nAlternatives[depth] = n;
+                }
             } catch (InconsistencyException e) {
                 statistics.incrFailures();
                 notifyFailure();
+                sm.restoreState();
             }
         }
     }
 
     // END STRIP
+
+    /**
+     * Indexed view of a branching generating closures,
+     * keeping the closures of each depth of the current node
+     * until the last of them is applied.
+     */
+    private static final class ProcedureBranching implements IndexedBranching {
+
+        private final Supplier<Procedure[]> branching;
+        private Procedure[][] branches = new Procedure[64][];
+
+        ProcedureBranching(Supplier<Procedure[]> branching) {
+            this.branching = branching;
+        }
+
+        @Override
+        public int expand(int depth) {
+            if (depth >= branches.length)
+                branches = Arrays.copyOf(branches, Math.max(2 * branches.length, depth + 1));
+            branches[depth] = branching.get();
+            return branches[depth].length;
+        }
+
+        @Override
+        public void apply(int depth, int alternative) {
+            Procedure[] alternatives = branches[depth];
+            if (alternative == alternatives.length - 1)
+                branches[depth] = null; // the level is exhausted, its closures need not be reachable any more
+            alternatives[alternative].call();
+        }
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Embarrassingly Parallel Search.
+ * The top of the search tree is decomposed into many subproblems
+ * with {@link DFSearch#decompose(int)}, each of them described
+ * by the index of the branch taken at each level.
+ * The subproblems are then solved by a pool of workers,
+ * each one owning its own model and state manager,
+ * that replay the decisions of the next unsolved subproblem
+ * and search below it.
+ * When optimizing, the best objective value is shared by the workers.
+ * The branching must be deterministic for the workers
+ * to replay the decisions of the decomposition,
+ * that are replayed under the bound enforced when decomposing
+ * before enforcing the best bound known.
+ * <p>
+ * The decomposition should give many more subproblems
+ * than workers, such that the work is balanced between them.
+ */
+public class EmbarrassinglyParallelSearch {
+
+    private final int nWorkers;
+    private final int depth;
+    private final SearchModel.Builder builder;
+    private final SharedBound bound;
+    private int nSubproblems;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param depth the depth of the decomposition
+     * @param builder the closure building the model of each worker
+     */
+    public EmbarrassinglyParallelSearch(int nWorkers, int depth, SearchModel.Builder builder) {
+        this(nWorkers, depth, builder, new SharedBound());
+    }
+
+    /**
+     * Creates a parallel search sharing a given bound.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param depth the depth of the decomposition
+     * @param builder the closure building the model of each worker
+     * @param bound the bound shared by the workers
+     */
+    public EmbarrassinglyParallelSearch(int nWorkers, int depth, SearchModel.Builder builder, SharedBound bound) {
+        if (nWorkers <= 0)
+            throw new IllegalArgumentException("at least one worker is needed");
+        this.nWorkers = nWorkers;
+        this.depth = depth;
+        this.builder = builder;
+        this.bound = bound;
+    }
+
+    /**
+     * Returns the bound shared by the workers.
+     *
+     * @return the best objective value found by the workers
+     */
+    public SharedBound getBound() {
+        return bound;
+    }
+
+    /**
+     * Returns the number of subproblems of the last decomposition.
+     *
+     * @return the number of subproblems solved by the workers
+     */
+    public int numberOfSubproblems() {
+        return nSubproblems;
+    }
+
+    /**
+     * Effectively start the search, solving every subproblem.
+     *
+     * @return the statistics aggregated over all the workers
+     */
+    public SearchStatistics solve() {
+        return solve(stats -> false);
+    }
+
+    /**
+     * Effectively start the search, solving every subproblem
+     * unless the limit is reached.
+     *
+     * @param limit a predicate called at each node of every worker,
+     *              with the statistics of the subproblem being solved,
+     *              that stops all the workers when it becomes true
+     * @return the statistics aggregated over all the workers,
+     *         completed if every subproblem was completed
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        // the model of the first worker is also used for the decomposition
+        SearchModel first = builder.build(0, bound);
+        // the subproblems are replayed under the bound of the decomposition
+        if (first.objective() != null)
+            first.objective().refresh();
+        int decompositionBound = first.objective() != null ? first.objective().bound() : 0;
+        List<int[]> subproblems = first.search().decompose(depth);
+        nSubproblems = subproblems.size();
+
+        AtomicInteger next = new AtomicInteger(0);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Predicate<SearchStatistics> workerLimit = stats -> {
+            if (stop.get())
+                return true;
+            if (limit.test(stats)) {
+                stop.set(true);
+                return true;
+            }
+            return false;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        try {
+            List<Future<SearchStatistics>> futures = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                int id = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        SearchModel model = id == 0 ? first : builder.build(id, bound);
+                        DFSearch search = model.search();
+                        Objective objective = model.objective();
+                        Predicate<SearchStatistics> subproblemLimit = workerLimit;
+                        if (objective != null) {
+                            search.onSolution(objective::tighten);
+                            subproblemLimit = stats -> {
+                                objective.refresh();
+                                return workerLimit.test(stats);
+                            };
+                        }
+                        SearchStatistics statistics = new SearchStatistics();
+                        boolean completed = true;
+                        for (int k = next.getAndIncrement(); k < subproblems.size() && !stop.get(); k = next.getAndIncrement()) {
+                            if (objective != null)
+                                objective.enforce(decompositionBound);
+                            SearchStatistics s = search.solveSubproblem(subproblems.get(k), subproblemLimit);
+                            statistics.add(s);
+                            completed &= s.isCompleted();
+                        }
+                        if (completed && !stop.get())
+                            statistics.setCompleted();
+                        return statistics;
+                    } catch (RuntimeException | Error e) {
+                        stop.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            SearchStatistics statistics = new SearchStatistics();
+            boolean completed = true;
+            for (Future<SearchStatistics> future : futures) {
+                SearchStatistics s = Portfolio.await(future);
+                statistics.add(s);
+                completed &= s.isCompleted();
+            }
+            if (completed)
+                statistics.setCompleted();
+            return statistics;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+/**
+ * Branching whose alternatives are identified by their index,
+ * allowing a search to explore the tree without allocating
+ * anything at each node.
+ * <p>
+ * The search expands a node at a given depth, then applies
+ * some of its alternatives, restoring the state of the node in between.
+ * The alternatives of a node are valid until a node
+ * at the same depth is expanded, such that a branching
+ * typically records its decision at each depth in primitive arrays.
+ *
+ * @see DFSearch#DFSearch(minicp.state.StateManager, IndexedBranching)
+ */
+public interface IndexedBranching {
+
+    /**
+     * Computes the alternatives of the current node.
+     *
+     * @param depth the depth of the node, 0 for the root
+     * @return the number of alternatives of the node, 0 if it is a solution
+     */
+    int expand(int depth);
+
+    /**
+     * Applies an alternative of the node last expanded at a given depth,
+     * from the state of that node.
+     * A {@link minicp.util.exception.InconsistencyException} is thrown
+     * if the alternative fails.
+     *
+     * @param depth the depth of the node
+     * @param alternative the index of the alternative, between 0 and
+     *                    the number of alternatives returned by {@link #expand(int)}
+     */
+    void apply(int depth, int alternative);
+}
@@ -30,4 +30,37 @@ public interface Objective {
      * the next found solution is better.
      */
     void tighten();
+
+    /**
+     * Method called at each node of the search
+     * to enforce the best bound known, including the ones
+     * found by other searches sharing it.
+     * Does nothing by default.
+     */
+    default void refresh() {
+    }
+
+    /**
+     * Returns the bound enforced at each fix-point.
+     * A parallel search records it together with its decisions,
+     * such that replaying them under the same bound
+     * gives the same nodes.
+     * An objective that enforces no bound returns {@link Integer#MAX_VALUE}.
+     *
+     * @return the bound enforced on the objective
+     */
+    default int bound() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Enforces a given bound until the next {@link #refresh()},
+     * possibly weaker than the best one known.
+     * Does nothing by default.
+     *
+     * @param bound the bound to enforce at each fix-point
+     * @see #bound()
+     */
+    default void enforce(int bound) {
+    }
 }
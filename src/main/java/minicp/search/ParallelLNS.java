@@ -0,0 +1,236 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Large Neighborhood Search with several workers
+ * relaxing the same incumbent concurrently, for a minimization problem.
+ * Each worker owns its model and repeatedly relaxes the best solution
+ * of a shared {@link SolutionStore}, with its own random generator,
+ * before searching the neighborhood with a failure limit.
+ * Every improving solution is published to the store, and its objective
+ * value to the bound shared by the objectives of the workers.
+ * A worker whose neighborhood was built on an outdated incumbent
+ * gives it up at the next node and relaxes the new one instead.
+ * <p>
+ * Until a first solution is known, the workers search their
+ * whole model without relaxing anything, all of them stopping
+ * if one completes this search.
+ */
+public class ParallelLNS {
+
+    /**
+     * Model of a worker, built in the thread of the worker.
+     */
+    public interface Model {
+
+        DFSearch search();
+
+        /**
+         * Returns the objective of the model, created with
+         * {@link minicp.engine.core.Solver#minimize(minicp.engine.core.IntVar, SharedBound)}
+         * on the bound given to the builder.
+         *
+         * @return the objective to minimize
+         */
+        Objective objective();
+
+        /**
+         * Returns the objective value of the current solution,
+         * called on each solution found.
+         *
+         * @return the value of the objective
+         */
+        int objectiveValue();
+
+        /**
+         * Returns the values of the current solution,
+         * called on each solution found.
+         *
+         * @return a new array with the values of the solution
+         */
+        int[] solution();
+
+        /**
+         * Restricts the model around a solution,
+         * typically by fixing part of its variables to their value in it.
+         * A {@link minicp.util.exception.InconsistencyException} may be thrown.
+         *
+         * @param solution the values of the incumbent solution
+         * @param random the random generator of the worker
+         */
+        void relax(int[] solution, Random random);
+    }
+
+    /**
+     * Closure building the model of a worker.
+     */
+    @FunctionalInterface
+    public interface Builder {
+        /**
+         * Builds a solver and its model.
+         *
+         * @param id the index of the worker
+         * @param bound the bound shared by all the workers
+         * @return the model of the worker
+         */
+        Model build(int id, SharedBound bound);
+    }
+
+    private final int nWorkers;
+    private final int failureLimit;
+    private final Builder builder;
+    private final SharedBound bound = new SharedBound();
+    private final SolutionStore store = new SolutionStore();
+    private long seed = 0;
+
+    /**
+     * Creates a parallel large neighborhood search.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param failureLimit the maximum number of failures when searching a neighborhood
+     * @param builder the closure building the model of each worker
+     */
+    public ParallelLNS(int nWorkers, int failureLimit, Builder builder) {
+        if (nWorkers <= 0)
+            throw new IllegalArgumentException("at least one worker is needed");
+        this.nWorkers = nWorkers;
+        this.failureLimit = failureLimit;
+        this.builder = builder;
+    }
+
+    /**
+     * Sets the seed of the random generators,
+     * the worker {@code i} using {@code seed + i}.
+     *
+     * @param seed the seed of the first worker
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the store of the best solution.
+     *
+     * @return the best solution found by the workers
+     */
+    public SolutionStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the bound shared by the objectives of the workers.
+     *
+     * @return the best objective value found by the workers
+     */
+    public SharedBound getBound() {
+        return bound;
+    }
+
+    /**
+     * Runs the workers until the limit is reached.
+     *
+     * @param limit a predicate called by each worker before each neighborhood,
+     *              and at each node while no solution is known,
+     *              with the statistics aggregated over all its neighborhoods,
+     *              that stops all the workers when it becomes true
+     * @return the best solution found, null if none was found
+     */
+    public SolutionStore.Incumbent solve(Predicate<SearchStatistics> limit) {
+        AtomicBoolean stop = new AtomicBoolean(false);
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        try {
+            List<Future<SearchStatistics>> futures = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                int id = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        return run(id, stop, limit);
+                    } catch (RuntimeException | Error e) {
+                        stop.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            for (Future<SearchStatistics> future : futures)
+                Portfolio.await(future);
+            return store.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SearchStatistics run(int id, AtomicBoolean stop, Predicate<SearchStatistics> limit) {
+        Model model = builder.build(id, bound);
+        DFSearch search = model.search();
+        Objective objective = model.objective();
+        Random random = new Random(seed + id);
+        // version of the incumbent the current neighborhood is built on, or published by this worker since
+        int[] expectedVersion = new int[1];
+        search.onSolution(() -> {
+            SolutionStore.Incumbent improved = store.publish(model.solution(), model.objectiveValue());
+            if (improved != null && expectedVersion[0] == improved.version() - 1)
+                expectedVersion[0] = improved.version();
+        });
+        search.onSolution(objective::tighten);
+
+        SearchStatistics statistics = new SearchStatistics();
+        if (store.get() == null && !stop.get()) {
+            // no solution yet, looks for a first one before relaxing anything
+            // the first solution may take long to find: the limit is also tested at each node,
+            // on the statistics of this search that are the only ones of the worker so far
+            SearchStatistics first = search.solveSubjectTo(stats -> {
+                objective.refresh();
+                if (stop.get() || store.get() != null)
+                    return true;
+                if (limit.test(stats)) {
+                    stop.set(true);
+                    return true;
+                }
+                return false;
+            }, () -> {});
+            if (first.isCompleted())
+                stop.set(true); // the whole search space was explored
+            statistics.add(first);
+        }
+        // the first search stops the workers unless a solution is known
+        while (!stop.get()) {
+            if (limit.test(statistics)) {
+                stop.set(true);
+                break;
+            }
+            SolutionStore.Incumbent incumbent = store.get();
+            expectedVersion[0] = incumbent.version();
+            SearchStatistics neighborhood = search.solveSubjectTo(stats -> {
+                objective.refresh();
+                return stop.get()
+                        || stats.numberOfFailures() >= failureLimit
+                        || store.version() != expectedVersion[0]; // outdated incumbent
+            }, () -> model.relax(incumbent.solution(), random));
+            statistics.add(neighborhood);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Portfolio of independent searches running in parallel,
+ * one thread per worker.
+ * Each worker builds its own solver and model, typically with
+ * its own seed or branching, and minimizes its objective with
+ * {@link minicp.engine.core.Solver#minimize(minicp.engine.core.IntVar, SharedBound)}
+ * on the bound shared by the portfolio.
+ * Whenever a worker finds a better solution, the objective
+ * of every other worker is tightened at its next fix-point.
+ * The portfolio stops as soon as one of the workers completes its search.
+ *
+ * <pre>
+ * Portfolio portfolio = new Portfolio(nWorkers, (id, bound, limit) -&gt; {
+ *     Solver cp = makeSolver();
+ *     IntVar[] x = ...;
+ *     Objective obj = cp.minimize(objVar, bound);
+ *     DFSearch dfs = makeDfs(cp, randomBranching(x, new Random(id)));
+ *     return dfs.optimize(obj, limit);
+ * });
+ * portfolio.solve();
+ * int best = portfolio.getBound().get();
+ * </pre>
+ */
+public class Portfolio {
+
+    /**
+     * Closure building and solving the model of a worker,
+     * executed in the thread of the worker.
+     */
+    @FunctionalInterface
+    public interface Worker {
+        /**
+         * Builds a model and searches it.
+         *
+         * @param id the index of the worker, can be used as a seed
+         * @param bound the bound shared by all the workers
+         * @param limit the limit to give to the search, true once the portfolio is stopped
+         * @return the statistics of the search
+         */
+        SearchStatistics run(int id, SharedBound bound, Predicate<SearchStatistics> limit);
+    }
+
+    private final int nWorkers;
+    private final Worker worker;
+    private final SharedBound bound;
+
+    /**
+     * Creates a portfolio of workers.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param worker the closure building and solving the model of each worker
+     */
+    public Portfolio(int nWorkers, Worker worker) {
+        this(nWorkers, worker, new SharedBound());
+    }
+
+    /**
+     * Creates a portfolio of workers sharing a given bound.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param worker the closure building and solving the model of each worker
+     * @param bound the bound shared by the workers
+     */
+    public Portfolio(int nWorkers, Worker worker, SharedBound bound) {
+        if (nWorkers <= 0)
+            throw new IllegalArgumentException("at least one worker is needed");
+        this.nWorkers = nWorkers;
+        this.worker = worker;
+        this.bound = bound;
+    }
+
+    /**
+     * Returns the bound shared by the workers.
+     *
+     * @return the best objective value found by the portfolio
+     */
+    public SharedBound getBound() {
+        return bound;
+    }
+
+    /**
+     * Runs all the workers until one of them completes its search.
+     *
+     * @return the statistics of each worker
+     */
+    public SearchStatistics[] solve() {
+        return solve(stats -> false);
+    }
+
+    /**
+     * Runs all the workers until one of them completes its search
+     * or the limit of the workers is reached.
+     *
+     * @param limit a predicate called at each node of every worker,
+     *              with the statistics of that worker,
+     *              that stops the whole portfolio when it becomes true
+     * @return the statistics of each worker
+     */
+    public SearchStatistics[] solve(Predicate<SearchStatistics> limit) {
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Predicate<SearchStatistics> workerLimit = stats -> {
+            if (stop.get())
+                return true;
+            if (limit.test(stats)) {
+                stop.set(true);
+                return true;
+            }
+            return false;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        try {
+            List<Future<SearchStatistics>> futures = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                int id = i;
+                futures.add(executor.submit(() -> {
+                    try {
+                        SearchStatistics stats = worker.run(id, bound, workerLimit);
+                        if (stats.isCompleted())
+                            stop.set(true);
+                        return stats;
+                    } catch (RuntimeException | Error e) {
+                        stop.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            SearchStatistics[] statistics = new SearchStatistics[nWorkers];
+            for (int i = 0; i < nWorkers; i++)
+                statistics[i] = await(futures.get(i));
+            return statistics;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+}
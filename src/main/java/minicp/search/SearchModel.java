@@ -0,0 +1,78 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+/**
+ * Search built by a worker of a parallel search on its own solver,
+ * together with the objective to optimize, if any.
+ */
+public class SearchModel {
+
+    /**
+     * Closure building the model of a worker,
+     * executed once for each worker.
+     */
+    @FunctionalInterface
+    public interface Builder {
+        /**
+         * Builds a solver, its model and its search.
+         * When optimizing, the objective should be created with
+         * {@link minicp.engine.core.Solver#minimize(minicp.engine.core.IntVar, SharedBound)}
+         * on the given bound.
+         *
+         * @param id the index of the worker
+         * @param bound the bound shared by all the workers
+         * @return the search of the worker and its objective
+         */
+        SearchModel build(int id, SharedBound bound);
+    }
+
+    private final DFSearch search;
+    private final Objective objective;
+
+    /**
+     * Creates a model looking for every solution.
+     *
+     * @param search the search of the model
+     */
+    public SearchModel(DFSearch search) {
+        this(search, null);
+    }
+
+    /**
+     * Creates a model to optimize.
+     *
+     * @param search the search of the model
+     * @param objective the objective tightened on each solution
+     */
+    public SearchModel(DFSearch search, Objective objective) {
+        this.search = search;
+        this.objective = objective;
+    }
+
+    public DFSearch search() {
+        return search;
+    }
+
+    /**
+     * Returns the objective of the model.
+     *
+     * @return the objective, null if every solution is looked for
+     */
+    public Objective objective() {
+        return objective;
+    }
+}
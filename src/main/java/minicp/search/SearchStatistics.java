@@ -15,6 +15,8 @@
 
 package minicp.search;
 
+import minicp.state.StateStatistics;
+
 /**
  * Statistics collected during the
  * execution of
@@ -27,12 +29,30 @@ public class SearchStatistics {
     private int nNodes = 0;
     private int nSolutions = 0;
     private boolean completed = false;
+    private final StateStatistics stateStatistics;
+
+    public SearchStatistics() {
+        this(null);
+    }
+
+    /**
+     * Creates the statistics of a search.
+     *
+     * @param stateStatistics the statistics of the state manager used by the search,
+     *                        included in the description if they are enabled
+     */
+    public SearchStatistics(StateStatistics stateStatistics) {
+        this.stateStatistics = stateStatistics;
+    }
 
     public String toString() {
-        return "\n\t#choice: " + nNodes
+        String s = "\n\t#choice: " + nNodes
                 + "\n\t#fail: " + nFailures
                 + "\n\t#sols : " + nSolutions
                 + "\n\tcompleted : " + completed + "\n";
+        if (stateStatistics != null && stateStatistics.isEnabled())
+            s += stateStatistics.toString().substring(1);
+        return s;
     }
 
     public void incrFailures() {
@@ -47,6 +67,18 @@ public class SearchStatistics {
         nSolutions++;
     }
 
+    /**
+     * Adds the counters of another search to these statistics,
+     * typically to aggregate the statistics of parallel searches.
+     *
+     * @param other the statistics to add
+     */
+    public void add(SearchStatistics other) {
+        nFailures += other.nFailures;
+        nNodes += other.nNodes;
+        nSolutions += other.nSolutions;
+    }
+
     public void setCompleted() {
         completed = true;
     }
@@ -67,4 +99,13 @@ public class SearchStatistics {
         return completed;
     }
 
+    /**
+     * Returns the statistics of the state manager used by the search.
+     *
+     * @return the statistics on the saved and restored states, null if unknown
+     */
+    public StateStatistics stateStatistics() {
+        return stateStatistics;
+    }
+
 }
@@ -0,0 +1,73 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Best objective value shared by the workers of a parallel search.
+ * The value is a minimization bound that only decreases,
+ * it is updated without lock with a compare-and-set
+ * so that any worker can read it at each fix-point.
+ *
+ * @see minicp.engine.core.Solver#minimize(minicp.engine.core.IntVar, SharedBound)
+ */
+public class SharedBound {
+
+    private final AtomicInteger best;
+
+    /**
+     * Creates a bound without any known solution.
+     */
+    public SharedBound() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a bound with an initial best value.
+     *
+     * @param initial the value of the best known solution
+     */
+    public SharedBound(int initial) {
+        best = new AtomicInteger(initial);
+    }
+
+    /**
+     * Returns the best objective value found so far.
+     *
+     * @return the best value, {@link Integer#MAX_VALUE} if no solution is known
+     */
+    public int get() {
+        return best.get();
+    }
+
+    /**
+     * Publishes the value of a new solution.
+     *
+     * @param value the objective value of the solution
+     * @return true if the value is strictly better than the best one
+     *         and became the new best value
+     */
+    public boolean improve(int value) {
+        int current = best.get();
+        while (value < current) {
+            if (best.compareAndSet(current, value))
+                return true;
+            current = best.get();
+        }
+        return false;
+    }
+}
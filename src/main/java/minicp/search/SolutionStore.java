@@ -0,0 +1,108 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Best solution shared by the workers of a parallel search,
+ * for a minimization problem.
+ * Each new best solution is stored with a new version number,
+ * such that a worker can check cheaply whether
+ * the solution it started from is outdated.
+ * The store is updated without lock with a compare-and-set.
+ */
+public class SolutionStore {
+
+    /**
+     * Immutable solution of the store.
+     */
+    public static final class Incumbent {
+
+        private final int version;
+        private final int[] solution;
+        private final int objective;
+
+        private Incumbent(int version, int[] solution, int objective) {
+            this.version = version;
+            this.solution = solution;
+            this.objective = objective;
+        }
+
+        /**
+         * Returns the version of the solution,
+         * incremented each time the store is improved.
+         *
+         * @return the version of the solution, starting from 1
+         */
+        public int version() {
+            return version;
+        }
+
+        /**
+         * Returns the values of the solution.
+         * The array must not be modified.
+         *
+         * @return the values of the solution
+         */
+        public int[] solution() {
+            return solution;
+        }
+
+        public int objective() {
+            return objective;
+        }
+    }
+
+    private final AtomicReference<Incumbent> best = new AtomicReference<>();
+
+    /**
+     * Returns the best solution published so far.
+     *
+     * @return the best solution, null if none was published
+     */
+    public Incumbent get() {
+        return best.get();
+    }
+
+    /**
+     * Returns the version of the best solution.
+     *
+     * @return the version of the best solution, 0 if none was published
+     */
+    public int version() {
+        Incumbent incumbent = best.get();
+        return incumbent == null ? 0 : incumbent.version;
+    }
+
+    /**
+     * Publishes a solution if it is strictly better than the best one.
+     *
+     * @param solution the values of the solution, that must not be modified afterwards
+     * @param objective the objective value of the solution
+     * @return the new incumbent if the solution is stored, null otherwise
+     */
+    public Incumbent publish(int[] solution, int objective) {
+        Incumbent current = best.get();
+        while (current == null || objective < current.objective) {
+            Incumbent improved = new Incumbent(current == null ? 1 : current.version + 1, solution, objective);
+            if (best.compareAndSet(current, improved))
+                return improved;
+            current = best.get();
+        }
+        return null;
+    }
+}
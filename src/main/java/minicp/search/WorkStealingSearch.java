@@ -0,0 +1,408 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.state.StateManager;
+import minicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Parallel depth first search balancing the work by stealing.
+ * Each worker explores its part of the tree depth first on its own model
+ * and keeps, for each level, the index of the branch taken
+ * and the next alternative left to explore.
+ * An idle worker steals the oldest open alternative of another worker,
+ * that is the one closest to the root, as the list of the branch indices
+ * leading to it, and replays these decisions on its own model
+ * with {@link DFSearch#replay(int[])}.
+ * When optimizing, the best objective value is shared by the workers,
+ * and each decision also records the bound of the objective under which it was taken,
+ * such that a thief reaches the very same node as its victim.
+ * The branching must be deterministic for the workers
+ * to replay the decisions of each other.
+ *
+ * @see EmbarrassinglyParallelSearch for a static decomposition
+ */
+public class WorkStealingSearch {
+
+    // an idle worker sleeps between its attempts to steal, twice longer each time up to a bound
+    private static final long MIN_IDLE_NANOS = 1_000L;
+    private static final long MAX_IDLE_NANOS = 1_000_000L;
+
+    private final int nWorkers;
+    private final SearchModel.Builder builder;
+    private final SharedBound bound;
+
+    /**
+     * Creates a parallel search.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param builder the closure building the model of each worker
+     */
+    public WorkStealingSearch(int nWorkers, SearchModel.Builder builder) {
+        this(nWorkers, builder, new SharedBound());
+    }
+
+    /**
+     * Creates a parallel search sharing a given bound.
+     *
+     * @param nWorkers the number of workers, each of them running in its own thread
+     * @param builder the closure building the model of each worker
+     * @param bound the bound shared by the workers
+     */
+    public WorkStealingSearch(int nWorkers, SearchModel.Builder builder, SharedBound bound) {
+        if (nWorkers <= 0)
+            throw new IllegalArgumentException("at least one worker is needed");
+        this.nWorkers = nWorkers;
+        this.builder = builder;
+        this.bound = bound;
+    }
+
+    /**
+     * Returns the bound shared by the workers.
+     *
+     * @return the best objective value found by the workers
+     */
+    public SharedBound getBound() {
+        return bound;
+    }
+
+    /**
+     * Effectively start the search, exploring the whole tree.
+     *
+     * @return the statistics aggregated over all the workers
+     */
+    public SearchStatistics solve() {
+        return solve(stats -> false);
+    }
+
+    /**
+     * Effectively start the search, exploring the whole tree
+     * unless the limit is reached.
+     *
+     * @param limit a predicate called at each node of every worker,
+     *              with the statistics of that worker,
+     *              that stops all the workers when it becomes true
+     * @return the statistics aggregated over all the workers,
+     *         completed if the whole tree was explored
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        Worker[] workers = new Worker[nWorkers];
+        for (int i = 0; i < nWorkers; i++)
+            workers[i] = new Worker(i);
+        // only the first worker has some work to do at the beginning
+        AtomicInteger nIdle = new AtomicInteger(nWorkers - 1);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Predicate<SearchStatistics> workerLimit = stats -> {
+            if (stop.get())
+                return true;
+            if (limit.test(stats)) {
+                stop.set(true);
+                return true;
+            }
+            return false;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        try {
+            List<Future<SearchStatistics>> futures = new ArrayList<>(nWorkers);
+            for (Worker w : workers) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return w.run(workers, nIdle, stop, workerLimit);
+                    } catch (RuntimeException | Error e) {
+                        stop.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            SearchStatistics statistics = new SearchStatistics();
+            for (Future<SearchStatistics> future : futures)
+                statistics.add(Portfolio.await(future));
+            if (!stop.get())
+                statistics.setCompleted();
+            return statistics;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Decisions leading to an alternative given to a thief
+     */
+    private static final class Path {
+        final int[] branches; // index of the branch taken at each level, the last one is the alternative
+        final int[] bounds;   // bound of the objective enforced when taking each branch
+
+        Path(int[] branches, int[] bounds) {
+            this.branches = branches;
+            this.bounds = bounds;
+        }
+    }
+
+    private class Worker {
+
+        private final int id;
+        private final SearchStatistics statistics = new SearchStatistics();
+        private DFSearch search;
+        private Objective objective;
+        private StateManager sm;
+        private IndexedBranching branching;
+
+        // decisions of the current node, guarded by this worker as they are read by the thieves
+        private int[] path = new int[32];   // index of the branch taken at each level
+        private int[] bounds = new int[32]; // bound of the objective enforced when taking each branch
+        private int[] next = new int[32];   // index of the next alternative to explore at each level
+        private int[] count = new int[32];  // number of branches at each level
+        private int base = 0;               // the levels below base are the decisions stolen by this worker
+        private int depth = 0;              // number of levels of the current node
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        SearchStatistics run(Worker[] workers, AtomicInteger nIdle, AtomicBoolean stop,
+                             Predicate<SearchStatistics> limit) {
+            SearchModel model = builder.build(id, bound);
+            search = model.search();
+            objective = model.objective();
+            sm = search.getStateManager();
+            branching = search.getBranching();
+            if (objective != null)
+                search.onSolution(objective::tighten);
+            Path task = id == 0 ? new Path(new int[0], new int[0]) : null;
+            long idleNanos = MIN_IDLE_NANOS;
+            while (!stop.get()) {
+                if (task != null) {
+                    try {
+                        explore(task, limit);
+                    } catch (StopSearchException e) {
+                        break;
+                    }
+                    task = null;
+                    nIdle.incrementAndGet();
+                }
+                // looks for some work in the other workers
+                for (int k = 1; k < workers.length && task == null; k++)
+                    task = workers[(id + k) % workers.length].steal(nIdle);
+                if (task == null) {
+                    if (nIdle.get() == workers.length)
+                        break;
+                    LockSupport.parkNanos(idleNanos);
+                    idleNanos = Math.min(2 * idleNanos, MAX_IDLE_NANOS);
+                } else
+                    idleNanos = MIN_IDLE_NANOS;
+            }
+            return statistics;
+        }
+
+        /**
+         * Gives the oldest open alternative of this worker to a thief.
+         * The thief is considered active as soon as it gets the alternative.
+         *
+         * @return the decisions leading to the alternative, null if there is none
+         */
+        synchronized Path steal(AtomicInteger nIdle) {
+            for (int level = base; level < depth; level++) {
+                if (next[level] < count[level]) {
+                    Path stolen = new Path(Arrays.copyOf(path, level + 1), Arrays.copyOf(bounds, level + 1));
+                    stolen.branches[level] = next[level]++;
+                    nIdle.decrementAndGet();
+                    return stolen;
+                }
+            }
+            return null;
+        }
+
+        private synchronized void reset(Path task) {
+            int n = task.branches.length;
+            if (n > path.length)
+                grow(n);
+            System.arraycopy(task.branches, 0, path, 0, n);
+            System.arraycopy(task.bounds, 0, bounds, 0, n);
+            if (n > 0 && objective != null)
+                bounds[n - 1] = objective.bound();
+            base = depth = n;
+        }
+
+        private synchronized void push(int nAlternatives) {
+            if (depth == path.length)
+                grow(2 * depth);
+            next[depth] = 0;
+            count[depth] = nAlternatives;
+            depth++;
+        }
+
+        /**
+         * Takes the next alternative of a level,
+         * or removes the level if all its alternatives were taken.
+         *
+         * @param bound the bound of the objective enforced when applying the alternative
+         * @return the index of the alternative, -1 if the level was removed
+         */
+        private synchronized int take(int level, int bound) {
+            if (next[level] < count[level]) {
+                path[level] = next[level];
+                bounds[level] = bound;
+                return next[level]++;
+            }
+            depth--;
+            return -1;
+        }
+
+        private void grow(int size) {
+            path = Arrays.copyOf(path, size);
+            bounds = Arrays.copyOf(bounds, size);
+            next = Arrays.copyOf(next, size);
+            count = Arrays.copyOf(count, size);
+        }
+
+        /**
+         * Replays the decisions of a task.
+         * The nodes above the alternative are the ones of the victim,
+         * they are reached under the bounds it enforced.
+         * The alternative itself is a new node, applied under the best bound known.
+         *
+         * @throws InconsistencyException if the alternative fails
+         * @throws IllegalStateException if the decisions above the alternative
+         *         do not lead to the node of the victim
+         */
+        private void replay(Path task) {
+            int n = task.branches.length;
+            for (int level = 0; level < n; level++) {
+                boolean alternative = level == n - 1;
+                try {
+                    int nAlternatives = branching.expand(level);
+                    if (nAlternatives <= task.branches[level])
+                        throw new IllegalStateException("the branching gives " + nAlternatives
+                                + " alternatives at level " + level + " instead of at least " + (task.branches[level] + 1)
+                                + " when replaying a stolen task");
+                    if (objective != null) {
+                        if (alternative)
+                            objective.refresh();
+                        else
+                            objective.enforce(task.bounds[level]);
+                    }
+                    if (alternative)
+                        statistics.incrNodes();
+                    branching.apply(level, task.branches[level]);
+                } catch (InconsistencyException e) {
+                    if (alternative)
+                        throw e;
+                    throw new IllegalStateException("the decision at level " + level
+                            + " fails when replaying a stolen task", e);
+                }
+            }
+        }
+
+        /**
+         * Explores depth first the subtree reached by some decisions.
+         */
+        private void explore(Path task, Predicate<SearchStatistics> limit) {
+            int rootLevel = sm.getLevel();
+            sm.saveState();
+            try {
+                try {
+                    replay(task);
+                } catch (InconsistencyException e) {
+                    statistics.incrFailures();
+                    search.notifyFailure();
+                    return;
+                }
+                reset(task);
+                boolean root = true;
+                while (true) {
+                    if (limit.test(statistics))
+                        throw new StopSearchException();
+                    boolean leaf;
+                    try {
+                        int nAlternatives = branching.expand(depth);
+                        leaf = nAlternatives == 0;
+                        if (leaf) {
+                            statistics.incrSolutions();
+                            search.notifySolution();
+                        } else {
+                            push(nAlternatives);
+                        }
+                    } catch (InconsistencyException e) {
+                        statistics.incrFailures();
+                        search.notifyFailure();
+                        leaf = true;
+                    }
+                    if (leaf) {
+                        if (root)
+                            return;
+                        sm.restoreState();
+                    }
+                    root = false;
+                    if (!applyNextAlternative())
+                        return;
+                }
+            } finally {
+                synchronized (this) {
+                    base = depth = 0;
+                }
+                sm.restoreStateUntil(rootLevel);
+            }
+        }
+
+        /**
+         * Backtracks to the deepest level with an alternative left
+         * and applies it successfully.
+         * The best bound known is enforced before applying it.
+         *
+         * @return false if all the alternatives of the task were explored
+         */
+        private boolean applyNextAlternative() {
+            while (depth > base) {
+                int level = depth - 1;
+                int bound = 0;
+                if (objective != null) {
+                    objective.refresh();
+                    bound = objective.bound();
+                }
+                int i = take(level, bound);
+                if (i < 0) {
+                    // the node of the removed level was reached by an alternative of the level above
+                    if (level > base)
+                        sm.restoreState();
+                    continue;
+                }
+                sm.saveState();
+                statistics.incrNodes();
+                try {
+                    branching.apply(level, i);
+                    return true;
+                } catch (InconsistencyException e) {
+                    statistics.incrFailures();
+                    search.notifyFailure();
+                    sm.restoreState();
+                }
+            }
+            return false;
+        }
+    }
+}
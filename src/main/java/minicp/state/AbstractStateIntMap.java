@@ -0,0 +1,254 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing with linear probing over state arrays,
+ * shared by the reversible maps with int keys.
+ * The status and the key of each slot are stored in {@link StateIntArray},
+ * the values in a state array of type {@code V} provided by the subclass,
+ * such that each slot is saved independently.
+ * <p>
+ * The table is rebuilt when the free slots run out:
+ * in place if its capacity suffices for the entries,
+ * otherwise into a new table twice as large.
+ * A table discarded by a restoration is not referenced
+ * by the state manager anymore and can be garbage collected.
+ *
+ * @param <V> the type of the state array storing the values
+ */
+abstract class AbstractStateIntMap<V> {
+
+    private static final int FREE = 0;
+    private static final int USED = 1;
+    private static final int DELETED = 2;
+
+    final class Table {
+        private final int mask;
+        private final StateIntArray status;
+        private final StateIntArray keys;
+        final V values;
+
+        Table(int capacity) {
+            mask = capacity - 1;
+            status = sm.makeStateIntArray(capacity, FREE);
+            keys = sm.makeStateIntArray(capacity, 0);
+            values = makeValues(sm, capacity);
+        }
+
+        /**
+         * Looks for the slot of a key.
+         *
+         * @param key the key to look for
+         * @return the slot of the key if it is in the table,
+         *         {@code -slot-1} with the slot where it can be inserted otherwise
+         */
+        int find(int key) {
+            int firstDeleted = -1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                int s = status.get(slot);
+                if (s == FREE)
+                    return -(firstDeleted >= 0 ? firstDeleted : slot) - 1;
+                if (s == DELETED) {
+                    if (firstDeleted < 0)
+                        firstDeleted = slot;
+                } else if (keys.get(slot) == key) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    private final StateManager sm;
+    private final State<Table> table;
+    private final StateInt size;
+    private final StateInt nUsed; // number of slots that are not free (used or deleted)
+
+    // entries buffered when rebuilding a table in place
+    private int[] bufferKeys = new int[0];
+    private long[] bufferValues = new long[0];
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sm the state manager that will save and restore the map
+     * @param expectedSize the number of entries that can be put before the table grows
+     */
+    AbstractStateIntMap(StateManager sm, int expectedSize) {
+        this.sm = sm;
+        int capacity = 16;
+        while (capacity * 3 < expectedSize * 4)
+            capacity *= 2;
+        table = sm.makeStateRef(new Table(capacity));
+        size = sm.makeStateInt(0);
+        nUsed = sm.makeStateInt(0);
+    }
+
+    /**
+     * Creates the state array storing the values of a table.
+     *
+     * @param sm the state manager of the map
+     * @param capacity the number of slots of the table
+     * @return a state array of the given length
+     */
+    abstract V makeValues(StateManager sm, int capacity);
+
+    abstract long getValue(V values, int slot);
+
+    abstract void setValue(V values, int slot, long value);
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Rebuilds the table with only the used entries,
+     * twice as large if it is more than half full.
+     */
+    private void rehash() {
+        Table old = table.value();
+        int n = size.value();
+        if (bufferKeys.length < n) {
+            bufferKeys = new int[old.mask + 1];
+            bufferValues = new long[old.mask + 1];
+        }
+        int k = 0;
+        for (int slot = 0; slot <= old.mask; slot++) {
+            if (old.status.get(slot) == USED) {
+                bufferKeys[k] = old.keys.get(slot);
+                bufferValues[k] = getValue(old.values, slot);
+                k++;
+            }
+        }
+        int capacity = old.mask + 1;
+        Table t = old;
+        if (n * 2 >= capacity)
+            t = new Table(capacity * 2);
+        else
+            t.status.fill(0, capacity, FREE);
+        for (int i = 0; i < n; i++) {
+            int slot = -t.find(bufferKeys[i]) - 1;
+            t.status.set(slot, USED);
+            t.keys.set(slot, bufferKeys[i]);
+            setValue(t.values, slot, bufferValues[i]);
+        }
+        table.setValue(t);
+        nUsed.setValue(n);
+    }
+
+    /**
+     * Returns the slot where the value of a key is stored,
+     * inserting the key if it is not in the map.
+     *
+     * @param key the key
+     * @return the slot of the key in the current table
+     */
+    final int insert(int key) {
+        Table t = table.value();
+        int slot = t.find(key);
+        if (slot >= 0)
+            return slot;
+        slot = -slot - 1;
+        if (t.status.get(slot) == FREE) {
+            // a deleted slot is reused without consuming a free one
+            if ((nUsed.value() + 1) * 4 > (t.mask + 1) * 3) {
+                rehash();
+                t = table.value();
+                slot = -t.find(key) - 1;
+            }
+            nUsed.increment();
+        }
+        t.status.set(slot, USED);
+        t.keys.set(slot, key);
+        size.increment();
+        return slot;
+    }
+
+    /**
+     * Returns the slot of a key.
+     *
+     * @param key the key
+     * @return the slot of the key in the current table, negative if it is not in the map
+     */
+    final int slotOf(int key) {
+        return table.value().find(key);
+    }
+
+    final V values() {
+        return table.value().values;
+    }
+
+    /**
+     * Checks if the map contains a key.
+     *
+     * @param key the key
+     * @return true if an entry (key,v) is in the map
+     */
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Removes the entry of a key.
+     *
+     * @param key the key
+     * @return true if the entry was in the map, false otherwise
+     */
+    public boolean remove(int key) {
+        Table t = table.value();
+        int slot = t.find(key);
+        if (slot < 0)
+            return false;
+        t.status.set(slot, DELETED);
+        size.decrement();
+        return true;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return the size of the map
+     */
+    public int size() {
+        return size.value();
+    }
+
+    /**
+     * Checks if the map is empty
+     *
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size.value() == 0;
+    }
+
+    @Override
+    public String toString() {
+        Table t = table.value();
+        StringBuilder b = new StringBuilder("{");
+        for (int slot = 0; slot <= t.mask; slot++) {
+            if (t.status.get(slot) == USED) {
+                if (b.length() > 1)
+                    b.append(", ");
+                b.append(t.keys.get(slot)).append('=').append(getValue(t.values, slot));
+            }
+        }
+        return b.append('}').toString();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * A level of a {@link StateManager} marked such that
+ * the state can be rewound to it any number of times.
+ *
+ * @see StateManager#checkpoint(String)
+ * @see StateManager#rewind(Checkpoint)
+ */
+public final class Checkpoint {
+
+    private final String name;
+    private final int level;
+    private long levelId; // identifier of the level created by the checkpoint or its last rewind
+
+    Checkpoint(String name, int level, long levelId) {
+        this.name = name;
+        this.level = level;
+        this.levelId = levelId;
+    }
+
+    /**
+     * Tells if the level created by this checkpoint is still there.
+     * A level later saved at the same depth has another identifier,
+     * so it is not mistaken for it.
+     *
+     * @param sm the state manager of the checkpoint
+     * @return true if the state manager can be rewound to the checkpoint
+     */
+    boolean isActive(StateManager sm) {
+        return level <= sm.getLevel() && sm.getLevelId(level) == levelId;
+    }
+
+    /**
+     * Marks the level just saved by a rewind as the one of this checkpoint.
+     *
+     * @param levelId the identifier of that level
+     */
+    void renew(long levelId) {
+        this.levelId = levelId;
+    }
+
+    /**
+     * Returns the name given to this checkpoint.
+     *
+     * @return the name of the checkpoint
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the level of the state manager created by this checkpoint.
+     *
+     * @return the level created by {@link StateManager#checkpoint(String)}
+     */
+    public int level() {
+        return level;
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint " + name + " (level " + level + ")";
+    }
+}
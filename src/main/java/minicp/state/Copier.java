@@ -30,8 +30,10 @@ public class Copier implements StateManager {
 
     class Backup extends Stack<StateEntry> {
         private int sz;
+        private final long id; // identifier of the level
 
         Backup() {
+            id = ++nSaves;
             sz = store.size();
             for (Storage s : store)
                 add(s.save());
@@ -48,6 +50,10 @@ public class Copier implements StateManager {
     private Stack<Backup> prior;
     private List<Procedure> onRestoreListeners;
 
+    private final StateStatistics statistics = new StateStatistics();
+    private long nEntries; // number of entries in the backups
+    private long nSaves;   // number of calls to saveState()
+
     public Copier() {
         store = new Stack<Storage>();
         prior = new Stack<Backup>();
@@ -74,14 +80,39 @@ public class Copier implements StateManager {
         return store.size();
     }
 
+    @Override
+    public long getLevelId(int level) {
+        return prior.get(level).id;
+    }
+
+    @Override
+    public StateStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void saveState() {
-        prior.add(new Backup());
+        long start = statistics.isEnabled() ? System.nanoTime() : 0;
+        Backup backup = new Backup();
+        prior.add(backup);
+        nEntries += backup.size();
+        if (statistics.isEnabled())
+            statistics.recordSave(System.nanoTime() - start, nEntries, nEntries * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES);
     }
 
     @Override
     public void restoreState() {
-        prior.pop().restore();
+        boolean enabled = statistics.isEnabled();
+        long start = enabled ? System.nanoTime() : 0;
+        long entriesBefore = nEntries;
+        Backup backup = prior.pop();
+        backup.restore();
+        nEntries -= backup.size();
+        if (enabled) {
+            statistics.recordLevel(getLevel() + 1, backup.size());
+            statistics.recordRestore(1, System.nanoTime() - start, entriesBefore, entriesBefore * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES,
+                    nEntries, nEntries * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES);
+        }
         notifyRestore();
     }
 
@@ -113,6 +144,27 @@ public class Copier implements StateManager {
         return s;
     }
 
+    @Override
+    public StateIntArray makeStateIntArray(int n, int initValue) {
+        CopyIntArray s = new CopyIntArray(n, initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        CopyLong s = new CopyLong(initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        CopyLongArray s = new CopyLongArray(n, initValue);
+        store.add(s);
+        return s;
+    }
+
     @Override
     public StateMap makeStateMap() {
         CopyMap s = new CopyMap<>();
@@ -0,0 +1,80 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateIntArray} with copy strategy
+ * @see Copier
+ * @see StateManager#makeStateIntArray(int, int)
+ */
+public class CopyIntArray implements Storage, StateIntArray {
+
+    class CopyIntArrayStateEntry implements StateEntry {
+        private final int[] values;
+
+        CopyIntArrayStateEntry(int[] values) {
+            this.values = values;
+        }
+        @Override public void restore() {
+            System.arraycopy(values, 0, CopyIntArray.this.values, 0, values.length);
+        }
+    }
+
+    private final int[] values;
+
+    protected CopyIntArray(int n, int initial) {
+        values = new int[n];
+        Arrays.fill(values, initial);
+    }
+
+    @Override
+    public int get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public int set(int i, int v) {
+        values[i] = v;
+        return v;
+    }
+
+    @Override
+    public void fill(int from, int to, int v) {
+        Arrays.fill(values, from, to, v);
+    }
+
+    @Override
+    public void copyRange(int[] src, int srcPos, int destPos, int length) {
+        System.arraycopy(src, srcPos, values, destPos, length);
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+
+    @Override
+    public StateEntry save() {
+        return new CopyIntArrayStateEntry(values.clone());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Implementation of {@link StateLong} with copy strategy
+ * @see Copier
+ * @see StateManager#makeStateLong(long)
+ */
+public class CopyLong implements Storage, StateLong {
+
+    class CopyLongStateEntry implements StateEntry {
+        private final long v;
+
+        CopyLongStateEntry(long v) {
+            this.v = v;
+        }
+        @Override public void restore() {
+            CopyLong.this.v = v;
+        }
+    }
+
+    private long v;
+
+    protected CopyLong(long initial) {
+        v = initial;
+    }
+
+    @Override
+    public long setValue(long v) {
+        this.v = v;
+        return v;
+    }
+
+    @Override
+    public long value() {
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(v);
+    }
+
+    @Override
+    public StateEntry save() {
+        return new CopyLongStateEntry(v);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * StateManager with a trail strategy, as the {@link Trailer},
+ * but where the trail is one flat growable array
+ * and the levels are only markers within it.
+ * Saving the state is a single index push and restoring
+ * up to any level (see {@link #restoreStateUntil(int)})
+ * is one linear unwind of the trail,
+ * without allocating any object per level.
+ */
+public class FlatTrailer extends Trailer {
+
+    private StateEntry[] trail;
+    private int trailSize;
+    private int[] trailLimit; // size of the trail at each saveState()
+    private int level;
+
+    public FlatTrailer() {
+        trail = new StateEntry[1024];
+        trailSize = 0;
+        trailLimit = new int[64];
+        level = -1;
+    }
+
+    @Override
+    public void pushState(StateEntry entry) {
+        if (trailSize == trail.length)
+            trail = Arrays.copyOf(trail, trailSize * 2);
+        trail[trailSize++] = entry;
+    }
+
+    @Override
+    protected long objectTrailSize() {
+        return trailSize;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public void saveState() {
+        long start = statistics.isEnabled() ? System.nanoTime() : 0;
+        level++;
+        if (level == trailLimit.length)
+            trailLimit = Arrays.copyOf(trailLimit, level * 2);
+        trailLimit[level] = trailSize;
+        magic++;
+        markPrimitiveTrails(level);
+        if (statistics.isEnabled())
+            statistics.recordSave(System.nanoTime() - start, trailSize(), trailBytes());
+    }
+
+    @Override
+    public void restoreState() {
+        restoreStateUntil(level - 1);
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        if (level >= this.level)
+            return;
+        boolean enabled = statistics.isEnabled();
+        long start = 0, entriesBefore = 0, bytesBefore = 0;
+        if (enabled) {
+            start = System.nanoTime();
+            entriesBefore = trailSize();
+            bytesBefore = trailBytes();
+            int top = trailSize;
+            for (int l = this.level; l > level; l--) {
+                int pushed = top - trailLimit[l] + primitiveEntriesSince(l) - (l < this.level ? primitiveEntriesSince(l + 1) : 0);
+                statistics.recordLevel(l, pushed);
+                top = trailLimit[l];
+            }
+        }
+        int limit = trailLimit[level + 1];
+        for (int i = trailSize - 1; i >= limit; i--) {
+            trail[i].restore();
+            trail[i] = null;
+        }
+        trailSize = limit;
+        restorePrimitiveTrails(level + 1);
+        magic++;
+        if (enabled)
+            statistics.recordRestore(this.level - level, System.nanoTime() - start, entriesBefore, bytesBefore, trailSize(), trailBytes());
+        for (int l = this.level; l > level; l--) {
+            this.level--;
+            notifyRestore();
+        }
+    }
+
+}
@@ -0,0 +1,323 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * StateManager mixing the trail and the copy strategies,
+ * chosen for each state object through a {@link StatePolicy}.
+ * <ul>
+ *     <li>{@link StatePolicy#TRAIL} objects are trailed as with the {@link FlatTrailer}.</li>
+ *     <li>{@link StatePolicy#COPY} objects are pushed on the trail at each {@link #saveState()},
+ *     such that writing them does not require any check.</li>
+ *     <li>{@link StatePolicy#AUTO} objects count the levels in which they are written.
+ *     Every {@link #WINDOW} calls to {@link #saveState()}, the ones written in most of the levels
+ *     are switched to copy and the ones written rarely are switched back to trail.</li>
+ * </ul>
+ * The integers and references created without policy are {@link StatePolicy#AUTO},
+ * the maps without policy are {@link StatePolicy#TRAIL},
+ * and the arrays are always trailed.
+ */
+public class HybridStateManager extends FlatTrailer {
+
+    /**
+     * Number of calls to {@link #saveState()} between two choices of policy
+     * for the {@link StatePolicy#AUTO} objects
+     */
+    public static final int WINDOW = 64;
+
+    /**
+     * Fraction of the levels above which an {@link StatePolicy#AUTO} object is copied
+     */
+    public static final double COPY_THRESHOLD = 0.75;
+
+    /**
+     * Fraction of the levels below which an {@link StatePolicy#AUTO} object is trailed
+     */
+    public static final double TRAIL_THRESHOLD = 0.25;
+
+    /**
+     * State object that can be copied at each {@link #saveState()}.
+     */
+    abstract class HybridState {
+        final StatePolicy policy;
+        boolean copied = false; // true if the object is copied at each saveState
+        int copiedIndex = -1;   // position in the copied objects
+        int levelsWritten = 0;  // number of levels where the object was written in the window
+        long lastMagic;         // magic of the last trailed write
+        long lastSave = -1;     // saved level of the last counted write
+
+        HybridState(StatePolicy policy) {
+            this.policy = policy;
+            this.lastMagic = getMagic() - 1;
+        }
+
+        /**
+         * Pushes the current value on the trail.
+         */
+        abstract void saveCopy();
+
+        /**
+         * Registers a write into the object.
+         * A write is counted at most once per saved level,
+         * while the magic also changes at each restore.
+         *
+         * @return true if the previous value must be trailed
+         */
+        boolean written() {
+            if (policy == StatePolicy.COPY)
+                return false;
+            if (lastSave != nSavesTotal) {
+                lastSave = nSavesTotal;
+                levelsWritten++;
+            }
+            long trailMagic = getMagic();
+            if (lastMagic != trailMagic) {
+                lastMagic = trailMagic;
+                return !copied;
+            }
+            return false;
+        }
+    }
+
+    class HybridInt extends HybridState implements StateInt, Trailer.IntTrailable {
+        private int v;
+
+        HybridInt(int initial, StatePolicy policy) {
+            super(policy);
+            v = initial;
+        }
+
+        @Override
+        public void restore(int index, int v) {
+            this.v = v;
+        }
+
+        @Override
+        void saveCopy() {
+            pushInt(this, 0, v);
+        }
+
+        @Override
+        public int setValue(int v) {
+            if (v != this.v) {
+                if (written())
+                    pushInt(this, 0, this.v);
+                this.v = v;
+            }
+            return this.v;
+        }
+
+        @Override
+        public int value() {
+            return v;
+        }
+
+        @Override
+        public String toString() {
+            return "" + v;
+        }
+    }
+
+    class HybridRef<T> extends HybridState implements State<T> {
+        private T v;
+
+        class HybridRefStateEntry implements StateEntry {
+            private final T v;
+
+            HybridRefStateEntry(T v) {
+                this.v = v;
+            }
+
+            @Override
+            public void restore() {
+                HybridRef.this.v = v;
+            }
+        }
+
+        HybridRef(T initial, StatePolicy policy) {
+            super(policy);
+            v = initial;
+        }
+
+        @Override
+        void saveCopy() {
+            pushState(new HybridRefStateEntry(v));
+        }
+
+        @Override
+        public T setValue(T v) {
+            if (v != this.v) {
+                if (written())
+                    pushState(new HybridRefStateEntry(this.v));
+                this.v = v;
+            }
+            return this.v;
+        }
+
+        @Override
+        public T value() {
+            return v;
+        }
+
+        @Override
+        public String toString() {
+            return "" + v;
+        }
+    }
+
+    class HybridStorage extends HybridState {
+        private final Storage storage;
+
+        HybridStorage(Storage storage) {
+            super(StatePolicy.COPY);
+            this.storage = storage;
+        }
+
+        @Override
+        void saveCopy() {
+            pushState(storage.save());
+        }
+    }
+
+    private HybridState[] states;   // objects that can be copied, by order of creation
+    private int nStates;
+    private int[] statesLimit;      // number of objects at each saveState()
+    private HybridState[] copiedStates;
+    private int nCopied;
+    private int nSaves;             // number of saveState() in the current window
+    private long nSavesTotal;       // number of saveState() since the creation, identifying the saved levels
+
+    public HybridStateManager() {
+        states = new HybridState[64];
+        statesLimit = new int[64];
+        copiedStates = new HybridState[64];
+    }
+
+    private <S extends HybridState> S register(S s) {
+        if (nStates == states.length)
+            states = Arrays.copyOf(states, nStates * 2);
+        states[nStates++] = s;
+        if (s.policy == StatePolicy.COPY)
+            copy(s);
+        return s;
+    }
+
+    private void copy(HybridState s) {
+        if (nCopied == copiedStates.length)
+            copiedStates = Arrays.copyOf(copiedStates, nCopied * 2);
+        s.copied = true;
+        s.copiedIndex = nCopied;
+        copiedStates[nCopied++] = s;
+    }
+
+    private void trail(HybridState s) {
+        HybridState last = copiedStates[--nCopied];
+        copiedStates[s.copiedIndex] = last;
+        last.copiedIndex = s.copiedIndex;
+        copiedStates[nCopied] = null;
+        s.copied = false;
+        s.copiedIndex = -1;
+    }
+
+    /**
+     * Chooses the policy of the {@link StatePolicy#AUTO} objects
+     * from the number of levels in which they were written during the last window.
+     */
+    private void tune() {
+        for (int i = 0; i < nStates; i++) {
+            HybridState s = states[i];
+            if (s.policy == StatePolicy.AUTO) {
+                double frequency = (double) s.levelsWritten / WINDOW;
+                if (!s.copied && frequency >= COPY_THRESHOLD)
+                    copy(s);
+                else if (s.copied && frequency <= TRAIL_THRESHOLD)
+                    trail(s);
+                s.levelsWritten = 0;
+            }
+        }
+        nSaves = 0;
+    }
+
+    /**
+     * Returns the number of objects currently copied at each {@link #saveState()}.
+     *
+     * @return the number of copied objects
+     */
+    public int nCopied() {
+        return nCopied;
+    }
+
+    @Override
+    public void saveState() {
+        if (++nSaves == WINDOW)
+            tune();
+        nSavesTotal++;
+        super.saveState();
+        int level = getLevel();
+        if (level == statesLimit.length)
+            statesLimit = Arrays.copyOf(statesLimit, level * 2);
+        statesLimit[level] = nStates;
+        for (int i = 0; i < nCopied; i++)
+            copiedStates[i].saveCopy();
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        if (level >= getLevel())
+            return;
+        super.restoreStateUntil(level);
+        // forget the objects created since then
+        int limit = statesLimit[level + 1];
+        for (int i = nStates - 1; i >= limit; i--) {
+            if (states[i].copied)
+                trail(states[i]);
+            states[i] = null;
+        }
+        nStates = limit;
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        return makeStateRef(initValue, StatePolicy.AUTO);
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        return makeStateInt(initValue, StatePolicy.AUTO);
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue, StatePolicy policy) {
+        return register(new HybridRef<>(initValue, policy));
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue, StatePolicy policy) {
+        return register(new HybridInt(initValue, policy));
+    }
+
+    @Override
+    public StateMap makeStateMap(StatePolicy policy) {
+        if (policy != StatePolicy.COPY)
+            return makeStateMap();
+        CopyMap map = new CopyMap<>();
+        register(new HybridStorage(map));
+        return map;
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import minicp.util.Procedure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StateManager with a copy strategy, as the {@link Copier},
+ * but that only copies the storages written since the last {@link #saveState()}.
+ * The storages are grouped by pages of {@link #PAGE_SIZE} consecutive elements.
+ * The first write into a page after a {@link #saveState()} copies the whole page,
+ * such that the cost of a search node depends on the state touched by the propagation
+ * and not on the size of the model.
+ */
+public class IncrementalCopier implements StateManager {
+
+    /**
+     * Number of storages grouped within a page
+     */
+    public static final int PAGE_SIZE = 64;
+
+    class Page {
+        private final Storage[] storages = new Storage[PAGE_SIZE];
+        private int size = 0;
+        private long lastMagic = -1L;
+
+        /**
+         * Copies the page if this is the first write into it since the last save.
+         */
+        void touch() {
+            if (lastMagic != magic) {
+                lastMagic = magic;
+                if (level >= 0)
+                    push(new PageBackup(this));
+            }
+        }
+    }
+
+    class PageBackup implements StateEntry {
+        private final Page page;
+        private final StateEntry[] entries;
+
+        PageBackup(Page page) {
+            this.page = page;
+            entries = new StateEntry[page.size];
+            for (int i = 0; i < page.size; i++)
+                entries[i] = page.storages[i].save();
+        }
+
+        @Override
+        public void restore() {
+            for (StateEntry e : entries)
+                e.restore();
+        }
+    }
+
+    private Page[] pages;
+    private int nPages;
+    private int storeSize;
+    private long magic = 0L;
+
+    private PageBackup[] backups;
+    private int nBackups;
+    private long nEntries;      // number of entries in the backups
+    private int[] backupsLimit; // number of backups at each saveState()
+    private int[] storeLimit;   // size of the store at each saveState()
+    private long[] levelMagic;  // magic at each saveState(), identifying the level
+    private int level;
+
+    private List<Procedure> onRestoreListeners;
+
+    private final StateStatistics statistics = new StateStatistics();
+
+    public IncrementalCopier() {
+        pages = new Page[16];
+        backups = new PageBackup[256];
+        backupsLimit = new int[64];
+        storeLimit = new int[64];
+        levelMagic = new long[64];
+        level = -1;
+        onRestoreListeners = new ArrayList<>();
+    }
+
+    private void notifyRestore() {
+        for (int i = 0; i < onRestoreListeners.size(); i++)
+            onRestoreListeners.get(i).call();
+    }
+
+    @Override
+    public void onRestore(Procedure listener) {
+        onRestoreListeners.add(listener);
+    }
+
+    private void push(PageBackup backup) {
+        if (nBackups == backups.length)
+            backups = Arrays.copyOf(backups, nBackups * 2);
+        backups[nBackups++] = backup;
+        nEntries += backup.entries.length;
+    }
+
+    /**
+     * Returns the page where the next storage will be added,
+     * creating a new one if the last page is full.
+     *
+     * @return the last page of the store, with at least one free slot
+     */
+    private Page lastPage() {
+        if (nPages == 0 || pages[nPages - 1].size == PAGE_SIZE) {
+            if (nPages == pages.length)
+                pages = Arrays.copyOf(pages, nPages * 2);
+            pages[nPages++] = new Page();
+        }
+        return pages[nPages - 1];
+    }
+
+    private void add(Page page, Storage s) {
+        page.storages[page.size++] = s;
+        storeSize++;
+    }
+
+    /**
+     * Removes the storages added after the store had the given size.
+     *
+     * @param size the size to set for the store
+     */
+    private void truncate(int size) {
+        nPages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (int i = nPages; i < pages.length && pages[i] != null; i++)
+            pages[i] = null;
+        if (nPages > 0) {
+            Page last = pages[nPages - 1];
+            int lastSize = size - (nPages - 1) * PAGE_SIZE;
+            Arrays.fill(last.storages, lastSize, last.size, null);
+            last.size = lastSize;
+        }
+        storeSize = size;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    public int storeSize() {
+        return storeSize;
+    }
+
+    @Override
+    public long getLevelId(int level) {
+        return levelMagic[level];
+    }
+
+    @Override
+    public StateStatistics getStatistics() {
+        return statistics;
+    }
+
+    private long trailBytes() {
+        return nEntries * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES;
+    }
+
+    @Override
+    public void saveState() {
+        long start = statistics.isEnabled() ? System.nanoTime() : 0;
+        level++;
+        if (level == backupsLimit.length) {
+            backupsLimit = Arrays.copyOf(backupsLimit, level * 2);
+            storeLimit = Arrays.copyOf(storeLimit, level * 2);
+            levelMagic = Arrays.copyOf(levelMagic, level * 2);
+        }
+        backupsLimit[level] = nBackups;
+        storeLimit[level] = storeSize;
+        magic++;
+        levelMagic[level] = magic;
+        if (statistics.isEnabled())
+            statistics.recordSave(System.nanoTime() - start, nEntries, trailBytes());
+    }
+
+    @Override
+    public void restoreState() {
+        boolean enabled = statistics.isEnabled();
+        long start = 0, entriesBefore = nEntries;
+        if (enabled)
+            start = System.nanoTime();
+        int limit = backupsLimit[level];
+        for (int i = nBackups - 1; i >= limit; i--) {
+            backups[i].restore();
+            nEntries -= backups[i].entries.length;
+            backups[i] = null;
+        }
+        if (enabled)
+            statistics.recordLevel(level, entriesBefore - nEntries);
+        nBackups = limit;
+        truncate(storeLimit[level]);
+        level--;
+        magic++;
+        if (enabled)
+            statistics.recordRestore(1, System.nanoTime() - start, entriesBefore,
+                    entriesBefore * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES, nEntries, trailBytes());
+        notifyRestore();
+    }
+
+    @Override
+    public void withNewState(Procedure body) {
+        final int level = getLevel();
+        saveState();
+        body.call();
+        restoreStateUntil(level);
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        while (getLevel() > level)
+            restoreState();
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        Page page = lastPage();
+        Copy<T> r = new Copy<T>(initValue) {
+            @Override
+            public T setValue(T v) {
+                if (v != value())
+                    page.touch();
+                return super.setValue(v);
+            }
+        };
+        add(page, r);
+        return r;
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        Page page = lastPage();
+        CopyInt s = new CopyInt(initValue) {
+            @Override
+            public int setValue(int v) {
+                if (v != value())
+                    page.touch();
+                return super.setValue(v);
+            }
+        };
+        add(page, s);
+        return s;
+    }
+
+    @Override
+    public StateIntArray makeStateIntArray(int n, int initValue) {
+        Page page = lastPage();
+        CopyIntArray s = new CopyIntArray(n, initValue) {
+            @Override
+            public int set(int i, int v) {
+                if (v != get(i))
+                    page.touch();
+                return super.set(i, v);
+            }
+
+            @Override
+            public void fill(int from, int to, int v) {
+                page.touch();
+                super.fill(from, to, v);
+            }
+
+            @Override
+            public void copyRange(int[] src, int srcPos, int destPos, int length) {
+                page.touch();
+                super.copyRange(src, srcPos, destPos, length);
+            }
+        };
+        add(page, s);
+        return s;
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        Page page = lastPage();
+        CopyLong s = new CopyLong(initValue) {
+            @Override
+            public long setValue(long v) {
+                if (v != value())
+                    page.touch();
+                return super.setValue(v);
+            }
+        };
+        add(page, s);
+        return s;
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        Page page = lastPage();
+        CopyLongArray s = new CopyLongArray(n, initValue) {
+            @Override
+            public long set(int i, long v) {
+                if (v != get(i))
+                    page.touch();
+                return super.set(i, v);
+            }
+        };
+        add(page, s);
+        return s;
+    }
+
+    @Override
+    public StateMap makeStateMap() {
+        Page page = lastPage();
+        CopyMap s = new CopyMap<Object, Object>() {
+            @Override
+            public void put(Object k, Object v) {
+                page.touch();
+                super.put(k, v);
+            }
+        };
+        add(page, s);
+        return s;
+    }
+
+}
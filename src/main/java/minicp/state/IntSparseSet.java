@@ -18,6 +18,21 @@ public interface IntSparseSet {
      */
     public int fillArray(int[] dest);
 
+    /**
+     * Copies the values removed from the set since it had the given bounds and size.
+     * It relies on the values removed being kept contiguous in the sparse-set,
+     * such that the removed values are found in time linear in their number.
+     * The set must only have been reduced since then
+     * (restorations below that point are not supported).
+     *
+     * @param oldMin the minimum value of the set at that time
+     * @param oldMax the maximum value of the set at that time
+     * @param oldSize the size of the set at that time
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since then, stored in {@code dest[0,...,oldSize - size() - 1]}
+     */
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest);
+
     /**
      * Checks if the set is empty
      *
@@ -0,0 +1,109 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bump allocator of off-heap primitive arrays, used by the {@link OffHeapArrayTrailer}.
+ * Memory is reserved by chunks of direct buffers and handed out
+ * as int or long buffers. Nothing is freed, neither individually nor by {@link #close()}:
+ * a chunk is given back when it and the buffers handed out from it are unreachable.
+ */
+public class OffHeapArena implements AutoCloseable {
+
+    /**
+     * Size in bytes of the chunks reserved by the arena
+     */
+    public static final int CHUNK_SIZE = 1 << 20;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long allocated = 0L;
+    private boolean closed = false;
+
+    /**
+     * Allocates an off-heap array of int, initially set to 0.
+     *
+     * @param n the number of entries
+     * @return a buffer of n entries
+     * @throws IllegalArgumentException if n is negative or the buffer exceeds 2GB
+     */
+    public IntBuffer allocateInts(int n) {
+        return allocate(4L * n).asIntBuffer();
+    }
+
+    /**
+     * Allocates an off-heap array of long, initially set to 0.
+     *
+     * @param n the number of entries
+     * @return a buffer of n entries
+     * @throws IllegalArgumentException if n is negative or the buffer exceeds 2GB
+     */
+    public LongBuffer allocateLongs(int n) {
+        return allocate(8L * n).asLongBuffer();
+    }
+
+    private ByteBuffer allocate(long bytes) {
+        if (closed)
+            throw new IllegalStateException("the arena is closed");
+        // a direct buffer is indexed by an int
+        if (bytes < 0 || bytes > Integer.MAX_VALUE - 7)
+            throw new IllegalArgumentException("cannot allocate " + bytes + " bytes in a single buffer");
+        int size = (int) ((bytes + 7) & ~7L); // keep the allocations aligned on 8 bytes
+        ByteBuffer chunk;
+        if (size > CHUNK_SIZE / 4) { // large allocation: dedicated chunk
+            chunk = ByteBuffer.allocateDirect(size);
+            chunks.add(chunk);
+        } else {
+            if (current == null || current.remaining() < size) {
+                current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+                chunks.add(current);
+            }
+            chunk = current.slice(current.position(), size);
+            current.position(current.position() + size);
+        }
+        allocated += size;
+        chunk.limit((int) bytes); // the padding is not part of the buffer
+        return chunk.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the number of bytes handed out by the arena.
+     *
+     * @return the number of allocated bytes
+     */
+    public long allocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * Closes the arena: no buffer can be allocated anymore
+     * and the arena stops referencing its chunks.
+     * No memory is freed.
+     */
+    @Override
+    public void close() {
+        chunks.clear();
+        current = null;
+        closed = true;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * {@link FlatTrailer} allocating the values of its primitive arrays
+ * ({@link #makeStateIntArray(int, int)} and {@link #makeStateLongArray(int, long)})
+ * off-heap, in a single {@link OffHeapArena} for the whole state manager.
+ * Only these values are off-heap: the trail, the other states
+ * and the bookkeeping of the arrays remain on the heap.
+ * The off-heap memory is not freed by {@link #close()},
+ * it is given back once the arrays are unreachable.
+ */
+public class OffHeapArrayTrailer extends FlatTrailer implements AutoCloseable {
+
+    private final OffHeapArena arena;
+
+    public OffHeapArrayTrailer() {
+        arena = new OffHeapArena();
+    }
+
+    /**
+     * Returns the arena in which the off-heap states are allocated.
+     *
+     * @return the arena of this state manager
+     */
+    public OffHeapArena getArena() {
+        return arena;
+    }
+
+    @Override
+    public StateIntArray makeStateIntArray(int n, int initValue) {
+        return new OffHeapTrailIntArray(this, arena, n, initValue);
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        return new OffHeapTrailLongArray(this, arena, n, initValue);
+    }
+
+    /**
+     * Closes the arena of this state manager, such that no array
+     * can be created anymore. No memory is freed.
+     *
+     * @see OffHeapArena#close()
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
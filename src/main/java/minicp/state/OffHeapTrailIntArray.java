@@ -0,0 +1,114 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.nio.IntBuffer;
+
+/**
+ * Implementation of {@link StateIntArray} with trail strategy,
+ * whose values are stored off-heap in the {@link OffHeapArena} of an {@link OffHeapArrayTrailer}.
+ * As in {@link TrailIntArray}, each entry is trailed at most once per level.
+ * @see OffHeapArrayTrailer
+ */
+public class OffHeapTrailIntArray implements StateIntArray, Trailer.IntTrailable {
+
+    private final Trailer trail;
+    private final int n;
+    private final IntBuffer values;
+    private final long[] dirty;     // entries already trailed in the current level
+    private final int[] dirtyWords; // indexes of the non zero words in dirty
+    private int nDirtyWords;
+    private long dirtyMagic;
+
+    protected OffHeapTrailIntArray(Trailer trail, OffHeapArena arena, int n, int initial) {
+        this.trail = trail;
+        this.n = n;
+        values = arena.allocateInts(n);
+        if (initial != 0)
+            for (int i = 0; i < n; i++)
+                values.put(i, initial);
+        dirty = new long[(n + 63) >>> 6];
+        dirtyWords = new int[dirty.length];
+        nDirtyWords = 0;
+        dirtyMagic = trail.getMagic() - 1;
+    }
+
+    @Override
+    public void restore(int index, int v) {
+        values.put(index, v);
+    }
+
+    private void trail(int i, int old) {
+        long trailMagic = trail.getMagic();
+        if (dirtyMagic != trailMagic) {
+            for (int k = 0; k < nDirtyWords; k++)
+                dirty[dirtyWords[k]] = 0L;
+            nDirtyWords = 0;
+            dirtyMagic = trailMagic;
+        }
+        int w = i >>> 6;
+        long bit = 1L << i;
+        if ((dirty[w] & bit) == 0L) {
+            if (dirty[w] == 0L)
+                dirtyWords[nDirtyWords++] = w;
+            dirty[w] |= bit;
+            trail.pushInt(this, i, old);
+        }
+    }
+
+    @Override
+    public int get(int i) {
+        return values.get(i);
+    }
+
+    @Override
+    public int set(int i, int v) {
+        int old = values.get(i);
+        if (v != old) {
+            trail(i, old);
+            values.put(i, v);
+        }
+        return v;
+    }
+
+    @Override
+    public void fill(int from, int to, int v) {
+        for (int i = from; i < to; i++)
+            set(i, v);
+    }
+
+    @Override
+    public void copyRange(int[] src, int srcPos, int destPos, int length) {
+        for (int k = 0; k < length; k++)
+            set(destPos + k, src[srcPos + k]);
+    }
+
+    @Override
+    public int length() {
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                b.append(", ");
+            b.append(values.get(i));
+        }
+        return b.append(']').toString();
+    }
+}
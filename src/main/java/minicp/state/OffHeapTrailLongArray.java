@@ -0,0 +1,102 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.nio.LongBuffer;
+
+/**
+ * Implementation of {@link StateLongArray} with trail strategy,
+ * whose values are stored off-heap in the {@link OffHeapArena} of an {@link OffHeapArrayTrailer}.
+ * As in {@link OffHeapTrailIntArray}, each entry is trailed at most once per level.
+ * @see OffHeapArrayTrailer
+ */
+public class OffHeapTrailLongArray implements StateLongArray, Trailer.LongTrailable {
+
+    private final Trailer trail;
+    private final int n;
+    private final LongBuffer values;
+    private final long[] dirty;     // entries already trailed in the current level
+    private final int[] dirtyWords; // indexes of the non zero words in dirty
+    private int nDirtyWords;
+    private long dirtyMagic;
+
+    protected OffHeapTrailLongArray(Trailer trail, OffHeapArena arena, int n, long initial) {
+        this.trail = trail;
+        this.n = n;
+        values = arena.allocateLongs(n);
+        if (initial != 0L)
+            for (int i = 0; i < n; i++)
+                values.put(i, initial);
+        dirty = new long[(n + 63) >>> 6];
+        dirtyWords = new int[dirty.length];
+        nDirtyWords = 0;
+        dirtyMagic = trail.getMagic() - 1;
+    }
+
+    @Override
+    public void restore(int index, long v) {
+        values.put(index, v);
+    }
+
+    private void trail(int i, long old) {
+        long trailMagic = trail.getMagic();
+        if (dirtyMagic != trailMagic) {
+            for (int k = 0; k < nDirtyWords; k++)
+                dirty[dirtyWords[k]] = 0L;
+            nDirtyWords = 0;
+            dirtyMagic = trailMagic;
+        }
+        int w = i >>> 6;
+        long bit = 1L << i;
+        if ((dirty[w] & bit) == 0L) {
+            if (dirty[w] == 0L)
+                dirtyWords[nDirtyWords++] = w;
+            dirty[w] |= bit;
+            trail.pushLong(this, i, old);
+        }
+    }
+
+    @Override
+    public long get(int i) {
+        return values.get(i);
+    }
+
+    @Override
+    public long set(int i, long v) {
+        long old = values.get(i);
+        if (v != old) {
+            trail(i, old);
+            values.put(i, v);
+        }
+        return v;
+    }
+
+    @Override
+    public int length() {
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0)
+                b.append(", ");
+            b.append(values.get(i));
+        }
+        return b.append(']').toString();
+    }
+}
@@ -23,7 +23,20 @@ package minicp.state;
  *
  * @see StateManager#makeStateInt(int) for the creation.
  */
-public interface StateInt extends State<Integer> {
+public interface StateInt {
+
+    /**
+     * Set the value
+     * @param v the value to set
+     * @return the new value that was set
+     */
+    int setValue(int v);
+
+    /**
+     * Retrieves the value
+     * @return the value
+     */
+    int value();
 
     /**
      * Increments the value
@@ -41,4 +54,7 @@ public interface StateInt extends State<Integer> {
         return setValue(value() - 1);
     }
 
+    @Override
+    String toString();
+
 }
@@ -0,0 +1,71 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Array of int values stored contiguously
+ * that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods.
+ * Each entry is saved independently, and at most once per level.
+ *
+ * @see StateManager#makeStateIntArray(int, int) for the creation.
+ */
+public interface StateIntArray {
+
+    /**
+     * Retrieves the value of an entry
+     * @param i the index of the entry, {@code 0 <= i < length()}
+     * @return the value at index i
+     */
+    int get(int i);
+
+    /**
+     * Set the value of an entry
+     * @param i the index of the entry, {@code 0 <= i < length()}
+     * @param v the value to set
+     * @return the new value that was set
+     */
+    int set(int i, int v);
+
+    /**
+     * Set the value of the entries {@code from, from+1, ..., to-1}
+     * @param from the first index to set (inclusive)
+     * @param to the last index to set (exclusive), {@code from <= to <= length()}
+     * @param v the value to set
+     */
+    void fill(int from, int to, int v);
+
+    /**
+     * Copies the values of an array into the entries
+     * {@code destPos, destPos+1, ..., destPos+length-1}
+     * @param src the source array
+     * @param srcPos the starting position in the source array
+     * @param destPos the first index to set
+     * @param length the number of entries to set
+     */
+    void copyRange(int[] src, int srcPos, int destPos, int length);
+
+    /**
+     * Returns the number of entries in the array
+     * @return the length of the array
+     */
+    int length();
+
+    @Override
+    String toString();
+
+}
@@ -0,0 +1,92 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Map from int keys to long values
+ * that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods.
+ * It uses open addressing with linear probing over state arrays,
+ * such that each slot is saved independently
+ * and that {@link #put(int, long)}, {@link #get(int, long)} and {@link #remove(int)}
+ * do not allocate any object (except when the table grows).
+ */
+public class StateIntLongMap extends AbstractStateIntMap<StateLongArray> {
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sm the state manager that will save and restore the map when
+     *        {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     */
+    public StateIntLongMap(StateManager sm) {
+        this(sm, 8);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sm the state manager that will save and restore the map when
+     *        {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     * @param expectedSize the number of entries that can be put before the table grows
+     */
+    public StateIntLongMap(StateManager sm, int expectedSize) {
+        super(sm, expectedSize);
+    }
+
+    @Override
+    StateLongArray makeValues(StateManager sm, int capacity) {
+        return sm.makeStateLongArray(capacity, 0L);
+    }
+
+    @Override
+    long getValue(StateLongArray values, int slot) {
+        return values.get(slot);
+    }
+
+    @Override
+    void setValue(StateLongArray values, int slot, long value) {
+        values.set(slot, value);
+    }
+
+    /**
+     * Inserts the key-value pair.
+     * It erases the existing value
+     * if the map already contains the key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(int key, long value) {
+        int slot = insert(key); // may replace the table
+        values().set(slot, value);
+    }
+
+    /**
+     * Retrieves the value for a given key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is not in the map
+     * @return the value v if the entry (key,v) is in the map, defaultValue otherwise
+     */
+    public long get(int key, long defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values().get(slot) : defaultValue;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Map from int keys to int values
+ * that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods.
+ * It uses open addressing with linear probing over state arrays,
+ * such that each slot is saved independently
+ * and that {@link #put(int, int)}, {@link #get(int, int)} and {@link #remove(int)}
+ * do not allocate any object (except when the table grows).
+ */
+public class StateIntMap extends AbstractStateIntMap<StateIntArray> {
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sm the state manager that will save and restore the map when
+     *        {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     */
+    public StateIntMap(StateManager sm) {
+        this(sm, 8);
+    }
+
+    /**
+     * Creates an empty map.
+     *
+     * @param sm the state manager that will save and restore the map when
+     *        {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     * @param expectedSize the number of entries that can be put before the table grows
+     */
+    public StateIntMap(StateManager sm, int expectedSize) {
+        super(sm, expectedSize);
+    }
+
+    @Override
+    StateIntArray makeValues(StateManager sm, int capacity) {
+        return sm.makeStateIntArray(capacity, 0);
+    }
+
+    @Override
+    long getValue(StateIntArray values, int slot) {
+        return values.get(slot);
+    }
+
+    @Override
+    void setValue(StateIntArray values, int slot, long value) {
+        values.set(slot, (int) value);
+    }
+
+    /**
+     * Inserts the key-value pair.
+     * It erases the existing value
+     * if the map already contains the key.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        int slot = insert(key); // may replace the table
+        values().set(slot, value);
+    }
+
+    /**
+     * Retrieves the value for a given key.
+     *
+     * @param key the key
+     * @param defaultValue the value to return if the key is not in the map
+     * @return the value v if the entry (key,v) is in the map, defaultValue otherwise
+     */
+    public int get(int key, int defaultValue) {
+        int slot = slotOf(key);
+        return slot >= 0 ? values().get(slot) : defaultValue;
+    }
+}
@@ -142,6 +142,31 @@ public class StateLazySparseSet implements IntSparseSet {
         } else return sparse.fillArray(dest);
     }
 
+    /**
+     * Copies the values removed from the set since it had the given bounds and size.
+     * The set must only have been reduced since then
+     * (restorations below that point are not supported).
+     *
+     * @param oldMin the minimum value of the set at that time
+     * @param oldMax the maximum value of the set at that time
+     * @param oldSize the size of the set at that time
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since then, stored in {@code dest[0,...,oldSize - size() - 1]}
+     */
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        if (isInterval()) {
+            // the set was an interval at that time and has only lost values on its bounds
+            int k = 0;
+            int min = isEmpty() ? oldMax + 1 : min();
+            int max = isEmpty() ? oldMax : max();
+            for (int v = oldMin; v < min; v++)
+                dest[k++] = v;
+            for (int v = max + 1; v <= oldMax; v++)
+                dest[k++] = v;
+            return k;
+        } else return sparse.fillDeltaArray(oldMin, oldMax, oldSize, dest);
+    }
+
     /**
      * Removes the given value from the set.
      *
@@ -64,6 +64,15 @@ public interface StateManager {
      */
     int getLevel();
 
+    /**
+     * Returns the identifier of a saved level, set by the {@link #saveState()} creating it.
+     * A level removed by a restoration and saved again gets a new identifier.
+     *
+     * @param level a level between 0 and {@link #getLevel()}
+     * @return the identifier of the level, unique among the levels saved by this state manager
+     */
+    long getLevelId(int level);
+
     /**
      * Creates a Stateful reference (restorable)
      *
@@ -80,6 +89,32 @@ public interface StateManager {
      */
     StateInt makeStateInt(int initValue);
 
+    /**
+     * Creates a Stateful array of integers (restorable)
+     *
+     * @param n the number of entries in the array
+     * @param initValue the initial setValue of every entry
+     * @return a StateIntArray object with n entries set to initValue
+     */
+    StateIntArray makeStateIntArray(int n, int initValue);
+
+    /**
+     * Creates a Stateful long (restorable)
+     *
+     * @param initValue the initial setValue
+     * @return a StateLong object wrapping the initValue
+     */
+    StateLong makeStateLong(long initValue);
+
+    /**
+     * Creates a Stateful array of long (restorable)
+     *
+     * @param n the number of entries in the array
+     * @param initValue the initial setValue of every entry
+     * @return a StateLongArray object with n entries set to initValue
+     */
+    StateLongArray makeStateLongArray(int n, long initValue);
+
     /**
      * Creates a Stateful map (restorable)
      *
@@ -87,6 +122,99 @@ public interface StateManager {
      */
     StateMap makeStateMap();
 
+    /**
+     * Creates a Stateful reference (restorable)
+     * saved according to a given policy.
+     * The policy is only a hint, ignored by default.
+     *
+     * @param initValue the initial setValue
+     * @param policy how the reference should be saved and restored
+     * @return a State object wrapping the initValue
+     */
+    default <T> State<T> makeStateRef(T initValue, StatePolicy policy) {
+        return makeStateRef(initValue);
+    }
+
+    /**
+     * Creates a Stateful integer (restorable)
+     * saved according to a given policy.
+     * The policy is only a hint, ignored by default.
+     *
+     * @param initValue the initial setValue
+     * @param policy how the integer should be saved and restored
+     * @return a StateInt object wrapping the initValue
+     */
+    default StateInt makeStateInt(int initValue, StatePolicy policy) {
+        return makeStateInt(initValue);
+    }
+
+    /**
+     * Creates a Stateful map (restorable)
+     * saved according to a given policy.
+     * The policy is only a hint, ignored by default.
+     *
+     * @param policy how the map should be saved and restored
+     * @return a reference to the map.
+     */
+    default StateMap makeStateMap(StatePolicy policy) {
+        return makeStateMap();
+    }
+
+    /**
+     * Saves the state and marks the new level as a checkpoint.
+     * The state can then be rewound to the one at the time
+     * of the checkpoint with {@link #rewind(Checkpoint)}, any number of times,
+     * for instance at each iteration of a large neighborhood search
+     * once the part of the problem shared by the iterations is set.
+     *
+     * @param name the name of the checkpoint
+     * @return the checkpoint, valid until it is released
+     *         with {@link #release(Checkpoint)} or a restoration below its level,
+     *         the levels saved afterwards at the same depth not reviving it
+     */
+    default Checkpoint checkpoint(String name) {
+        saveState();
+        int level = getLevel();
+        return new Checkpoint(name, level, getLevelId(level));
+    }
+
+    /**
+     * Restores the state to the one at the time of the checkpoint,
+     * in one unwind of the levels saved since then.
+     * The checkpoint remains valid.
+     *
+     * @param checkpoint a checkpoint created by this state manager
+     * @throws IllegalStateException if the checkpoint has been released
+     */
+    default void rewind(Checkpoint checkpoint) {
+        if (!checkpoint.isActive(this))
+            throw new IllegalStateException(checkpoint + " has been released");
+        restoreStateUntil(checkpoint.level() - 1);
+        saveState();
+        checkpoint.renew(getLevelId(checkpoint.level()));
+    }
+
+    /**
+     * Restores the state to the one at the time of the checkpoint
+     * and removes its level.
+     *
+     * @param checkpoint a checkpoint created by this state manager
+     * @throws IllegalStateException if the checkpoint has already been released
+     */
+    default void release(Checkpoint checkpoint) {
+        if (!checkpoint.isActive(this))
+            throw new IllegalStateException(checkpoint + " has already been released");
+        restoreStateUntil(checkpoint.level() - 1);
+    }
+
+    /**
+     * Returns the statistics on the saved and restored states.
+     * They are collected once enabled with {@link StateStatistics#setEnabled(boolean)}.
+     *
+     * @return the statistics of this state manager
+     */
+    StateStatistics getStatistics();
+
     /**
      * Higher-order function that preserves the state prior to calling body and restores it after.
      *
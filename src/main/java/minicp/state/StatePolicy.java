@@ -0,0 +1,42 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Strategy used to save and restore a state object,
+ * given as a hint to the {@link StateManager} creating it.
+ * A state manager that does not support the hint ignores it.
+ *
+ * @see HybridStateManager
+ */
+public enum StatePolicy {
+    /**
+     * The value is saved lazily, on its first write after each {@link StateManager#saveState()}.
+     * Best for the state written rarely.
+     */
+    TRAIL,
+    /**
+     * The value is copied at each {@link StateManager#saveState()},
+     * and a write costs nothing more than the assignment.
+     * Best for the state written on nearly every search node.
+     */
+    COPY,
+    /**
+     * The state manager chooses between {@link #TRAIL} and {@link #COPY},
+     * from the observed write frequency of the state.
+     */
+    AUTO
+}
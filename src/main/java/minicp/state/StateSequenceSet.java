@@ -231,6 +231,38 @@ public class StateSequenceSet {
         return end;
     }
 
+    /**
+     * Copies the values that became required since the set had the given number of required values.
+     * The values are moved to the required set one after the other,
+     * such that they are found in time linear in their number.
+     *
+     * @param nRequired the number of required values at that time
+     * @param dest an array large enough to store the values
+     * @return the number of values required since then
+     */
+    public int getRequiredSince(int nRequired, int[] dest) {
+        int end = r.value();
+        int k = 0;
+        for (int i = nRequired; i < end; ++i)
+            dest[k++] = elems[i] + ofs;
+        return k;
+    }
+
+    /**
+     * Copies the values that became excluded since the set had the given number of excluded values.
+     *
+     * @param nExcluded the number of excluded values at that time
+     * @param dest an array large enough to store the values
+     * @return the number of values excluded since then
+     */
+    public int getExcludedSince(int nExcluded, int[] dest) {
+        int end = n - nOmitted - nExcluded;
+        int k = 0;
+        for (int i = p.value(); i < end; ++i)
+            dest[k++] = elems[i] + ofs;
+        return k;
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
@@ -28,7 +28,7 @@ public class StateSparseBitSet {
 
     /* Variables used to store value of the bitset */
     private int nWords;
-    private State<Long>[] words;
+    private StateLongArray words;
 
     /* Variables used to make set sparse */
     private int[] nonZeroIdx;
@@ -107,8 +107,7 @@ public class StateSparseBitSet {
     public StateSparseBitSet(StateManager sm, int n) {
         nWords = (n + 63) >>> 6; // divided by 64
         //System.out.println("nwords:"+nWords);
-        words = new State[nWords];
-        Arrays.setAll(words, i -> sm.makeStateRef(Long.valueOf(0xFFFFFFFFFFFFFFFFL)));
+        words = sm.makeStateLongArray(nWords, 0xFFFFFFFFFFFFFFFFL);
         nonZeroIdx = new int[nWords];
         Arrays.setAll(nonZeroIdx, i -> i);
         nNonZero = sm.makeStateInt(nWords);
@@ -121,15 +120,15 @@ public class StateSparseBitSet {
      */
     public void intersect(BitSet bs) {
         for (int i = nNonZero.value() - 1; i >= 0; i--) {
-            State<Long> w = words[nonZeroIdx[i]];
-            long wn = w.value() & bs.words[nonZeroIdx[i]];
+            int w = nonZeroIdx[i];
+            long wn = words.get(w) & bs.words[w];
             if (wn == 0L) {
                 nNonZero.decrement();
                 int tmp = nonZeroIdx[i];
                 nonZeroIdx[i] = nonZeroIdx[nNonZero.value()];
                 nonZeroIdx[nNonZero.value()] = tmp;
             } else {
-                w.setValue(wn);
+                words.set(w, wn);
             }
         }
     }
@@ -141,9 +140,9 @@ public class StateSparseBitSet {
     public boolean hasEmptyIntersection(BitSet bs) {
         //System.out.println("nonNonZero:"+nNonZero.value());
         for (int i = nNonZero.value() - 1; i >= 0; i--) {
-            State<Long> w = words[nonZeroIdx[i]];
-            //System.out.println("intersectino word" + nonZeroIdx[i] +" = "+(w.value() & bs.words[nonZeroIdx[i]]));
-            if ((w.value() & bs.words[nonZeroIdx[i]]) != 0L) {
+            int w = nonZeroIdx[i];
+            //System.out.println("intersectino word" + w +" = "+(words.get(w) & bs.words[w]));
+            if ((words.get(w) & bs.words[w]) != 0L) {
                 return false;
             }
         }
@@ -154,7 +153,7 @@ public class StateSparseBitSet {
     public String toString() {
         String res = "";
         for (int i = 0; i < nNonZero.value(); i++) {
-            res += " w" + nonZeroIdx[i] + "=" + Long.toBinaryString(words[nonZeroIdx[i]].value());
+            res += " w" + nonZeroIdx[i] + "=" + Long.toBinaryString(words.get(nonZeroIdx[i]));
         }
         return res;
     }
@@ -100,6 +100,33 @@ public class StateSparseSet implements IntSparseSet {
         return s;
     }
 
+    /**
+     * Copies the values removed from the set since it had the given bounds and size.
+     * It relies on the values removed being kept contiguous in the sparse-set,
+     * such that the removed values are found in time linear in their number.
+     * The set must only have been reduced since then
+     * (restorations below that point are not supported).
+     *
+     * @param oldMin the minimum value of the set at that time
+     * @param oldMax the maximum value of the set at that time
+     * @param oldSize the size of the set at that time
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since then, stored in {@code dest[0,...,oldSize - size() - 1]}
+     */
+    public int fillDeltaArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        int k = 0;
+        // values outside of the universe of the set, when it was created from a larger set
+        for (int v = oldMin; v <= oldMax && v < ofs; v++)
+            dest[k++] = v;
+        for (int v = Math.max(oldMin, ofs + n); v <= oldMax; v++)
+            dest[k++] = v;
+        // the removed values are stored after the ones present in the set
+        int to = Math.min(oldSize, n);
+        for (int i = size.value(); i < to; i++)
+            dest[k++] = values[i] + ofs;
+        return k;
+    }
+
     /**
      * Checks if the set is empty
      *
@@ -0,0 +1,231 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Statistics on the states saved and restored by a {@link StateManager}:
+ * number of entries pushed per level, peak trail size,
+ * bytes retained and cumulative save and restore times.
+ * They are only collected once enabled with {@link #setEnabled(boolean)}.
+ * The bytes are not measured: they are estimated from the number of entries
+ * retained by the state manager, see {@link #ESTIMATED_OBJECT_ENTRY_BYTES}.
+ *
+ * @see StateManager#getStatistics()
+ */
+public class StateStatistics {
+
+    /**
+     * Estimate of the size in bytes of an object entry (a {@link StateEntry}):
+     * the header and a few fields of a small object, with compressed references.
+     * The actual size depends on the JVM and on the state saved,
+     * so the bytes reported are an order of magnitude rather than a measure.
+     */
+    public static final int ESTIMATED_OBJECT_ENTRY_BYTES = 32;
+
+    private boolean enabled = false;
+    private long nSaves = 0;
+    private long nRestores = 0;
+    private long saveTime = 0;
+    private long restoreTime = 0;
+    private long entries = 0;
+    private long bytes = 0;
+    private long peakEntries = 0;
+    private long peakBytes = 0;
+    private long[] entriesAtLevel = new long[16];  // sum of the entries pushed at each level
+    private long[] restoresAtLevel = new long[16]; // number of restorations of each level
+
+    /**
+     * Enables or disables the collection of the statistics.
+     *
+     * @param enabled true to collect the statistics
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a call to {@link StateManager#saveState()}.
+     *
+     * @param time the time spent in nanoseconds
+     * @param entries the number of entries retained
+     * @param bytes the number of bytes retained
+     */
+    void recordSave(long time, long entries, long bytes) {
+        nSaves++;
+        saveTime += time;
+        updateRetained(entries, bytes);
+    }
+
+    /**
+     * Records the restoration of a level, before its entries are restored.
+     *
+     * @param level the level being restored
+     * @param levelEntries the number of entries pushed in that level
+     */
+    void recordLevel(int level, long levelEntries) {
+        if (level < 0)
+            return;
+        if (level >= entriesAtLevel.length) {
+            int length = Math.max(level + 1, entriesAtLevel.length * 2);
+            entriesAtLevel = Arrays.copyOf(entriesAtLevel, length);
+            restoresAtLevel = Arrays.copyOf(restoresAtLevel, length);
+        }
+        entriesAtLevel[level] += levelEntries;
+        restoresAtLevel[level]++;
+    }
+
+    /**
+     * Records a restoration of the state.
+     *
+     * @param nLevels the number of levels restored
+     * @param time the time spent in nanoseconds
+     * @param entriesBefore the number of entries retained before the restoration
+     * @param bytesBefore the number of bytes retained before the restoration
+     * @param entries the number of entries retained after the restoration
+     * @param bytes the number of bytes retained after the restoration
+     */
+    void recordRestore(int nLevels, long time, long entriesBefore, long bytesBefore, long entries, long bytes) {
+        nRestores += nLevels;
+        restoreTime += time;
+        updateRetained(entriesBefore, bytesBefore);
+        updateRetained(entries, bytes);
+    }
+
+    private void updateRetained(long entries, long bytes) {
+        this.entries = entries;
+        this.bytes = bytes;
+        peakEntries = Math.max(peakEntries, entries);
+        peakBytes = Math.max(peakBytes, bytes);
+    }
+
+    public long numberOfSaves() {
+        return nSaves;
+    }
+
+    /**
+     * Returns the number of levels restored.
+     * @return the number of levels restored
+     */
+    public long numberOfRestores() {
+        return nRestores;
+    }
+
+    /**
+     * Returns the cumulative time spent saving the state.
+     * @return the time in nanoseconds
+     */
+    public long saveTime() {
+        return saveTime;
+    }
+
+    /**
+     * Returns the cumulative time spent restoring the state.
+     * @return the time in nanoseconds
+     */
+    public long restoreTime() {
+        return restoreTime;
+    }
+
+    /**
+     * Returns the number of entries retained to restore the state.
+     * @return the current size of the trail
+     */
+    public long trailSize() {
+        return entries;
+    }
+
+    /**
+     * Returns the largest number of entries retained to restore the state.
+     * @return the peak size of the trail
+     */
+    public long peakTrailSize() {
+        return peakEntries;
+    }
+
+    /**
+     * Returns the estimated number of bytes retained to restore the state.
+     * @return the bytes retained
+     */
+    public long retainedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the largest estimated number of bytes retained to restore the state.
+     * @return the peak of bytes retained
+     */
+    public long peakRetainedBytes() {
+        return peakBytes;
+    }
+
+    /**
+     * Returns the average number of entries pushed in a level,
+     * over the restorations of that level.
+     *
+     * @param level the level
+     * @return the average number of entries pushed in that level,
+     *         0 if the level was never restored
+     */
+    public double averageEntriesAtLevel(int level) {
+        if (level < 0 || level >= restoresAtLevel.length || restoresAtLevel[level] == 0)
+            return 0;
+        return (double) entriesAtLevel[level] / restoresAtLevel[level];
+    }
+
+    /**
+     * Returns the deepest level that has been restored.
+     * @return the deepest restored level, -1 if none
+     */
+    public int maxRestoredLevel() {
+        for (int level = restoresAtLevel.length - 1; level >= 0; level--)
+            if (restoresAtLevel[level] > 0)
+                return level;
+        return -1;
+    }
+
+    /**
+     * Describes the number of entries pushed per level.
+     *
+     * @return a line per restored level, with the average number of entries pushed
+     */
+    public String entriesPerLevel() {
+        StringBuilder b = new StringBuilder();
+        for (int level = 0; level <= maxRestoredLevel(); level++) {
+            b.append("\tlevel ").append(level).append(": ")
+                    .append(String.format("%.2f", averageEntriesAtLevel(level)))
+                    .append(" entries (").append(restoresAtLevel[level]).append(" restores)\n");
+        }
+        return b.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "\n\t#saves: " + nSaves
+                + "\n\t#restores: " + nRestores
+                + "\n\tsave time (ms): " + saveTime / 1000000
+                + "\n\trestore time (ms): " + restoreTime / 1000000
+                + "\n\ttrail size: " + entries
+                + "\n\tpeak trail size: " + peakEntries
+                + "\n\tretained bytes: " + bytes
+                + "\n\tpeak retained bytes: " + peakBytes + "\n";
+    }
+}
@@ -17,14 +17,49 @@ package minicp.state;
 
 
 /**
- * Implementation of {@link StateInt} with trail strategy
+ * Implementation of {@link StateInt} with trail strategy.
+ * The previous values are stored unboxed on the
+ * primitive trail of the {@link Trailer}.
  * @see Trailer
  * @see StateManager#makeStateInt(int)
  */
-public class TrailInt extends Trail<Integer> implements StateInt {
+public class TrailInt implements StateInt, Trailer.IntTrailable {
+
+    private final Trailer trail;
+    private int v;
+    private long lastMagic = -1L;
 
     protected TrailInt(Trailer trail, int initial) {
-        super(trail, initial);
+        this.trail = trail;
+        v = initial;
+        lastMagic = trail.getMagic() - 1;
+    }
+
+    @Override
+    public void restore(int index, int v) {
+        this.v = v;
+    }
+
+    @Override
+    public int setValue(int v) {
+        if (v != this.v) {
+            long trailMagic = trail.getMagic();
+            if (lastMagic != trailMagic) {
+                lastMagic = trailMagic;
+                trail.pushInt(this, 0, this.v);
+            }
+            this.v = v;
+        }
+        return this.v;
+    }
+
+    @Override
+    public int value() {
+        return this.v;
     }
 
+    @Override
+    public String toString() {
+        return "" + v;
+    }
 }
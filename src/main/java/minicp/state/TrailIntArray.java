@@ -0,0 +1,106 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateIntArray} with trail strategy.
+ * The entries already saved in the current level are marked in a dirty bitmap,
+ * such that each entry is pushed on the primitive trail
+ * of the {@link Trailer} at most once per level.
+ * @see Trailer
+ * @see StateManager#makeStateIntArray(int, int)
+ */
+public class TrailIntArray implements StateIntArray, Trailer.IntTrailable {
+
+    private final Trailer trail;
+    private final int[] values;
+    private final long[] dirty;     // entries already trailed in the current level
+    private final int[] dirtyWords; // indexes of the non zero words in dirty
+    private int nDirtyWords;
+    private long dirtyMagic;
+
+    protected TrailIntArray(Trailer trail, int n, int initial) {
+        this.trail = trail;
+        values = new int[n];
+        Arrays.fill(values, initial);
+        dirty = new long[(n + 63) >>> 6];
+        dirtyWords = new int[dirty.length];
+        nDirtyWords = 0;
+        dirtyMagic = trail.getMagic() - 1;
+    }
+
+    @Override
+    public void restore(int index, int v) {
+        values[index] = v;
+    }
+
+    private void trail(int i) {
+        long trailMagic = trail.getMagic();
+        if (dirtyMagic != trailMagic) {
+            // new level: forget the entries trailed previously
+            for (int k = 0; k < nDirtyWords; k++)
+                dirty[dirtyWords[k]] = 0L;
+            nDirtyWords = 0;
+            dirtyMagic = trailMagic;
+        }
+        int w = i >>> 6;
+        long bit = 1L << i; // << is a cyclic shift
+        if ((dirty[w] & bit) == 0L) {
+            if (dirty[w] == 0L)
+                dirtyWords[nDirtyWords++] = w;
+            dirty[w] |= bit;
+            trail.pushInt(this, i, values[i]);
+        }
+    }
+
+    @Override
+    public int get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public int set(int i, int v) {
+        if (v != values[i]) {
+            trail(i);
+            values[i] = v;
+        }
+        return v;
+    }
+
+    @Override
+    public void fill(int from, int to, int v) {
+        for (int i = from; i < to; i++)
+            set(i, v);
+    }
+
+    @Override
+    public void copyRange(int[] src, int srcPos, int destPos, int length) {
+        for (int k = 0; k < length; k++)
+            set(destPos + k, src[srcPos + k]);
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateLongArray} with trail strategy.
+ * Each entry is timestamped such that it is pushed on the
+ * primitive trail of the {@link Trailer} at most once per level.
+ * @see Trailer
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class TrailLongArray implements StateLongArray, Trailer.LongTrailable {
+
+    private final Trailer trail;
+    private final long[] values;
+    private final long[] lastMagic;
+
+    protected TrailLongArray(Trailer trail, int n, long initial) {
+        this.trail = trail;
+        values = new long[n];
+        Arrays.fill(values, initial);
+        lastMagic = new long[n];
+        Arrays.fill(lastMagic, trail.getMagic() - 1);
+    }
+
+    @Override
+    public void restore(int index, long v) {
+        values[index] = v;
+    }
+
+    @Override
+    public long get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public long set(int i, long v) {
+        if (v != values[i]) {
+            long trailMagic = trail.getMagic();
+            if (lastMagic[i] != trailMagic) {
+                lastMagic[i] = trailMagic;
+                trail.pushLong(this, i, values[i]);
+            }
+            values[i] = v;
+        }
+        return v;
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
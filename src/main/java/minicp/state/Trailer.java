@@ -18,6 +18,7 @@ package minicp.state;
 
 import minicp.util.Procedure;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
@@ -32,6 +33,32 @@ import java.util.Stack;
  */
 public class Trailer implements StateManager {
 
+    /**
+     * Object whose int values are saved on the primitive int trail.
+     */
+    interface IntTrailable {
+        /**
+         * Restores a value, called when unwinding the int trail.
+         *
+         * @param index the index of the value within the object
+         * @param value the value to restore
+         */
+        void restore(int index, int value);
+    }
+
+    /**
+     * Object whose long values are saved on the primitive long trail.
+     */
+    interface LongTrailable {
+        /**
+         * Restores a value, called when unwinding the long trail.
+         *
+         * @param index the index of the value within the object
+         * @param value the value to restore
+         */
+        void restore(int index, long value);
+    }
+
     static class Backup extends Stack<StateEntry> {
         Backup() {
         }
@@ -44,17 +71,45 @@ public class Trailer implements StateManager {
 
     private Stack<Backup> prior;
     private Backup current;
-    private long magic = 0L;
+    protected long magic = 0L;
+
+    // primitive trail for the StateInt and StateIntArray, kept apart from the entries to avoid boxing.
+    // The states are only referenced by their pending entries, nothing pins them once restored
+    private IntTrailable[] intTrailOwner; // int state of each entry of the trail, cleared once restored
+    private int[] intTrailIndex;   // index of the value within the int state
+    private int[] intTrailValue;   // value to restore for each entry of the trail
+    private int intTrailSize;
+    private int[] intTrailLimit;   // size of the int trail at each saveState()
+
+    // primitive trail for the StateLong and StateLongArray
+    private LongTrailable[] longTrailOwner; // long state of each entry of the trail, cleared once restored
+    private int[] longTrailIndex;  // index of the value within the long state
+    private long[] longTrailValue; // value to restore for each entry of the trail
+    private int longTrailSize;
+    private int[] longTrailLimit;  // size of the long trail at each saveState()
+    private long[] levelMagic;     // magic at each saveState(), identifying the level
 
     private List<Procedure> onRestoreListeners;
 
+    protected final StateStatistics statistics = new StateStatistics();
+    private long nEntries; // number of entries in the backups
+
     public Trailer() {
         prior = new Stack<Backup>();
         current = new Backup();
         onRestoreListeners = new LinkedList<Procedure>();
+        intTrailOwner = new IntTrailable[16];
+        intTrailIndex = new int[16];
+        intTrailValue = new int[16];
+        intTrailLimit = new int[16];
+        longTrailOwner = new LongTrailable[16];
+        longTrailIndex = new int[16];
+        longTrailValue = new long[16];
+        longTrailLimit = new int[16];
+        levelMagic = new long[16];
     }
 
-    private void notifyRestore() {
+    protected void notifyRestore() {
         for (Procedure l : onRestoreListeners) {
             l.call();
         }
@@ -71,6 +126,76 @@ public class Trailer implements StateManager {
 
     public void pushState(StateEntry entry) {
         current.push(entry);
+        nEntries++;
+    }
+
+    @Override
+    public StateStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the number of {@link StateEntry} retained to restore the state.
+     *
+     * @return the size of the object trail
+     */
+    protected long objectTrailSize() {
+        return nEntries;
+    }
+
+    /**
+     * Returns the number of entries retained to restore the state,
+     * on the object trail and on the primitive trails.
+     *
+     * @return the size of the trails
+     */
+    protected long trailSize() {
+        return objectTrailSize() + intTrailSize + longTrailSize;
+    }
+
+    /**
+     * Returns the estimated number of bytes retained to restore the state.
+     * An entry of the int trail holds a reference and two ints, and an entry
+     * of the long trail a reference, an int and a long, counting 4 bytes
+     * for a compressed reference.
+     *
+     * @return the estimated size in bytes of the trails
+     */
+    protected long trailBytes() {
+        return objectTrailSize() * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES + intTrailSize * 12L + longTrailSize * 16L;
+    }
+
+    /**
+     * Returns the number of entries pushed on the primitive trails since a level was created.
+     *
+     * @param level a level previously recorded with {@link #markPrimitiveTrails(int)}
+     * @return the number of entries of the primitive trails above that level
+     */
+    protected int primitiveEntriesSince(int level) {
+        return intTrailSize - intTrailLimit[level] + longTrailSize - longTrailLimit[level];
+    }
+
+    /**
+     * Pushes a value of an int state on the int trail,
+     * without any allocation (except when the trail grows).
+     *
+     * The trail only references the state until the entry is restored,
+     * such that a state no longer used can be garbage collected.
+     *
+     * @param owner the int state
+     * @param index the index of the value within the int state
+     * @param value the value to restore
+     */
+    void pushInt(IntTrailable owner, int index, int value) {
+        if (intTrailSize == intTrailOwner.length) {
+            intTrailOwner = Arrays.copyOf(intTrailOwner, intTrailSize * 2);
+            intTrailIndex = Arrays.copyOf(intTrailIndex, intTrailSize * 2);
+            intTrailValue = Arrays.copyOf(intTrailValue, intTrailSize * 2);
+        }
+        intTrailOwner[intTrailSize] = owner;
+        intTrailIndex[intTrailSize] = index;
+        intTrailValue[intTrailSize] = value;
+        intTrailSize++;
     }
 
     @Override
@@ -78,19 +203,97 @@ public class Trailer implements StateManager {
         return prior.size() - 1;
     }
 
+    /**
+     * Pushes a value of a long state on the long trail,
+     * without any allocation (except when the trail grows).
+     *
+     * @param owner the long state
+     * @param index the index of the value within the long state
+     * @param value the value to restore
+     */
+    void pushLong(LongTrailable owner, int index, long value) {
+        if (longTrailSize == longTrailOwner.length) {
+            longTrailOwner = Arrays.copyOf(longTrailOwner, longTrailSize * 2);
+            longTrailIndex = Arrays.copyOf(longTrailIndex, longTrailSize * 2);
+            longTrailValue = Arrays.copyOf(longTrailValue, longTrailSize * 2);
+        }
+        longTrailOwner[longTrailSize] = owner;
+        longTrailIndex[longTrailSize] = index;
+        longTrailValue[longTrailSize] = value;
+        longTrailSize++;
+    }
+
+    /**
+     * Records the current size of the primitive trails as the start of a level,
+     * and the current magic as its identifier.
+     *
+     * @param level the level being created by {@link #saveState()}, after its magic is set
+     */
+    protected void markPrimitiveTrails(int level) {
+        if (level == intTrailLimit.length) {
+            intTrailLimit = Arrays.copyOf(intTrailLimit, level * 2);
+            longTrailLimit = Arrays.copyOf(longTrailLimit, level * 2);
+            levelMagic = Arrays.copyOf(levelMagic, level * 2);
+        }
+        intTrailLimit[level] = intTrailSize;
+        longTrailLimit[level] = longTrailSize;
+        levelMagic[level] = magic;
+    }
+
+    @Override
+    public long getLevelId(int level) {
+        return levelMagic[level];
+    }
+
+    /**
+     * Restores every primitive state changed since the given level was created.
+     *
+     * @param level a level previously recorded with {@link #markPrimitiveTrails(int)}
+     */
+    protected void restorePrimitiveTrails(int level) {
+        int limit = intTrailLimit[level];
+        for (int i = intTrailSize - 1; i >= limit; i--) {
+            intTrailOwner[i].restore(intTrailIndex[i], intTrailValue[i]);
+            intTrailOwner[i] = null;
+        }
+        intTrailSize = limit;
+        limit = longTrailLimit[level];
+        for (int i = longTrailSize - 1; i >= limit; i--) {
+            longTrailOwner[i].restore(longTrailIndex[i], longTrailValue[i]);
+            longTrailOwner[i] = null;
+        }
+        longTrailSize = limit;
+    }
+
     @Override
     public void saveState() {
+        long start = statistics.isEnabled() ? System.nanoTime() : 0;
         prior.add(current);
-        current = new Backup();
         magic++;
+        markPrimitiveTrails(getLevel());
+        current = new Backup();
+        if (statistics.isEnabled())
+            statistics.recordSave(System.nanoTime() - start, trailSize(), trailBytes());
     }
 
 
     @Override
     public void restoreState() {
+        boolean enabled = statistics.isEnabled();
+        long start = 0, entriesBefore = 0, bytesBefore = 0;
+        if (enabled) {
+            start = System.nanoTime();
+            entriesBefore = trailSize();
+            bytesBefore = trailBytes();
+            statistics.recordLevel(getLevel(), current.size() + primitiveEntriesSince(getLevel()));
+        }
         current.restore();
+        nEntries -= current.size();
+        restorePrimitiveTrails(getLevel());
         current = prior.pop();
         magic++;
+        if (enabled)
+            statistics.recordRestore(1, System.nanoTime() - start, entriesBefore, bytesBefore, trailSize(), trailBytes());
         notifyRestore();
     }
 
@@ -118,6 +321,21 @@ public class Trailer implements StateManager {
         return new TrailInt(this,initValue);
     }
 
+    @Override
+    public StateIntArray makeStateIntArray(int n, int initValue) {
+        return new TrailIntArray(this, n, initValue);
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        return new TrailLong(this, initValue);
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        return new TrailLongArray(this, n, initValue);
+    }
+
     @Override
     public StateMap makeStateMap() {
         return new TrailMap(this);
@@ -20,6 +20,10 @@ import com.github.guillaumederval.javagrading.GradingRunnerWithParametersFactory
 import minicp.engine.core.MiniCP;
 import minicp.engine.core.Solver;
 import minicp.state.Copier;
+import minicp.state.FlatTrailer;
+import minicp.state.HybridStateManager;
+import minicp.state.IncrementalCopier;
+import minicp.state.OffHeapArrayTrailer;
 import minicp.state.Trailer;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -34,7 +38,11 @@ public abstract class SolverTest {
     public static Supplier<Solver>[] data() {
         return new Supplier[]{
                 () -> new MiniCP(new Trailer()),
+                () -> new MiniCP(new FlatTrailer()),
+                () -> new MiniCP(new OffHeapArrayTrailer()),
+                () -> new MiniCP(new HybridStateManager()),
                 () -> new MiniCP(new Copier()),
+                () -> new MiniCP(new IncrementalCopier()),
         };
     }
 
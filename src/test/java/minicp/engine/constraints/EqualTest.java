@@ -110,5 +110,49 @@ public class EqualTest extends SolverTest {
 
     }
 
+    @Test
+    public void equalAfterBacktrack() {
+        try {
+
+            Solver cp = solverFactory.get();
+            IntVar x = makeIntVar(cp,0,20);
+            IntVar y = minus(makeIntVar(cp,-15,5));
+
+            cp.post(equal(x,y));
+            assertEquals(16, x.size());
+
+            cp.getStateManager().saveState();
+            x.remove(3);
+            y.remove(7);
+            x.removeAbove(12);
+            cp.fixPoint();
+
+            assertTrue(equalDom(x,y));
+            assertEquals(11, x.size());
+            assertEquals(11, y.size());
+
+            // the values removed before the restoration must not be removed again
+            cp.getStateManager().restoreState();
+            y.remove(10);
+            cp.fixPoint();
+
+            assertTrue(x.contains(3));
+            assertFalse(x.contains(10));
+            assertEquals(15, x.size());
+            assertEquals(15, y.size());
+
+            DFSearch search = makeDfs(cp, firstFail(x));
+            search.onSolution(() -> assertEquals(x.min(), y.min()));
+            SearchStatistics stats = search.solve();
+            assertEquals(15, stats.numberOfSolutions());
+
+        } catch (InconsistencyException e) {
+            fail("should not fail");
+        } catch (NotImplementedException e) {
+            NotImplementedExceptionAssume.fail(e);
+        }
+
+    }
+
 
 }
@@ -0,0 +1,74 @@
+package minicp.engine.constraints.sequence;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.SequenceVar;
+import minicp.engine.core.SequenceVarImpl;
+import minicp.engine.core.Solver;
+import minicp.state.StateManager;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static minicp.cp.Factory.makeIntVar;
+import static org.junit.Assert.*;
+
+public class DistanceTest extends SolverTest {
+
+    private static int routeLength(SequenceVar seq, int[][] transition) {
+        int[] order = new int[seq.nNodes(true)];
+        int n = seq.fillOrder(order, true);
+        int length = 0;
+        for (int i = 1; i < n; ++i)
+            length += transition[order[i]][order[i - 1]];
+        return length;
+    }
+
+    @Test
+    public void testDistanceOnInsertions() {
+        int nNodes = 6;
+        // asymmetric transitions where the detour of a node does not depend on where it is inserted
+        Random random = new Random(42);
+        int[] f = new int[nNodes + 2];
+        int[] g = new int[nNodes + 2];
+        for (int i = 0; i < nNodes + 2; ++i) {
+            f[i] = random.nextInt(10);
+            g[i] = random.nextInt(10);
+        }
+        int[][] transition = new int[nNodes + 2][nNodes + 2];
+        for (int i = 0; i < nNodes + 2; ++i)
+            for (int j = 0; j < nNodes + 2; ++j)
+                transition[i][j] = i == j ? 0 : f[i] + g[j] + 5;
+
+        for (int run = 0; run < 3; ++run) {
+            Solver cp = solverFactory.get();
+            StateManager sm = cp.getStateManager();
+            SequenceVar seq = new SequenceVarImpl(cp, nNodes, nNodes, nNodes + 1);
+            IntVar distance = makeIntVar(cp, 0, 10000);
+            cp.post(new Distance(seq, transition, distance));
+
+            Random order = new Random(run);
+            for (int node = 0; node < nNodes; ++node) {
+                sm.saveState();
+                // insert the node after a random member of the sequence
+                int[] scheduled = new int[nNodes + 2];
+                int n = seq.fillOrder(scheduled, true);
+                int pred = scheduled[order.nextInt(n - 1)];
+                seq.schedule(node, pred);
+                cp.fixPoint();
+                assertTrue(distance.min() >= routeLength(seq, transition));
+                if (node == nNodes / 2) {
+                    // a branch that is undone
+                    sm.saveState();
+                    seq.schedule(node + 1, seq.begin());
+                    cp.fixPoint();
+                    sm.restoreState();
+                }
+            }
+            assertTrue(seq.isBound());
+            assertTrue(distance.isBound());
+            assertEquals(routeLength(seq, transition), distance.min());
+        }
+    }
+
+}
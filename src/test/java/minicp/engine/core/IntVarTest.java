@@ -392,5 +392,174 @@ public class IntVarTest extends SolverTest {
         }
     }
 
+    private static Set<Integer> deltaValues(DeltaIntVar delta) {
+        int[] values = new int[delta.size()];
+        int n = delta.fillArray(values);
+        assertEquals(delta.size(), n);
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < n; i++)
+            set.add(values[i]);
+        return set;
+    }
+
+    @Test
+    public void testDelta() {
+        for (boolean lazy : new boolean[] {false, true}) {
+            Solver cp = solverFactory.get();
+            IntVar x = new IntVarImpl(cp, 0, 9, lazy);
+            IntVar[] views = new IntVar[] {x, plus(x, 3), minus(x), mul(x, 2)};
+            DeltaIntVar[] deltas = new DeltaIntVar[views.length];
+            for (int i = 0; i < views.length; i++)
+                deltas[i] = views[i].delta();
+
+            cp.getStateManager().saveState();
+            x.removeBelow(2);
+            x.remove(5);
+            x.remove(9);
+            assertTrue(deltas[0].changed());
+            assertTrue(deltas[0].minChanged());
+            assertTrue(deltas[0].maxChanged());
+            assertEquals(0, deltas[0].oldMin());
+            assertEquals(Set.of(0, 1, 5, 9), deltaValues(deltas[0]));
+            assertEquals(Set.of(3, 4, 8, 12), deltaValues(deltas[1]));
+            assertEquals(Set.of(0, -1, -5, -9), deltaValues(deltas[2]));
+            assertEquals(Set.of(0, 2, 10, 18), deltaValues(deltas[3]));
+            for (DeltaIntVar delta : deltas)
+                delta.update();
+            assertFalse(deltas[0].changed());
+
+            cp.getStateManager().saveState();
+            x.remove(3);
+            x.removeAbove(6);
+            assertEquals(Set.of(3, 7, 8), deltaValues(deltas[0]));
+            assertEquals(Set.of(-3, -7, -8), deltaValues(deltas[2]));
+
+            // the snapshot is restored with the domain
+            cp.getStateManager().restoreState();
+            assertFalse(deltas[0].changed());
+            cp.getStateManager().restoreState();
+            assertFalse(deltas[0].changed());
+            assertEquals(10, x.size());
+        }
+    }
+
+    @Test
+    public void testEventsNotifiedOncePerPropagation() {
+        Solver cp = solverFactory.get();
+        IntVar x = makeIntVar(cp, 0, 9);
+        int[] propagations = new int[2];
+        Constraint first = new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                x.propagateOnDomainChange(this);
+                x.propagateOnBoundChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagations[0]++;
+            }
+        };
+        Constraint second = new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagations[1]++;
+            }
+        };
+        cp.post(first);
+        x.remove(5);
+        x.removeBelow(1);
+        x.removeAbove(8);
+        // registered after the first events, it must still be scheduled when they are notified
+        cp.post(second, false);
+        x.remove(3);
+        cp.fixPoint();
+        assertArrayEquals(new int[] {1, 1}, propagations);
+
+        // once propagated, the constraints are scheduled again by new events
+        x.remove(4);
+        cp.fixPoint();
+        assertArrayEquals(new int[] {2, 2}, propagations);
+
+        // the events pending when a post fails are notified at the next fix-point
+        cp.getStateManager().saveState();
+        try {
+            cp.post(new AbstractConstraint(cp) {
+                @Override
+                public void post() {
+                    x.remove(6);
+                    throw InconsistencyException.INCONSISTENCY;
+                }
+            });
+            fail();
+        } catch (InconsistencyException e) {
+        }
+        cp.getStateManager().restoreState();
+        x.remove(6);
+        cp.fixPoint();
+        assertArrayEquals(new int[] {3, 3}, propagations);
+    }
+
+    @Test
+    public void testIntervalVar() {
+        Solver cp = solverFactory.get();
+        IntVar x = makeIntervalVar(cp, -100_000, 900_000);
+        DeltaIntVar delta = x.delta();
+        boolean[] called = new boolean[3];
+        cp.post(new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                x.whenBoundsChange(() -> called[0] = true);
+                x.whenDomainChange(() -> called[1] = true);
+                x.whenBind(() -> called[2] = true);
+            }
+        });
+        assertEquals(1_000_001, x.size());
+
+        cp.getStateManager().saveState();
+        x.removeBelow(10);
+        x.remove(10); // removing a bound is supported
+        x.removeAbove(15);
+        x.remove(15);
+        cp.fixPoint();
+        assertEquals(11, x.min());
+        assertEquals(14, x.max());
+        assertEquals(4, x.size());
+        assertFalse(x.contains(10));
+        assertTrue(x.contains(12));
+        assertTrue(called[0] && called[1] && !called[2]);
+        int[] values = new int[4];
+        assertEquals(4, x.fillArray(values));
+        assertArrayEquals(new int[] {11, 12, 13, 14}, values);
+        assertEquals(1_000_001 - 4, delta.size());
+        try {
+            x.remove(12);
+            fail("a value strictly between the bounds cannot be removed");
+        } catch (UnsupportedOperationException e) {
+        }
+        x.assign(13);
+        cp.fixPoint();
+        assertTrue(called[2]);
+        assertTrue(x.isBound());
+        try {
+            x.remove(13);
+            fail();
+        } catch (InconsistencyException e) {
+        }
+
+        cp.getStateManager().restoreState();
+        assertEquals(-100_000, x.min());
+        assertEquals(900_000, x.max());
+        try {
+            x.removeAbove(-100_001);
+            fail();
+        } catch (InconsistencyException e) {
+        }
+    }
 
 }
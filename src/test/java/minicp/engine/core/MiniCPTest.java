@@ -20,6 +20,9 @@ import minicp.search.DFSearch;
 import minicp.search.SearchStatistics;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static minicp.cp.BranchingScheme.*;
 import static minicp.cp.Factory.*;
 import static org.junit.Assert.assertEquals;
@@ -75,4 +78,46 @@ public class MiniCPTest extends SolverTest {
     }
 
 
+    @Test
+    public void testPriorityOrder() {
+        Solver cp = solverFactory.get();
+        IntVar x = makeIntVar(cp, 0, 10);
+        List<String> propagated = new ArrayList<>();
+
+        class Recorder extends AbstractConstraint {
+            private final String name;
+            private final Priority priority;
+
+            Recorder(String name, Priority priority) {
+                super(cp);
+                this.name = name;
+                this.priority = priority;
+            }
+
+            @Override
+            public Priority priority() {
+                return priority;
+            }
+
+            @Override
+            public void post() {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagated.add(name);
+            }
+        }
+
+        cp.post(new Recorder("slow", Constraint.Priority.SLOW));
+        cp.post(new Recorder("medium", Constraint.Priority.MEDIUM));
+        cp.post(new Recorder("fast", Constraint.Priority.FAST));
+        propagated.clear();
+
+        x.remove(5);
+        cp.fixPoint();
+        assertEquals(List.of("fast", "medium", "slow"), propagated);
+    }
+
 }
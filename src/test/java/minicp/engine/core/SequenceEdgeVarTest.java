@@ -0,0 +1,370 @@
+package minicp.engine.core;
+
+import minicp.cp.Factory;
+import minicp.engine.SolverTest;
+import minicp.state.StateManager;
+import minicp.util.exception.InconsistencyException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SequenceEdgeVarTest extends SolverTest {
+
+    static final int nNodes = 10;
+
+    Solver cp;
+    StateManager sm;
+    SequenceEdgeVar sequence;
+    int[] values = new int[nNodes + 2];
+    boolean propagateFixCalled;
+    boolean propagateInsertCalled;
+    boolean propagateExcludeCalled;
+
+    @Before
+    public void SetUp() {
+        cp = solverFactory.get();
+        sm = cp.getStateManager();
+        sequence = Factory.makeSequenceEdgeVar(cp, nNodes);
+    }
+
+    private int[] sorted(int[] array, int size) {
+        int[] res = Arrays.copyOfRange(array, 0, size);
+        Arrays.sort(res);
+        return res;
+    }
+
+    /**
+     * check the order of the sequence and the status of the nodes
+     * @param order expected order of the sequence, without begin and end
+     * @param excluded expected excluded nodes
+     */
+    private void isSequenceValid(int[] order, int[] excluded) {
+        int[] expectedOrder = new int[order.length + 2];
+        expectedOrder[0] = sequence.begin();
+        System.arraycopy(order, 0, expectedOrder, 1, order.length);
+        expectedOrder[order.length + 1] = sequence.end();
+        int size = sequence.fillOrder(values);
+        assertArrayEquals(expectedOrder, Arrays.copyOfRange(values, 0, size));
+        assertEquals(order.length, sequence.nScheduled());
+        assertEquals(order.length + 2, sequence.nRequired());
+        assertEquals(excluded.length, sequence.nExcluded());
+        assertEquals(nNodes - order.length - excluded.length, sequence.nPossible());
+        for (int i = 0; i < expectedOrder.length - 1; ++i) {
+            assertEquals(expectedOrder[i + 1], sequence.nextMember(expectedOrder[i]));
+            assertEquals(expectedOrder[i], sequence.predMember(expectedOrder[i + 1]));
+            assertTrue(sequence.hasEdge(expectedOrder[i], expectedOrder[i + 1]));
+        }
+        size = sequence.fillExcluded(values);
+        int[] sortedExcluded = excluded.clone();
+        Arrays.sort(sortedExcluded);
+        assertArrayEquals(sortedExcluded, sorted(values, size));
+        for (int node : excluded) {
+            assertTrue(sequence.isExcluded(node));
+            assertEquals(0, sequence.nPredecessors(node));
+            assertEquals(0, sequence.nSuccessors(node));
+        }
+        assertEdgeCountsConsistent();
+    }
+
+    /**
+     * check that the counters and the fill methods agree on every node
+     */
+    private void assertEdgeCountsConsistent() {
+        int n = nNodes + 2;
+        int[] dest = new int[n];
+        for (int node = 0; node < n; ++node) {
+            int nPred = 0, nSchedPred = 0, nSucc = 0, nSchedSucc = 0;
+            for (int other = 0; other < n; ++other) {
+                if (sequence.hasEdge(other, node)) {
+                    nPred++;
+                    if (sequence.isScheduled(other))
+                        nSchedPred++;
+                    assertFalse(sequence.isExcluded(other));
+                }
+                if (sequence.hasEdge(node, other)) {
+                    nSucc++;
+                    if (sequence.isScheduled(other))
+                        nSchedSucc++;
+                }
+            }
+            assertEquals(nPred, sequence.nPredecessors(node));
+            assertEquals(nSchedPred, sequence.nScheduledPredecessors(node));
+            assertEquals(nPred - nSchedPred, sequence.nPossiblePredecessors(node));
+            assertEquals(nSucc, sequence.nSuccessors(node));
+            assertEquals(nSchedSucc, sequence.nScheduledSuccessors(node));
+            assertEquals(nSucc - nSchedSucc, sequence.nPossibleSuccessors(node));
+            assertEquals(nPred, sequence.fillPredecessors(node, dest));
+            assertEquals(nSchedPred, sequence.fillScheduledPredecessors(node, dest));
+            for (int i = 0; i < nSchedPred; ++i)
+                assertTrue(sequence.isScheduled(dest[i]) && sequence.hasEdge(dest[i], node));
+            assertEquals(nPred - nSchedPred, sequence.fillPossiblePredecessors(node, dest));
+            for (int i = 0; i < nPred - nSchedPred; ++i)
+                assertTrue(sequence.isPossible(dest[i]) && sequence.hasEdge(dest[i], node));
+            assertEquals(nSucc, sequence.fillSuccessors(node, dest));
+            assertEquals(nSchedSucc, sequence.fillScheduledSuccessors(node, dest));
+            for (int i = 0; i < nSchedSucc; ++i)
+                assertTrue(sequence.isScheduled(dest[i]) && sequence.hasEdge(node, dest[i]));
+            assertEquals(nSucc - nSchedSucc, sequence.fillPossibleSuccessors(node, dest));
+            for (int i = 0; i < nSucc - nSchedSucc; ++i)
+                assertTrue(sequence.isPossible(dest[i]) && sequence.hasEdge(node, dest[i]));
+        }
+    }
+
+    private void assertInconsistent(Runnable operation) {
+        try {
+            operation.run();
+            fail("the operation should throw an inconsistency");
+        } catch (InconsistencyException e) {
+        }
+    }
+
+    /**
+     * test if the sequence is constructed with the right number of nodes and edges
+     */
+    @Test
+    public void testSequenceEdgeVar() {
+        assertEquals(nNodes, sequence.nNodes());
+        assertEquals(10, sequence.begin());
+        assertEquals(11, sequence.end());
+        assertEquals(sequence.end(), sequence.nextMember(sequence.begin()));
+        assertEquals(sequence.begin(), sequence.predMember(sequence.end()));
+        isSequenceValid(new int[] {}, new int[] {});
+        for (int i = 0; i < nNodes; ++i) {
+            assertEquals(nNodes, sequence.nPredecessors(i)); // begin and the other nodes
+            assertEquals(1, sequence.nScheduledPredecessors(i));
+            assertEquals(nNodes, sequence.nSuccessors(i));   // end and the other nodes
+            assertEquals(1, sequence.nScheduledSuccessors(i));
+            assertFalse(sequence.hasEdge(i, i));
+            assertTrue(sequence.hasEdge(sequence.begin(), i));
+            assertTrue(sequence.hasEdge(i, sequence.end()));
+            assertFalse(sequence.hasEdge(i, sequence.begin()));
+            assertFalse(sequence.hasEdge(sequence.end(), i));
+            assertTrue(sequence.canInsert(sequence.begin(), i));
+            assertFalse(sequence.canInsert(sequence.end(), i));
+        }
+        assertTrue(sequence.hasEdge(sequence.begin(), sequence.end()));
+    }
+
+    /**
+     * test for the insertion of nodes within the sequence
+     */
+    @Test
+    public void testInsert() {
+        sm.saveState();
+
+        sequence.insert(sequence.begin(), 0);
+        sequence.insert(0, 2);
+        int[] order1 = new int[] {0, 2};
+        isSequenceValid(order1, new int[] {});
+        assertFalse(sequence.hasEdge(sequence.begin(), sequence.end()));
+        assertFalse(sequence.hasEdge(sequence.begin(), 2));
+        assertFalse(sequence.hasEdge(2, 0));
+        assertFalse(sequence.hasEdge(0, sequence.end()));
+        assertTrue(sequence.hasEdge(0, 5));
+        assertTrue(sequence.hasEdge(5, 2));
+        assertEquals(3, sequence.nScheduledPredecessors(5)); // begin, 0 and 2
+        assertEquals(1, sequence.nScheduledPredecessors(2)); // only 0, its predecessor in the sequence
+
+        sm.saveState();
+
+        sequence.insert(sequence.begin(), 8);
+        sequence.insert(2, 5);
+        int[] order2 = new int[] {8, 0, 2, 5};
+        isSequenceValid(order2, new int[] {});
+
+        sm.saveState();
+
+        sequence.insert(8, 3);
+        sequence.insert(2, 7);
+        sequence.insert(0, 4);
+        int[] order3 = new int[] {8, 3, 0, 4, 2, 7, 5};
+        isSequenceValid(order3, new int[] {});
+        // inserting the same node twice at the same place is accepted
+        sequence.insert(0, 4);
+        isSequenceValid(order3, new int[] {});
+        assertInconsistent(() -> sequence.insert(2, 4));
+
+        sm.restoreState();
+        isSequenceValid(order2, new int[] {});
+        sm.restoreState();
+        isSequenceValid(order1, new int[] {});
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {});
+    }
+
+    /**
+     * test for exclusion of nodes within the sequence
+     */
+    @Test
+    public void testExclude() {
+        sm.saveState();
+
+        sequence.exclude(0);
+        sequence.exclude(2);
+        isSequenceValid(new int[] {}, new int[] {0, 2});
+        assertFalse(sequence.hasEdge(0, 1));
+        assertFalse(sequence.hasEdge(1, 2));
+        assertEquals(nNodes - 2, sequence.nPredecessors(1));
+
+        sm.saveState();
+
+        sequence.insert(sequence.begin(), 1);
+        assertInconsistent(() -> sequence.insert(1, 0));
+        assertInconsistent(() -> sequence.exclude(1));
+        sequence.excludeAllPossible();
+        assertTrue(sequence.isBound());
+        isSequenceValid(new int[] {1}, new int[] {0, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {0, 2});
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {});
+    }
+
+    /**
+     * test for the removal of edges, both from the predecessors and the successors
+     */
+    @Test
+    public void testRemoveEdge() {
+        sm.saveState();
+        sequence.removeEdge(3, 4);
+        assertFalse(sequence.hasEdge(3, 4));
+        assertTrue(sequence.hasEdge(4, 3));
+        assertEquals(nNodes - 1, sequence.nSuccessors(3));
+        assertEquals(nNodes - 1, sequence.nPredecessors(4));
+        assertEdgeCountsConsistent();
+
+        sequence.insert(sequence.begin(), 3);
+        assertFalse(sequence.canInsert(3, 4));
+        assertTrue(sequence.canInsert(sequence.begin(), 4));
+
+        // a node that cannot be reached anymore is excluded
+        sequence.removeAllEdgesTo(6);
+        assertTrue(sequence.isExcluded(6));
+        // a node that cannot be left anymore is excluded
+        sequence.removeAllEdgesFrom(7);
+        assertTrue(sequence.isExcluded(7));
+        isSequenceValid(new int[] {3}, new int[] {6, 7});
+
+        // removing the successors of a scheduled node makes the sequence inconsistent
+        assertInconsistent(() -> sequence.removeAllEdgesFrom(3));
+
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {});
+        assertTrue(sequence.hasEdge(3, 4));
+    }
+
+    /**
+     * test for the insertion vars, whose insertions are the predecessors of the node
+     */
+    @Test
+    public void testInsertionVar() {
+        InsertionVar var = sequence.getInsertionVar(4);
+        assertNull(sequence.getInsertionVar(sequence.begin()));
+        assertEquals(4, var.node());
+        assertEquals(nNodes, var.size());
+        sequence.insert(sequence.begin(), 1);
+        var.removeInsert(1);
+        assertFalse(sequence.hasEdge(1, 4));
+        assertEquals(nNodes - 1, var.fillInsertions(values));
+        var.removeAllInsertBut(2);
+        assertEquals(1, sequence.nPredecessors(4));
+        assertTrue(sequence.hasEdge(2, 4));
+        assertFalse(var.isBound());
+        sequence.insert(1, 2);
+        sequence.insert(2, 4);
+        assertTrue(var.isBound());
+        isSequenceValid(new int[] {1, 2, 4}, new int[] {});
+    }
+
+    /**
+     * test for calls to propagation within the sequence and its insertion vars
+     */
+    @Test
+    public void testPropagation() {
+        boolean[] changed = new boolean[nNodes];
+        Constraint cons = new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                sequence.whenFixed(() -> propagateFixCalled = true);
+                sequence.whenInsert(() -> propagateInsertCalled = true);
+                sequence.whenExclude(() -> propagateExcludeCalled = true);
+                for (int i = 0; i < nNodes; ++i) {
+                    int finalI = i;
+                    sequence.getInsertionVar(i).whenDomainChange(() -> changed[finalI] = true);
+                }
+            }
+        };
+        cp.post(cons);
+
+        sequence.insert(sequence.begin(), 2);
+        cp.fixPoint();
+        assertTrue(propagateInsertCalled);
+        assertFalse(propagateExcludeCalled);
+        assertFalse(propagateFixCalled);
+        propagateInsertCalled = false;
+
+        Arrays.fill(changed, false);
+        sequence.removeEdge(5, 3);
+        cp.fixPoint();
+        assertTrue(changed[3]);
+        assertFalse(changed[5]);
+
+        sequence.exclude(4);
+        cp.fixPoint();
+        assertTrue(propagateExcludeCalled);
+        assertFalse(propagateInsertCalled);
+        assertFalse(propagateFixCalled);
+
+        sequence.excludeAllPossible();
+        cp.fixPoint();
+        assertTrue(propagateFixCalled);
+    }
+
+    @Test
+    public void testRandomOperationsKeepEdgesConsistent() {
+        Random random = new Random(0);
+        int[] nodes = new int[nNodes + 2];
+        for (int run = 0; run < 20; ++run) {
+            sm.saveState();
+            try {
+                while (!sequence.isBound()) {
+                    sm.saveState();
+                    int n = sequence.fillPossible(nodes);
+                    int node = nodes[random.nextInt(n)];
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            int nInsert = sequence.fillScheduledPredecessors(node, nodes);
+                            if (nInsert > 0) {
+                                int pred = nodes[random.nextInt(nInsert)];
+                                if (sequence.canInsert(pred, node))
+                                    sequence.insert(pred, node);
+                            }
+                            break;
+                        case 1:
+                            sequence.exclude(node);
+                            break;
+                        case 2:
+                            int nPred = sequence.fillPredecessors(node, nodes);
+                            sequence.removeEdge(nodes[random.nextInt(nPred)], node);
+                            break;
+                        default:
+                            int nSucc = sequence.fillSuccessors(node, nodes);
+                            sequence.removeEdge(node, nodes[random.nextInt(nSucc)]);
+                    }
+                    assertEdgeCountsConsistent();
+                }
+            } catch (InconsistencyException e) {
+            }
+            while (sm.getLevel() >= 0) {
+                sm.restoreState();
+                assertEdgeCountsConsistent();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package minicp.engine.core;
+
+/**
+ * Runs the tests of {@link SequenceVarTest} on {@link SequenceVarCompactImpl}
+ */
+public class SequenceVarCompactTest extends SequenceVarTest {
+
+    @Override
+    protected SequenceVar makeSequenceVar(Solver cp, int nNodes, int begin, int end) {
+        return new SequenceVarCompactImpl(cp, nNodes, begin, end);
+    }
+
+}
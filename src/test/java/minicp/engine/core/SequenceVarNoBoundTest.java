@@ -0,0 +1,254 @@
+package minicp.engine.core;
+
+import minicp.engine.SolverTest;
+import minicp.state.StateManager;
+import minicp.util.exception.InconsistencyException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static minicp.engine.core.SequenceVarNoBound.BOTTOM;
+import static org.junit.Assert.*;
+
+public class SequenceVarNoBoundTest extends SolverTest {
+
+    static final int nNodes = 10;
+
+    Solver cp;
+    StateManager sm;
+    SequenceVarNoBound sequence;
+    int[] values = new int[nNodes + 1];
+
+    @Before
+    public void SetUp() {
+        cp = solverFactory.get();
+        sm = cp.getStateManager();
+        sequence = new SequenceVarNoBoundImpl(cp, nNodes);
+    }
+
+    /**
+     * check the order of the sequence, the status of the nodes and the insertions of the possible nodes
+     * @param order expected order of the sequence
+     * @param excluded expected excluded nodes
+     */
+    private void isSequenceValid(int[] order, int[] excluded) {
+        assertEquals(order.length, sequence.fillOrder(values));
+        assertArrayEquals(order, Arrays.copyOfRange(values, 0, order.length));
+        assertEquals(order.length, sequence.nScheduled());
+        assertEquals(excluded.length, sequence.fillExcluded(values));
+        assertEquals(sequence.nNodes() - order.length - excluded.length, sequence.nPossible());
+        assertEquals(order.length > 0 ? order[0] : BOTTOM, sequence.nextMember(BOTTOM));
+        assertEquals(order.length > 0 ? order[order.length - 1] : BOTTOM, sequence.predMember(BOTTOM));
+        for (int i = 0; i < order.length; ++i) {
+            assertTrue(sequence.isScheduled(order[i]));
+            assertEquals(i == 0 ? BOTTOM : order[i - 1], sequence.predMember(order[i]));
+            assertEquals(i == order.length - 1 ? BOTTOM : order[i + 1], sequence.nextMember(order[i]));
+        }
+        for (int node : excluded) {
+            assertTrue(sequence.isExcluded(node));
+            assertEquals(0, sequence.nInsertions(node));
+        }
+        assertInsertionCountsConsistent();
+    }
+
+    private void assertInsertionCountsConsistent() {
+        int[] dest = new int[sequence.nNodes() + 1];
+        for (int node = 0; node < sequence.nNodes(); ++node) {
+            if (!sequence.isPossible(node))
+                continue;
+            int nScheduled = 0, nPossible = 0;
+            for (int pred = BOTTOM; pred < sequence.nNodes(); ++pred) {
+                if (sequence.isInsertion(node, pred)) {
+                    assertNotEquals(node, pred);
+                    assertFalse(sequence.isExcluded(pred));
+                    if (sequence.isScheduled(pred))
+                        nScheduled++;
+                    else
+                        nPossible++;
+                }
+            }
+            assertEquals(nScheduled, sequence.nScheduledInsertions(node));
+            assertEquals(nPossible, sequence.nPossibleInsertions(node));
+            assertEquals(nScheduled + nPossible, sequence.nInsertions(node));
+            assertEquals(nScheduled + nPossible, sequence.fillInsertions(node, dest));
+            assertEquals(nScheduled, sequence.fillScheduledInsertions(node, dest));
+            for (int i = 0; i < nScheduled; ++i)
+                assertTrue(sequence.canSchedule(node, dest[i]));
+            assertEquals(nPossible, sequence.fillPossibleInsertions(node, dest));
+            for (int i = 0; i < nPossible; ++i)
+                assertTrue(sequence.isPossible(dest[i]) && sequence.isInsertion(node, dest[i]));
+        }
+    }
+
+    @Test
+    public void testSequenceVarNoBound() {
+        assertEquals(cp, sequence.getSolver());
+        assertEquals(nNodes, sequence.nNodes());
+        assertFalse(sequence.isBound());
+        isSequenceValid(new int[] {}, new int[] {});
+        for (int i = 0; i < nNodes; ++i) {
+            assertEquals(nNodes, sequence.fillInsertions(i, values)); // bottom and the other nodes
+            assertEquals(1, sequence.nScheduledInsertions(i));
+            assertTrue(sequence.canSchedule(i, BOTTOM));
+            assertFalse(sequence.isInsertion(i, i));
+        }
+    }
+
+    @Test
+    public void testSequenceVarFromSet() {
+        sequence = new SequenceVarNoBoundImpl(cp, Set.of(1, 3, 4, 7));
+        assertEquals(8, sequence.nNodes());
+        isSequenceValid(new int[] {}, new int[] {0, 2, 5, 6});
+        assertEquals(4, sequence.nInsertions(3)); // bottom, 1, 4 and 7
+    }
+
+    @Test
+    public void testSchedule() {
+        sm.saveState();
+
+        sequence.schedule(0, BOTTOM);
+        sequence.schedule(2, 0);
+        int[] order1 = new int[] {0, 2};
+        isSequenceValid(order1, new int[] {});
+
+        sm.saveState();
+
+        sequence.schedule(8, BOTTOM);
+        sequence.schedule(5, 2);
+        sequence.schedule(3, 8);
+        int[] order2 = new int[] {8, 3, 0, 2, 5};
+        isSequenceValid(order2, new int[] {});
+        sequence.schedule(3, 8); // same insertion twice
+        isSequenceValid(order2, new int[] {});
+        try {
+            sequence.schedule(3, 2);
+            fail();
+        } catch (InconsistencyException e) {
+        }
+
+        sm.restoreState();
+        isSequenceValid(order1, new int[] {});
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {});
+    }
+
+    @Test
+    public void testExclude() {
+        sm.saveState();
+
+        sequence.exclude(0);
+        sequence.exclude(2);
+        isSequenceValid(new int[] {}, new int[] {0, 2});
+        assertFalse(sequence.isInsertion(1, 0));
+
+        sm.saveState();
+        sequence.schedule(4, BOTTOM);
+        try {
+            sequence.exclude(4);
+            fail();
+        } catch (InconsistencyException e) {
+        }
+        sequence.excludeAllPossible();
+        assertTrue(sequence.isBound());
+        isSequenceValid(new int[] {4}, new int[] {0, 1, 2, 3, 5, 6, 7, 8, 9});
+
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {0, 2});
+        sm.restoreState();
+        isSequenceValid(new int[] {}, new int[] {});
+    }
+
+    @Test
+    public void testRemoveInsertion() {
+        sequence.schedule(3, BOTTOM);
+        sequence.removeInsertion(5, BOTTOM);
+        assertFalse(sequence.canSchedule(5, BOTTOM));
+        assertTrue(sequence.canSchedule(5, 3));
+        for (int pred = 0; pred < nNodes; ++pred)
+            sequence.removeInsertion(6, pred);
+        assertTrue(sequence.isPossible(6)); // bottom remains
+        sequence.removeInsertion(6, BOTTOM);
+        assertTrue(sequence.isExcluded(6));
+        isSequenceValid(new int[] {3}, new int[] {6});
+
+        InsertionVar var = sequence.getInsertionVar(8);
+        var.removeAllInsertBut(1);
+        assertEquals(1, var.size());
+        assertTrue(var.contains(1));
+        assertFalse(var.isBound());
+        sequence.getInsertionVar(7).removeAllInsertBut(3); // a scheduled insertion schedules the node
+        isSequenceValid(new int[] {3, 7}, new int[] {6});
+    }
+
+    @Test
+    public void testPropagation() {
+        boolean[] called = new boolean[4];
+        boolean[] changed = new boolean[nNodes];
+        cp.post(new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                sequence.whenInsert(() -> called[0] = true);
+                sequence.whenExclude(() -> called[1] = true);
+                sequence.whenBind(() -> called[2] = true);
+                sequence.getInsertionVar(2).whenInsert(() -> called[3] = true);
+                for (int i = 0; i < nNodes; ++i) {
+                    int finalI = i;
+                    sequence.getInsertionVar(i).whenDomainChange(() -> changed[finalI] = true);
+                }
+            }
+        });
+        sequence.schedule(2, BOTTOM);
+        cp.fixPoint();
+        assertTrue(called[0]);
+        assertTrue(called[3]);
+        assertFalse(called[1]);
+        sequence.exclude(5);
+        cp.fixPoint();
+        assertTrue(called[1]);
+        assertFalse(called[2]);
+        assertTrue(changed[4]);
+        assertFalse(changed[5]);
+        sequence.excludeAllPossible();
+        cp.fixPoint();
+        assertTrue(called[2]);
+    }
+
+    @Test
+    public void testRandomOperationsKeepInsertionsConsistent() {
+        Random random = new Random(0);
+        int[] nodes = new int[nNodes + 1];
+        for (int run = 0; run < 20; ++run) {
+            sm.saveState();
+            try {
+                while (!sequence.isBound()) {
+                    sm.saveState();
+                    int n = sequence.fillPossible(nodes);
+                    int node = nodes[random.nextInt(n)];
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            int nInsert = sequence.fillScheduledInsertions(node, nodes);
+                            if (nInsert > 0)
+                                sequence.schedule(node, nodes[random.nextInt(nInsert)]);
+                            break;
+                        case 1:
+                            sequence.exclude(node);
+                            break;
+                        default:
+                            int nIns = sequence.fillInsertions(node, nodes);
+                            sequence.removeInsertion(node, nodes[random.nextInt(nIns)]);
+                    }
+                    assertInsertionCountsConsistent();
+                }
+            } catch (InconsistencyException e) {
+            }
+            while (sm.getLevel() >= 0) {
+                sm.restoreState();
+                assertInsertionCountsConsistent();
+            }
+        }
+    }
+
+}
@@ -7,7 +7,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.Before;
 ;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
@@ -55,10 +59,17 @@ public class SequenceVarTest extends SolverTest {
     public void SetUp() {
         cp = solverFactory.get();
         sm = cp.getStateManager();
-        sequence = new SequenceVarImpl(cp, 10, 10, 11);
+        sequence = makeSequenceVar(cp, 10, 10, 11);
         int a = 0;
     }
 
+    /**
+     * Creates the sequence under test, overridden to test other implementations of {@link SequenceVar}
+     */
+    protected SequenceVar makeSequenceVar(Solver cp, int nNodes, int begin, int end) {
+        return new SequenceVarImpl(cp, nNodes, begin, end);
+    }
+
     private void assertIsBoolArrayTrueAt(boolean[] values, int... indexes) {
         Arrays.sort(indexes);
         int j = 0;
@@ -230,7 +241,7 @@ public class SequenceVarTest extends SolverTest {
      */
     @Test
     public void testSequenceVarOffset() {
-        sequence = new SequenceVarImpl(cp, 10, 12, 18);
+        sequence = makeSequenceVar(cp, 10, 12, 18);
         int[] scheduledInit = new int[] {};
         int[] possibleInit = new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
         int[] excludedInit = new int[] {};
@@ -651,4 +662,226 @@ public class SequenceVarTest extends SolverTest {
         sequence.schedule(8, 2);
     }
 
+    @Test
+    public void testDelta() {
+        DeltaSequenceVar delta = sequence.delta();
+        int[] nodes = new int[nNodes];
+        assertFalse(delta.changed());
+
+        sm.saveState();
+        sequence.schedule(4, sequence.begin());
+        sequence.schedule(2, 4);
+        sequence.exclude(7);
+        assertTrue(delta.changed());
+        assertEquals(2, delta.nScheduled());
+        assertEquals(2, delta.fillScheduled(nodes));
+        assertEquals(Set.of(2, 4), Set.of(nodes[0], nodes[1]));
+        assertEquals(1, delta.fillExcluded(nodes));
+        assertEquals(7, nodes[0]);
+        delta.update();
+        assertFalse(delta.changed());
+
+        sm.saveState();
+        sequence.schedule(0, 2);
+        sequence.excludeAllPossible();
+        assertEquals(1, delta.fillScheduled(nodes));
+        assertEquals(0, nodes[0]);
+        assertEquals(6, delta.nExcluded());
+        assertEquals(6, delta.fillExcluded(nodes));
+        assertEquals(Set.of(1, 3, 5, 6, 8, 9), Set.of(nodes[0], nodes[1], nodes[2], nodes[3], nodes[4], nodes[5]));
+
+        sm.restoreState();
+        assertFalse(delta.changed());
+        sm.restoreState();
+        assertFalse(delta.changed());
+    }
+
+    @Test
+    public void testNodeEvents() {
+        int[] inserted = new int[3];
+        int[] excluded = new int[1];
+        sequence.whenInsert((node, pred, succ) -> {
+            inserted[0] = node;
+            inserted[1] = pred;
+            inserted[2] = succ;
+        });
+        sequence.whenExclude(node -> excluded[0] = node);
+
+        sm.saveState();
+        sequence.schedule(4, sequence.begin());
+        assertArrayEquals(new int[] {4, begin, end}, inserted);
+        sequence.schedule(2, sequence.begin());
+        assertArrayEquals(new int[] {2, begin, 4}, inserted);
+        sequence.exclude(8);
+        assertEquals(8, excluded[0]);
+        sm.restoreState();
+    }
+
+    @Test
+    public void testScheduleAll() {
+        int[] propagateCalls = new int[1];
+        Constraint c = new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                sequence.propagateOnInsert(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagateCalls[0]++;
+            }
+        };
+        cp.post(c);
+        SequenceEventQueue events = sequence.propagateOnNodeEvents(c);
+
+        sm.saveState();
+        sequence.schedule(6, sequence.begin());
+        cp.fixPoint();
+        propagateCalls[0] = 0;
+        events.clear();
+        // begin -> 3 -> 1 -> 6 -> 5 -> end, 6 being already scheduled
+        int[] order = new int[] {-1, begin, 3, 1, 6, 5, -1};
+        sequence.scheduleAll(order, 1, 6);
+        cp.fixPoint();
+        assertEquals(1, propagateCalls[0]);
+        isSequenceValid(new int[] {3, 1, 6, 5}, new int[] {0, 2, 4, 7, 8, 9}, new int[] {});
+        assertEquals("3 -> 1 -> 6 -> 5", sequence.ordering());
+        assertEquals(3, events.nInserts()); // 6 was already at its place
+
+        sm.saveState();
+        try {
+            sequence.scheduleAll(new int[] {5, 2, 3}, 0, 3); // 3 is already scheduled elsewhere
+            fail();
+        } catch (InconsistencyException e) {
+        }
+        sm.restoreState();
+        isSequenceValid(new int[] {3, 1, 6, 5}, new int[] {0, 2, 4, 7, 8, 9}, new int[] {});
+
+        sm.restoreState();
+        assertEquals(0, sequence.nScheduledNode());
+    }
+
+    @Test
+    public void testScheduleAllMatchesSchedule() {
+        sequence.removeInsertion(7, 3); // 7 no longer counts 3 as an insertion
+        sequence.exclude(9);
+        int[] order = new int[] {begin, 3, 1, 6, 5};
+        List<String> scheduled = new ArrayList<>();
+        List<String> inserted = new ArrayList<>();
+        int[] nScheduled = new int[nNodes];
+        int[] nPossible = new int[nNodes];
+
+        sm.saveState();
+        sequence.whenInsert((node, pred, succ) -> scheduled.add(node + ":" + pred + ":" + succ));
+        for (int i = 1; i < order.length; i++)
+            sequence.schedule(order[i], order[i - 1]);
+        for (int node = 0; node < nNodes; node++) {
+            nScheduled[node] = sequence.nScheduledInsertions(node);
+            nPossible[node] = sequence.nPossibleInsertions(node);
+        }
+        sm.restoreState();
+
+        sm.saveState();
+        sequence.whenInsert((node, pred, succ) -> inserted.add(node + ":" + pred + ":" + succ));
+        sequence.scheduleAll(order, 0, order.length);
+        for (int node = 0; node < nNodes; node++) {
+            assertEquals(nScheduled[node], sequence.nScheduledInsertions(node));
+            assertEquals(nPossible[node], sequence.nPossibleInsertions(node));
+        }
+        assertEquals(scheduled, inserted);
+        sm.restoreState();
+    }
+
+    @Test
+    public void testEventQueue() {
+        Constraint c = new AbstractConstraint(cp) {
+            @Override
+            public void propagate() {
+            }
+        };
+        SequenceEventQueue events = sequence.propagateOnNodeEvents(c);
+        assertTrue(events.isEmpty());
+
+        sm.saveState();
+        sequence.schedule(4, sequence.begin());
+        sequence.schedule(2, 4);
+        sequence.exclude(7);
+        assertEquals(2, events.nInserts());
+        assertEquals(4, events.insertedNode(0));
+        assertEquals(begin, events.insertedPred(0));
+        assertEquals(end, events.insertedSucc(0));
+        assertEquals(2, events.insertedNode(1));
+        assertEquals(4, events.insertedPred(1));
+        assertEquals(end, events.insertedSucc(1));
+        assertEquals(1, events.nExcludes());
+        assertEquals(7, events.excludedNode(0));
+        assertTrue(c.isScheduled());
+        cp.fixPoint();
+        events.clear();
+        assertTrue(events.isEmpty());
+
+        sm.saveState();
+        sequence.excludeAllPossible();
+        assertEquals(7, events.nExcludes());
+        // the events of a branch are discarded when it is undone
+        sm.restoreState();
+        assertTrue(events.isEmpty());
+        sm.restoreState();
+        assertTrue(events.isEmpty());
+    }
+
+    private void assertInsertionCountsConsistent(SequenceVar seq) {
+        int[] insertions = new int[seq.nNodes() + 2];
+        for (int node = 0; node < seq.nNodes(); ++node) {
+            if (!seq.isPossible(node))
+                continue;
+            int n = seq.fillInsertions(node, insertions);
+            int nScheduled = 0;
+            int nPossible = 0;
+            for (int i = 0; i < n; ++i) {
+                if (seq.isScheduled(insertions[i]))
+                    nScheduled++;
+                else if (seq.isPossible(insertions[i]))
+                    nPossible++;
+            }
+            assertEquals(nScheduled, seq.nScheduledInsertions(node));
+            assertEquals(nPossible, seq.nPossibleInsertions(node));
+        }
+    }
+
+    @Test
+    public void testRandomOperationsKeepInsertionsConsistent() {
+        Random random = new Random(0);
+        int[] nodes = new int[nNodes];
+        for (int run = 0; run < 20; ++run) {
+            sm.saveState();
+            try {
+                while (!sequence.isBound()) {
+                    sm.saveState();
+                    int n = sequence.fillPossible(nodes);
+                    int node = nodes[random.nextInt(n)];
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            int nInsert = sequence.fillScheduledInsertions(node, nodes);
+                            if (nInsert > 0)
+                                sequence.schedule(node, nodes[random.nextInt(nInsert)]);
+                            break;
+                        case 1:
+                            sequence.exclude(node);
+                            break;
+                        default:
+                            int nIns = sequence.fillInsertions(node, nodes);
+                            sequence.removeInsertion(node, nodes[random.nextInt(nIns)]);
+                    }
+                    assertInsertionCountsConsistent(sequence);
+                }
+            } catch (InconsistencyException e) {
+            }
+            while (sm.getLevel() >= 0) {
+                sm.restoreState();
+                assertInsertionCountsConsistent(sequence);
+            }
+        }
+    }
+
 }
@@ -17,6 +17,9 @@ package minicp.search;
 
 import com.github.guillaumederval.javagrading.Grade;
 import com.github.guillaumederval.javagrading.GradeClass;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.MiniCP;
+import minicp.engine.core.Solver;
 import minicp.state.StateInt;
 import minicp.state.StateManager;
 import minicp.state.StateManagerTest;
@@ -30,6 +33,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static minicp.cp.BranchingScheme.EMPTY;
 import static minicp.cp.BranchingScheme.branch;
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.BranchingScheme.indexedFirstFail;
+import static minicp.cp.Factory.makeDfs;
+import static minicp.cp.Factory.makeIntVarArray;
+import static minicp.cp.Factory.notEqual;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
@@ -239,4 +247,56 @@ public class DFSearchTest extends StateManagerTest {
 
         dfs.solve();
     }
+
+    @Test
+    public void testIndexedBranching() {
+        StateManager sm = stateFactory.get();
+        StateInt i = sm.makeStateInt(0);
+        int[] values = new int[3];
+
+        DFSearch dfs = new DFSearch(sm, new IndexedBranching() {
+            @Override
+            public int expand(int depth) {
+                assertEquals(i.value(), depth);
+                return i.value() >= values.length ? 0 : 2;
+            }
+
+            @Override
+            public void apply(int depth, int alternative) {
+                if (alternative == 1 && depth == 1)
+                    throw new InconsistencyException();
+                values[i.value()] = alternative;
+                i.increment();
+            }
+        });
+
+        SearchStatistics stats = dfs.solve();
+
+        assertEquals(4, stats.numberOfSolutions());
+        assertEquals(2, stats.numberOfFailures());
+        assertEquals(2 + 4 + 4, stats.numberOfNodes()); // the failed nodes have no children
+        assertEquals(0, i.value());
+    }
+
+    @Test
+    public void testIndexedFirstFail() {
+        int n = 7;
+        SearchStatistics[] stats = new SearchStatistics[2];
+        for (int k = 0; k < 2; k++) {
+            Solver cp = new MiniCP(stateFactory.get());
+            IntVar[] q = makeIntVarArray(cp, n, n);
+            for (int i = 0; i < n; i++)
+                for (int j = i + 1; j < n; j++) {
+                    cp.post(notEqual(q[i], q[j]));
+                    cp.post(notEqual(q[i], q[j], j - i));
+                    cp.post(notEqual(q[i], q[j], i - j));
+                }
+            DFSearch dfs = k == 0 ? makeDfs(cp, firstFail(q)) : makeDfs(cp, indexedFirstFail(q));
+            stats[k] = dfs.solve();
+        }
+        assertEquals(40, stats[1].numberOfSolutions());
+        assertEquals(stats[0].numberOfSolutions(), stats[1].numberOfSolutions());
+        assertEquals(stats[0].numberOfNodes(), stats[1].numberOfNodes());
+        assertEquals(stats[0].numberOfFailures(), stats[1].numberOfFailures());
+    }
 }
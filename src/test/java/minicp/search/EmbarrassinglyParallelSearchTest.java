@@ -0,0 +1,114 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.Test;
+
+import java.util.List;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.*;
+
+public class EmbarrassinglyParallelSearchTest extends ParallelSearchTest {
+
+    @Test
+    public void testDecomposeAndReplay() {
+        Solver cp = solverFactory.get();
+        IntVar[] q = queens(cp, 6);
+        DFSearch dfs = makeDfs(cp, firstFail(q));
+        List<int[]> subproblems = dfs.decompose(4);
+        assertTrue(subproblems.size() > 1);
+        int nSolutions = 0;
+        for (int[] decisions : subproblems) {
+            SearchStatistics stats = dfs.solveSubproblem(decisions, s -> false);
+            assertTrue(stats.isCompleted());
+            nSolutions += stats.numberOfSolutions();
+        }
+        assertEquals(4, nSolutions);
+        for (IntVar x : q)
+            assertEquals(6, x.size());
+    }
+
+    @Test
+    public void testSolutionAtTheTopOfTheTree() {
+        Solver cp = solverFactory.get();
+        IntVar[] x = makeIntVarArray(cp, 2, 2);
+        DFSearch dfs = makeDfs(cp, firstFail(x));
+        List<int[]> subproblems = dfs.decompose(5);
+        assertEquals(4, subproblems.size()); // the 4 solutions
+        for (int[] decisions : subproblems)
+            assertEquals(1, dfs.solveSubproblem(decisions, s -> false).numberOfSolutions());
+
+        // the tightening of the objective fails at the root of each subproblem
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(2, 5, (id, bound) -> {
+            Solver solver = solverFactory.get();
+            IntVar[] y = makeIntVarArray(solver, 1, 4);
+            return new SearchModel(makeDfs(solver, firstFail(y)), solver.minimize(y[0], bound));
+        });
+        SearchStatistics stats = eps.solve();
+        assertTrue(stats.isCompleted());
+        assertTrue(stats.numberOfSolutions() >= 1);
+        assertEquals(0, eps.getBound().get());
+    }
+
+    @Test
+    public void testAllSolutions() {
+        int[] nSolutions = new int[1];
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(4, 6, (id, bound) -> {
+            Solver cp = solverFactory.get();
+            DFSearch dfs = makeDfs(cp, firstFail(queens(cp, 8)));
+            dfs.onSolution(() -> {
+                synchronized (nSolutions) {
+                    nSolutions[0]++;
+                }
+            });
+            return new SearchModel(dfs);
+        });
+        SearchStatistics stats = eps.solve();
+        assertTrue(stats.isCompleted());
+        assertTrue(eps.numberOfSubproblems() > 4);
+        assertEquals(92, stats.numberOfSolutions());
+        assertEquals(92, nSolutions[0]);
+    }
+
+    @Test
+    public void testOptimize() {
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(3, 3, (id, bound) -> {
+            Solver cp = solverFactory.get();
+            IntVar[] x = makeIntVarArray(cp, 5, 8);
+            cp.post(allDifferent(x));
+            IntVar obj = sum(x[0], mul(x[1], 3), minus(x[2]), x[3], mul(x[4], 2));
+            return new SearchModel(makeDfs(cp, firstFail(x)), cp.minimize(obj, bound));
+        });
+        SearchStatistics stats = eps.solve();
+        assertTrue(stats.isCompleted());
+        // x2 = 7 and x1, x4, x0, x3 take 0, 1, 2, 3
+        assertEquals(0 * 3 + 1 * 2 + 2 + 3 - 7, eps.getBound().get());
+    }
+
+    @Test
+    public void testLimit() {
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(2, 2, (id, bound) -> {
+            Solver cp = solverFactory.get();
+            return new SearchModel(makeDfs(cp, firstFail(queens(cp, 10))));
+        });
+        SearchStatistics stats = eps.solve(s -> s.numberOfNodes() > 10);
+        assertFalse(stats.isCompleted());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.*;
+
+public class ParallelLNSTest extends ParallelSearchTest {
+
+    private static final int[] weights = {3, -2, 5, 1, -4, 2, 6, -1};
+
+    private static int value(int[] solution) {
+        int v = 0;
+        for (int i = 0; i < solution.length; i++)
+            v += weights[i] * solution[i];
+        return v;
+    }
+
+    private ParallelLNS.Model weightedSumModel(SharedBound bound) {
+        Solver cp = solverFactory.get();
+        IntVar[] x = makeIntVarArray(cp, weights.length, 12);
+        cp.post(allDifferent(x));
+        IntVar obj = weightedSum(x, weights);
+        Objective objective = cp.minimize(obj, bound);
+        DFSearch dfs = makeDfs(cp, firstFail(x));
+        return new ParallelLNS.Model() {
+            @Override
+            public DFSearch search() {
+                return dfs;
+            }
+
+            @Override
+            public Objective objective() {
+                return objective;
+            }
+
+            @Override
+            public int objectiveValue() {
+                return obj.min();
+            }
+
+            @Override
+            public int[] solution() {
+                int[] values = new int[x.length];
+                for (int i = 0; i < x.length; i++)
+                    values[i] = x[i].min();
+                return values;
+            }
+
+            @Override
+            public void relax(int[] solution, Random random) {
+                for (int i = 0; i < x.length; i++)
+                    if (random.nextInt(100) < 50)
+                        cp.post(equal(x[i], solution[i]));
+            }
+        };
+    }
+
+    @Test
+    public void testSolutionStore() {
+        SolutionStore store = new SolutionStore();
+        assertNull(store.get());
+        assertEquals(0, store.version());
+        SolutionStore.Incumbent first = store.publish(new int[]{1, 2}, 10);
+        assertNotNull(first);
+        assertEquals(1, first.version());
+        assertNull(store.publish(new int[]{2, 1}, 10));
+        assertNull(store.publish(new int[]{2, 1}, 11));
+        SolutionStore.Incumbent second = store.publish(new int[]{0, 1}, 4);
+        assertEquals(2, second.version());
+        assertSame(second, store.get());
+        assertArrayEquals(new int[]{0, 1}, store.get().solution());
+        assertEquals(4, store.get().objective());
+    }
+
+    @Test
+    public void testParallelLNSReachesOptimum() {
+        SharedBound sequential = new SharedBound();
+        ParallelLNS.Model model = weightedSumModel(sequential);
+        model.search().optimize(model.objective());
+
+        ParallelLNS lns = new ParallelLNS(3, 50, (id, bound) -> weightedSumModel(bound));
+        SolutionStore.Incumbent best = lns.solve(stats -> stats.numberOfNodes() > 20000
+                || lns.getBound().get() == sequential.get());
+        assertNotNull(best);
+        assertEquals(sequential.get(), best.objective());
+        assertEquals(best.objective(), value(best.solution()));
+        assertEquals(best.objective(), lns.getBound().get());
+    }
+
+    @Test
+    public void testLimitDuringTheFirstSolution() {
+        ParallelLNS lns = new ParallelLNS(2, 50, (id, bound) -> weightedSumModel(bound));
+        // a first solution requires a decision on each of the 8 variables
+        assertNull(lns.solve(stats -> stats.numberOfNodes() > 3));
+    }
+
+    @Test
+    public void testInfeasibleModelStops() {
+        ParallelLNS lns = new ParallelLNS(2, 50, (id, bound) -> weightedSumModel(bound));
+        lns.getBound().improve(-1000); // no solution is better than this bound
+        assertNull(lns.solve(stats -> false));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+
+import static minicp.cp.Factory.*;
+
+/**
+ * Models shared by the tests of the parallel searches.
+ */
+public abstract class ParallelSearchTest extends SolverTest {
+
+    protected static IntVar[] queens(Solver cp, int n) {
+        IntVar[] q = makeIntVarArray(cp, n, n);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                cp.post(notEqual(q[i], q[j]));
+                cp.post(notEqual(q[i], q[j], j - i));
+                cp.post(notEqual(q[i], q[j], i - j));
+            }
+        return q;
+    }
+
+    /**
+     * Creates the sum of the variables weighted by some positive or negative weights.
+     */
+    protected static IntVar weightedSum(IntVar[] x, int[] weights) {
+        IntVar[] terms = new IntVar[x.length];
+        for (int i = 0; i < x.length; i++)
+            terms[i] = weights[i] >= 0 ? mul(x[i], weights[i]) : minus(mul(x[i], -weights[i]));
+        return sum(terms);
+    }
+}
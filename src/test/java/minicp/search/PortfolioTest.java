@@ -0,0 +1,112 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.util.Procedure;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static minicp.cp.BranchingScheme.EMPTY;
+import static minicp.cp.BranchingScheme.branch;
+import static minicp.cp.BranchingScheme.selectMin;
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.*;
+
+public class PortfolioTest extends SolverTest {
+
+    /**
+     * Branching on the first unbound variable with a random value
+     */
+    private static Supplier<Procedure[]> randomValue(IntVar[] x, Random random) {
+        int[] values = new int[20];
+        return () -> {
+            IntVar xs = selectMin(x, xi -> xi.size() > 1, xi -> xi.size());
+            if (xs == null)
+                return EMPTY;
+            int v = values[random.nextInt(xs.fillArray(values))];
+            return branch(() -> xs.getSolver().post(equal(xs, v)),
+                    () -> xs.getSolver().post(notEqual(xs, v)));
+        };
+    }
+
+    private Portfolio.Worker allDifferentSum(int[] nSolutions) {
+        return (id, bound, limit) -> {
+            Solver cp = solverFactory.get();
+            IntVar[] x = makeIntVarArray(cp, 6, 10);
+            cp.post(allDifferent(x));
+            IntVar sum = sum(x);
+            Objective obj = cp.minimize(sum, bound);
+            DFSearch dfs = makeDfs(cp, randomValue(x, new Random(id)));
+            dfs.onSolution(() -> {
+                synchronized (nSolutions) {
+                    nSolutions[0]++;
+                }
+            });
+            return dfs.optimize(obj, limit);
+        };
+    }
+
+    @Test
+    public void testSharedBound() {
+        SharedBound bound = new SharedBound();
+        assertEquals(Integer.MAX_VALUE, bound.get());
+        assertTrue(bound.improve(10));
+        assertFalse(bound.improve(10));
+        assertFalse(bound.improve(12));
+        assertTrue(bound.improve(3));
+        assertEquals(3, bound.get());
+    }
+
+    @Test
+    public void testPortfolioFindsOptimum() {
+        int[] nSolutions = new int[1];
+        Portfolio portfolio = new Portfolio(4, allDifferentSum(nSolutions));
+        SearchStatistics[] stats = portfolio.solve();
+        assertEquals(4, stats.length);
+        assertEquals(0 + 1 + 2 + 3 + 4 + 5, portfolio.getBound().get());
+        boolean completed = false;
+        int total = 0;
+        for (SearchStatistics s : stats) {
+            completed |= s.isCompleted();
+            total += s.numberOfSolutions();
+        }
+        assertTrue(completed);
+        assertEquals(nSolutions[0], total);
+    }
+
+    @Test
+    public void testInitialBoundPrunesAllWorkers() {
+        int[] nSolutions = new int[1];
+        Portfolio portfolio = new Portfolio(3, allDifferentSum(nSolutions), new SharedBound(15));
+        portfolio.solve();
+        assertEquals(0, nSolutions[0]);
+        assertEquals(15, portfolio.getBound().get());
+    }
+
+    @Test
+    public void testLimitStopsEveryWorker() {
+        int[] nSolutions = new int[1];
+        Portfolio portfolio = new Portfolio(3, allDifferentSum(nSolutions));
+        SearchStatistics[] stats = portfolio.solve(s -> s.numberOfNodes() >= 5);
+        for (SearchStatistics s : stats)
+            assertFalse(s.isCompleted());
+    }
+}
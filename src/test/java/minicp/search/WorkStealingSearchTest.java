@@ -0,0 +1,113 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.Test;
+
+import static minicp.cp.BranchingScheme.EMPTY;
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static org.junit.Assert.*;
+
+public class WorkStealingSearchTest extends ParallelSearchTest {
+
+    private SearchModel queensModel(int n, int[] nSolutions) {
+        Solver cp = solverFactory.get();
+        DFSearch dfs = makeDfs(cp, firstFail(queens(cp, n)));
+        dfs.onSolution(() -> {
+            synchronized (nSolutions) {
+                nSolutions[0]++;
+            }
+        });
+        return new SearchModel(dfs);
+    }
+
+    @Test
+    public void testSingleWorkerIsSequential() {
+        SearchStatistics expected = queensModel(6, new int[1]).search().solve();
+        WorkStealingSearch search = new WorkStealingSearch(1, (id, bound) -> queensModel(6, new int[1]));
+        SearchStatistics stats = search.solve();
+        assertTrue(stats.isCompleted());
+        assertEquals(expected.numberOfSolutions(), stats.numberOfSolutions());
+        assertEquals(expected.numberOfNodes(), stats.numberOfNodes());
+        assertEquals(expected.numberOfFailures(), stats.numberOfFailures());
+    }
+
+    @Test
+    public void testAllSolutions() {
+        int[] nSolutions = new int[1];
+        WorkStealingSearch search = new WorkStealingSearch(4, (id, bound) -> queensModel(8, nSolutions));
+        SearchStatistics stats = search.solve();
+        assertTrue(stats.isCompleted());
+        assertEquals(92, stats.numberOfSolutions());
+        assertEquals(92, nSolutions[0]);
+    }
+
+    @Test
+    public void testOptimize() {
+        WorkStealingSearch search = new WorkStealingSearch(3, (id, bound) -> {
+            Solver cp = solverFactory.get();
+            IntVar[] x = makeIntVarArray(cp, 5, 8);
+            cp.post(allDifferent(x));
+            IntVar obj = sum(x[0], mul(x[1], 3), minus(x[2]), x[3], mul(x[4], 2));
+            return new SearchModel(makeDfs(cp, firstFail(x)), cp.minimize(obj, bound));
+        });
+        SearchStatistics stats = search.solve();
+        assertTrue(stats.isCompleted());
+        assertEquals(0 * 3 + 1 * 2 + 2 + 3 - 7, search.getBound().get());
+    }
+
+    private SearchModel weightedSumModel(SharedBound bound) {
+        int[] weights = {3, -2, 5, 1, -4, 2, 6};
+        Solver cp = solverFactory.get();
+        IntVar[] x = makeIntVarArray(cp, weights.length, 10);
+        cp.post(allDifferent(x));
+        cp.post(notEqual(x[0], x[6], 1));
+        IntVar obj = weightedSum(x, weights);
+        return new SearchModel(makeDfs(cp, firstFail(x)), cp.minimize(obj, bound));
+    }
+
+    @Test
+    public void testOptimizeMatchesSequentialSearch() {
+        SharedBound sequential = new SharedBound();
+        SearchModel model = weightedSumModel(sequential);
+        model.search().optimize(model.objective());
+        WorkStealingSearch search = new WorkStealingSearch(4, (id, bound) -> weightedSumModel(bound));
+        assertTrue(search.solve().isCompleted());
+        assertEquals(sequential.get(), search.getBound().get());
+    }
+
+    @Test
+    public void testLimit() {
+        WorkStealingSearch search = new WorkStealingSearch(2, (id, bound) -> queensModel(10, new int[1]));
+        SearchStatistics stats = search.solve(s -> s.numberOfNodes() > 10);
+        assertFalse(stats.isCompleted());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReplayOnDifferentBranching() {
+        // the thieves have no alternative where the first worker has some
+        WorkStealingSearch search = new WorkStealingSearch(2, (id, bound) -> {
+            if (id == 0)
+                return queensModel(10, new int[1]);
+            Solver cp = solverFactory.get();
+            return new SearchModel(makeDfs(cp, () -> EMPTY));
+        });
+        search.solve();
+    }
+}
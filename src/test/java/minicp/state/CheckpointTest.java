@@ -0,0 +1,132 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CheckpointTest extends StateManagerTest {
+
+    @Test
+    public void testRewind() {
+        StateManager sm = stateFactory.get();
+        StateInt a = sm.makeStateInt(0);
+        StateIntArray b = sm.makeStateIntArray(10, 0);
+
+        a.setValue(1);
+        Checkpoint root = sm.checkpoint("root");
+        assertEquals(0, root.level());
+        assertEquals("root", root.name());
+
+        for (int iter = 0; iter < 5; iter++) {
+            // changes at the level of the checkpoint and below it are undone
+            a.setValue(10 + iter);
+            b.set(iter, iter + 1);
+            for (int depth = 0; depth < iter; depth++) {
+                sm.saveState();
+                a.setValue(100 + depth);
+                b.fill(0, 10, depth + 2);
+            }
+            sm.rewind(root);
+            assertEquals(root.level(), sm.getLevel());
+            assertEquals(1, a.value());
+            for (int i = 0; i < 10; i++)
+                assertEquals(0, b.get(i));
+        }
+
+        sm.release(root);
+        assertEquals(-1, sm.getLevel());
+        assertEquals(1, a.value());
+        try {
+            sm.rewind(root);
+            fail("a released checkpoint cannot be rewound");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testNestedCheckpoints() {
+        StateManager sm = stateFactory.get();
+        StateInt a = sm.makeStateInt(0);
+
+        Checkpoint outer = sm.checkpoint("outer");
+        a.setValue(1);
+        Checkpoint inner = sm.checkpoint("inner");
+        a.setValue(2);
+        sm.saveState();
+        a.setValue(3);
+
+        sm.rewind(inner);
+        assertEquals(1, a.value());
+        a.setValue(4);
+        sm.rewind(outer);
+        assertEquals(0, a.value());
+        try {
+            sm.release(inner);
+            fail("the inner checkpoint was removed by rewinding the outer one");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testStaleCheckpoint() {
+        StateManager sm = stateFactory.get();
+        StateInt a = sm.makeStateInt(0);
+
+        Checkpoint stale = sm.checkpoint("stale");
+        a.setValue(1);
+        sm.restoreState();
+        sm.saveState(); // same level as the checkpoint, saved after it was removed
+        a.setValue(2);
+        assertEquals(stale.level(), sm.getLevel());
+        try {
+            sm.rewind(stale);
+            fail("the level of the checkpoint was restored");
+        } catch (IllegalStateException e) {
+        }
+        try {
+            sm.release(stale);
+            fail("the level of the checkpoint was restored");
+        } catch (IllegalStateException e) {
+        }
+        assertEquals(2, a.value());
+
+        Checkpoint fresh = sm.checkpoint("fresh");
+        a.setValue(3);
+        sm.rewind(fresh);
+        sm.rewind(fresh);
+        assertEquals(2, a.value());
+        sm.release(fresh);
+        assertEquals(stale.level(), sm.getLevel());
+    }
+
+    @Test
+    public void testLevelIds() {
+        StateManager sm = stateFactory.get();
+        sm.saveState();
+        sm.saveState();
+        long first = sm.getLevelId(0);
+        long second = sm.getLevelId(1);
+        assertNotEquals(first, second);
+        sm.restoreState();
+        sm.saveState(); // same depth, new level
+        assertEquals(first, sm.getLevelId(0));
+        assertNotEquals(second, sm.getLevelId(1));
+        assertNotEquals(first, sm.getLevelId(1));
+    }
+
+}
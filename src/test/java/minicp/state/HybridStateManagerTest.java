@@ -0,0 +1,108 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HybridStateManagerTest {
+
+    @Test
+    public void testAutoSwitchesToCopyAndBack() {
+        HybridStateManager sm = new HybridStateManager();
+        StateInt often = sm.makeStateInt(0);
+        StateInt rarely = sm.makeStateInt(0);
+
+        // dive while writing often at every level and rarely once
+        int depth = 3 * HybridStateManager.WINDOW;
+        for (int i = 1; i <= depth; i++) {
+            sm.saveState();
+            often.setValue(i);
+            if (i == 10)
+                rarely.setValue(10);
+        }
+        assertEquals(1, sm.nCopied());
+
+        sm.restoreStateUntil(depth / 2 - 1);
+        assertEquals(depth / 2, often.value());
+        assertEquals(10, rarely.value());
+
+        // stop writing: the value goes back to the trail
+        for (int i = 0; i < 2 * HybridStateManager.WINDOW; i++)
+            sm.saveState();
+        assertEquals(0, sm.nCopied());
+        often.setValue(-1);
+
+        sm.restoreStateUntil(8);
+        assertEquals(9, often.value());
+        assertEquals(0, rarely.value());
+
+        sm.restoreStateUntil(-1);
+        assertEquals(0, often.value());
+    }
+
+    @Test
+    public void testWritesCountedOncePerSavedLevel() {
+        HybridStateManager sm = new HybridStateManager();
+        StateInt x = sm.makeStateInt(0);
+
+        // written in half of the saved levels, and again in the parent after each restore
+        for (int i = 0; i < 2 * HybridStateManager.WINDOW; i++) {
+            sm.saveState();
+            if (i % 2 == 0)
+                x.setValue(i + 1);
+            sm.restoreState();
+            if (i % 2 == 0)
+                x.setValue(-i - 1);
+        }
+        assertEquals(0, sm.nCopied());
+        assertEquals(-2 * HybridStateManager.WINDOW + 1, x.value());
+    }
+
+    @Test
+    public void testPolicies() {
+        HybridStateManager sm = new HybridStateManager();
+        StateInt copied = sm.makeStateInt(1, StatePolicy.COPY);
+        StateInt trailed = sm.makeStateInt(1, StatePolicy.TRAIL);
+        State<String> ref = sm.makeStateRef("a", StatePolicy.COPY);
+        StateMap<Integer, Integer> map = sm.makeStateMap(StatePolicy.COPY);
+        assertEquals(3, sm.nCopied());
+
+        sm.saveState();
+        StateInt inner = sm.makeStateInt(5, StatePolicy.COPY);
+        copied.setValue(2);
+        trailed.setValue(2);
+        ref.setValue("b");
+        map.put(1, 1);
+        sm.saveState();
+        assertEquals(4, sm.nCopied());
+        inner.setValue(6);
+        copied.setValue(3);
+
+        sm.restoreState();
+        assertEquals(2, copied.value());
+        assertEquals(5, inner.value());
+
+        sm.restoreState();
+        assertEquals(3, sm.nCopied());
+        assertEquals(1, copied.value());
+        assertEquals(1, trailed.value());
+        assertEquals("a", ref.value());
+        assertEquals(null, map.get(1));
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import static org.junit.Assert.*;
+
+public class OffHeapArrayTrailerTest {
+
+    @Test
+    public void testArenaAllocations() {
+        OffHeapArena arena = new OffHeapArena();
+        IntBuffer ints = arena.allocateInts(3);
+        LongBuffer longs = arena.allocateLongs(2);
+        assertEquals(3, ints.capacity());
+        assertEquals(2, longs.capacity());
+        assertEquals(0, ints.get(2));
+        assertEquals(0L, longs.get(1));
+        assertEquals(16 + 16, arena.allocatedBytes()); // 12 bytes aligned on 8
+
+        ints.put(2, 7);
+        longs.put(0, Long.MIN_VALUE);
+        IntBuffer large = arena.allocateInts(OffHeapArena.CHUNK_SIZE); // dedicated chunk
+        large.put(OffHeapArena.CHUNK_SIZE - 1, 1);
+        assertEquals(7, ints.get(2));
+        assertEquals(Long.MIN_VALUE, longs.get(0));
+        assertEquals(32 + 4L * OffHeapArena.CHUNK_SIZE, arena.allocatedBytes());
+    }
+
+    @Test
+    public void testTooLargeAllocationIsRejected() {
+        OffHeapArena arena = new OffHeapArena();
+        try {
+            arena.allocateLongs(1 << 28); // 2GB
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            arena.allocateInts(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(0, arena.allocatedBytes());
+    }
+
+    @Test
+    public void testClosedArena() {
+        OffHeapArrayTrailer sm = new OffHeapArrayTrailer();
+        StateIntArray a = sm.makeStateIntArray(4, 1);
+        sm.close();
+        try {
+            sm.makeStateIntArray(4, 1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            sm.getArena().allocateLongs(1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(1, a.get(3));
+    }
+
+    @Test
+    public void testOnlyTheValuesAreOffHeap() {
+        OffHeapArrayTrailer sm = new OffHeapArrayTrailer();
+        sm.makeStateIntArray(100, 0);
+        sm.makeStateLongArray(100, 0L);
+        assertEquals(4 * 100 + 8 * 100, sm.getArena().allocatedBytes());
+    }
+
+    @Test
+    public void testOffHeapArraysAreRestored() {
+        OffHeapArrayTrailer sm = new OffHeapArrayTrailer();
+        StateIntArray ints = sm.makeStateIntArray(100, -1);
+        StateLongArray longs = sm.makeStateLongArray(100, 1L << 40);
+        sm.saveState();
+        for (int i = 0; i < 100; i += 3) {
+            ints.set(i, i);
+            longs.set(i, -i);
+        }
+        sm.saveState();
+        ints.fill(0, 100, 5);
+        longs.set(99, 0L);
+        sm.restoreState();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 3 == 0 ? i : -1, ints.get(i));
+            assertEquals(i % 3 == 0 ? -i : 1L << 40, longs.get(i));
+        }
+        sm.restoreState();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(-1, ints.get(i));
+            assertEquals(1L << 40, longs.get(i));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StateIntArrayTest extends StateManagerTest {
+
+    @Test
+    public void testSetAndRestore() {
+        StateManager sm = stateFactory.get();
+
+        StateIntArray a = sm.makeStateIntArray(130, 7);
+        assertEquals(130, a.length());
+
+        sm.saveState();
+        for (int i = 0; i < 130; i++) {
+            a.set(i, i);
+            a.set(i, i + 1); // a second write in the same level
+        }
+
+        sm.saveState();
+        a.set(0, -1);
+        a.set(129, -1);
+
+        sm.restoreState();
+        for (int i = 0; i < 130; i++)
+            assertEquals(i + 1, a.get(i));
+
+        sm.saveState();
+        a.set(64, -1);
+        assertEquals(-1, a.get(64));
+
+        sm.restoreState();
+        assertEquals(65, a.get(64));
+
+        sm.restoreState();
+        for (int i = 0; i < 130; i++)
+            assertEquals(7, a.get(i));
+    }
+
+    @Test
+    public void testFillAndCopyRange() {
+        StateManager sm = stateFactory.get();
+
+        StateIntArray a = sm.makeStateIntArray(10, 0);
+        int[] src = new int[] {1, 2, 3, 4, 5};
+
+        sm.saveState();
+        a.fill(2, 8, 9);
+        for (int i = 0; i < 10; i++)
+            assertEquals(i >= 2 && i < 8 ? 9 : 0, a.get(i));
+
+        sm.saveState();
+        a.copyRange(src, 1, 5, 4);
+        assertEquals(9, a.get(4));
+        assertEquals(2, a.get(5));
+        assertEquals(5, a.get(8));
+        assertEquals(0, a.get(9));
+
+        sm.restoreState();
+        for (int i = 0; i < 10; i++)
+            assertEquals(i >= 2 && i < 8 ? 9 : 0, a.get(i));
+
+        sm.restoreStateUntil(-1);
+        for (int i = 0; i < 10; i++)
+            assertEquals(0, a.get(i));
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StateIntMapTest extends StateManagerTest {
+
+    @Test
+    public void testPutGetRemove() {
+        StateManager sm = stateFactory.get();
+        StateIntMap map = new StateIntMap(sm);
+
+        assertTrue(map.isEmpty());
+        map.put(3, 30);
+        map.put(-5, 50);
+        assertEquals(30, map.get(3, -1));
+        assertEquals(50, map.get(-5, -1));
+        assertEquals(-1, map.get(4, -1));
+        assertEquals(2, map.size());
+
+        sm.saveState();
+
+        map.put(3, 31);
+        map.put(4, 40);
+        assertTrue(map.remove(-5));
+        assertFalse(map.remove(-5));
+        assertFalse(map.containsKey(-5));
+        assertEquals(31, map.get(3, -1));
+        assertEquals(40, map.get(4, -1));
+        assertEquals(2, map.size());
+
+        sm.restoreState();
+
+        assertEquals(30, map.get(3, -1));
+        assertEquals(50, map.get(-5, -1));
+        assertFalse(map.containsKey(4));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testGrowAndRestore() {
+        StateManager sm = stateFactory.get();
+        StateIntMap map = new StateIntMap(sm);
+
+        for (int i = 0; i < 10; i++)
+            map.put(i * 64, i);
+
+        sm.saveState();
+        for (int i = 10; i < 1000; i++)
+            map.put(i * 64, i);
+        for (int i = 0; i < 1000; i += 2)
+            map.remove(i * 64);
+        assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i % 2 == 0 ? -1 : i, map.get(i * 64, -1));
+
+        sm.restoreState();
+        assertEquals(10, map.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i < 10 ? i : -1, map.get(i * 64, -1));
+    }
+
+    @Test
+    public void testManyRemovals() {
+        StateManager sm = stateFactory.get();
+        StateIntMap map = new StateIntMap(sm);
+
+        sm.saveState();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+            map.remove(i);
+        }
+        assertTrue(map.isEmpty());
+        map.put(42, 1);
+        assertEquals(1, map.get(42, 0));
+        sm.restoreState();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testLongValues() {
+        StateManager sm = stateFactory.get();
+        StateIntLongMap map = new StateIntLongMap(sm, 100);
+
+        map.put(1, Long.MAX_VALUE);
+        sm.saveState();
+        map.put(1, 1L << 40);
+        for (int i = 2; i < 200; i++)
+            map.put(i, -i);
+        assertEquals(1L << 40, map.get(1, 0L));
+        assertEquals(-150L, map.get(150, 0L));
+        assertEquals(199, map.size());
+
+        sm.restoreState();
+        assertEquals(Long.MAX_VALUE, map.get(1, 0L));
+        assertFalse(map.containsKey(150));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testGrowAgainAfterRestore() {
+        StateManager sm = stateFactory.get();
+        StateIntMap map = new StateIntMap(sm);
+        map.put(-1, -1);
+
+        for (int run = 0; run < 5; run++) {
+            sm.saveState();
+            // the table grows, is discarded by the restoration and grows again at the next run
+            for (int i = 0; i < 100 + run; i++)
+                map.put(i, i + run);
+            for (int i = 0; i < 100 + run; i++)
+                assertEquals(i + run, map.get(i, -2));
+            sm.saveState();
+            for (int i = 0; i < 50; i++)
+                map.remove(i);
+            for (int i = 0; i < 50; i++)
+                map.put(i, -i); // reuses the deleted slots
+            assertEquals(101 + run, map.size());
+            sm.restoreState();
+            assertEquals(5 + run, map.get(5, -2));
+            sm.restoreState();
+            assertEquals(1, map.size());
+            assertEquals(-1, map.get(-1, -2));
+            assertFalse(map.containsKey(5));
+        }
+    }
+}
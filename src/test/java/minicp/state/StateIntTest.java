@@ -53,16 +53,16 @@ public class StateIntTest extends StateManagerTest {
         // and remove the state of that level
         sm.restoreState();
 
-        assertEquals(Integer.valueOf(11), a.value());
-        assertEquals(Integer.valueOf(13), b.value());
+        assertEquals(11, a.value());
+        assertEquals(13, b.value());
         assertEquals(0, sm.getLevel());
 
         // Restore the state recorded at the top level 0: a=7, b=13
         // and remove the state of that level
         sm.restoreState();
 
-        assertEquals(Integer.valueOf(7), a.value());
-        assertEquals(Integer.valueOf(13), b.value());
+        assertEquals(7, a.value());
+        assertEquals(13, b.value());
         assertEquals(-1, sm.getLevel());
 
     }
@@ -137,9 +137,9 @@ public class StateIntTest extends StateManagerTest {
         sm.saveState(); // level 1
 
         //assertEquals(1,sm.getLevel());
-        assertEquals(Integer.valueOf(5), a.value());
-        assertEquals(Integer.valueOf(10), b.value());
-        assertEquals(Integer.valueOf(5), c.value());
+        assertEquals(5, a.value());
+        assertEquals(10, b.value());
+        assertEquals(5, c.value());
 
         a.setValue(8);
         b.setValue(10);
@@ -149,9 +149,9 @@ public class StateIntTest extends StateManagerTest {
         sm.restoreStateUntil(0);
 
         //assertEquals(0,sm.getLevel());
-        assertEquals(Integer.valueOf(5), a.value());
-        assertEquals(Integer.valueOf(10), b.value());
-        assertEquals(Integer.valueOf(5), c.value());
+        assertEquals(5, a.value());
+        assertEquals(10, b.value());
+        assertEquals(5, c.value());
 
 
     }
@@ -188,18 +188,43 @@ public class StateIntTest extends StateManagerTest {
         sm.saveState(); // level 1
 
         //assertEquals(1,sm.getLevel());
-        assertEquals(Integer.valueOf(6), a.value());
+        assertEquals(6, a.value());
 
 
         a.setValue(8);
 
         sm.restoreStateUntil(0);
 
-        assertEquals(Integer.valueOf(6), a.value());
+        assertEquals(6, a.value());
 
 
     }
 
+    @Test
+    public void testManyIntsAndLevels() {
+        StateManager sm = stateFactory.get();
 
+        StateInt[] a = new StateInt[100];
+        for (int i = 0; i < a.length; i++)
+            a[i] = sm.makeStateInt(i);
+
+        for (int level = 0; level < 50; level++) {
+            sm.saveState();
+            for (int i = 0; i < a.length; i++) {
+                a[i].increment();
+                a[i].increment();
+            }
+        }
+        for (int i = 0; i < a.length; i++)
+            assertEquals(i + 100, a[i].value());
+
+        sm.restoreStateUntil(24);
+        for (int i = 0; i < a.length; i++)
+            assertEquals(i + 50, a[i].value());
+
+        sm.restoreStateUntil(-1);
+        for (int i = 0; i < a.length; i++)
+            assertEquals(i, a[i].value());
+    }
 
 }
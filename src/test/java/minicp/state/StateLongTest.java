@@ -0,0 +1,76 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StateLongTest extends StateManagerTest {
+
+    @Test
+    public void testStateLong() {
+        StateManager sm = stateFactory.get();
+
+        StateLong a = sm.makeStateLong(5L);
+        StateLong b = sm.makeStateLong(Long.MAX_VALUE);
+
+        sm.saveState();
+
+        a.setValue(1L << 40);
+        b.setValue(3L);
+        a.setValue(-7L);
+
+        sm.saveState();
+
+        a.setValue(42L);
+
+        sm.restoreState();
+        assertEquals(-7L, a.value());
+        assertEquals(3L, b.value());
+
+        sm.restoreState();
+        assertEquals(5L, a.value());
+        assertEquals(Long.MAX_VALUE, b.value());
+    }
+
+    @Test
+    public void testStateLongArray() {
+        StateManager sm = stateFactory.get();
+
+        StateLongArray words = sm.makeStateLongArray(100, -1L);
+        assertEquals(100, words.length());
+
+        sm.saveState();
+        for (int i = 0; i < 100; i += 2)
+            words.set(i, i);
+
+        sm.saveState();
+        for (int i = 0; i < 100; i++) {
+            words.set(i, 0L);
+            words.set(i, 1L);
+        }
+
+        sm.restoreState();
+        for (int i = 0; i < 100; i++)
+            assertEquals(i % 2 == 0 ? i : -1L, words.get(i));
+
+        sm.restoreState();
+        for (int i = 0; i < 100; i++)
+            assertEquals(-1L, words.get(i));
+    }
+
+}
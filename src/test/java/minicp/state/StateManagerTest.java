@@ -29,7 +29,11 @@ public abstract class StateManagerTest {
     public static Supplier<StateManager>[] data() {
         return new Supplier[]{
                 () -> new Trailer(),
+                () -> new FlatTrailer(),
+                () -> new OffHeapArrayTrailer(),
+                () -> new HybridStateManager(),
                 () -> new Copier(),
+                () -> new IncrementalCopier(),
         };
     }
 
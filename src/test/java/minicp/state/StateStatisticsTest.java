@@ -0,0 +1,121 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StateStatisticsTest extends StateManagerTest {
+
+    @Test
+    public void testDisabledByDefault() {
+        StateManager sm = stateFactory.get();
+        StateInt a = sm.makeStateInt(0);
+
+        sm.saveState();
+        a.setValue(1);
+        sm.restoreState();
+
+        StateStatistics stats = sm.getStatistics();
+        assertFalse(stats.isEnabled());
+        assertEquals(0, stats.numberOfSaves());
+        assertEquals(0, stats.numberOfRestores());
+        assertEquals(0, stats.peakTrailSize());
+    }
+
+    @Test
+    public void testEntriesAndPeak() {
+        StateManager sm = stateFactory.get();
+        sm.getStatistics().setEnabled(true);
+        StateInt[] a = new StateInt[10];
+        for (int i = 0; i < a.length; i++)
+            a[i] = sm.makeStateInt(i);
+
+        sm.saveState();
+        for (int i = 0; i < a.length; i++)
+            a[i].setValue(-i);
+        sm.saveState();
+        a[0].setValue(42);
+        a[1].setValue(43);
+        sm.saveState();
+        a[2].setValue(44);
+
+        StateStatistics stats = sm.getStatistics();
+        assertEquals(3, stats.numberOfSaves());
+        assertEquals(0, stats.numberOfRestores());
+
+        sm.restoreStateUntil(-1);
+
+        assertEquals(3, stats.numberOfRestores());
+        assertEquals(0, stats.trailSize());
+        assertEquals(0, stats.retainedBytes());
+        assertEquals(2, stats.maxRestoredLevel());
+        assertEquals(0, stats.averageEntriesAtLevel(3), 0);
+        if (sm instanceof Trailer) {
+            // an entry per value changed, a[0] being set to its own value
+            assertEquals(9, stats.averageEntriesAtLevel(0), 0);
+            assertEquals(2, stats.averageEntriesAtLevel(1), 0);
+            assertEquals(1, stats.averageEntriesAtLevel(2), 0);
+            assertEquals(12, stats.peakTrailSize());
+            assertEquals(12 * 12, stats.peakRetainedBytes()); // entries of the int trail
+        } else {
+            // the 10 states are copied at each level
+            assertEquals(10, stats.averageEntriesAtLevel(0), 0);
+            assertEquals(10, stats.averageEntriesAtLevel(1), 0);
+            assertEquals(10, stats.averageEntriesAtLevel(2), 0);
+            assertEquals(30, stats.peakTrailSize());
+            assertEquals(30 * StateStatistics.ESTIMATED_OBJECT_ENTRY_BYTES, stats.peakRetainedBytes());
+        }
+        for (int i = 0; i < a.length; i++)
+            assertEquals(i, a[i].value());
+
+        // a second descent is averaged with the first one
+        sm.saveState();
+        a[5].setValue(0);
+        sm.restoreState();
+        assertEquals(4, stats.numberOfSaves());
+        assertEquals(4, stats.numberOfRestores());
+        if (sm instanceof Trailer)
+            assertEquals((9 + 1) / 2.0, stats.averageEntriesAtLevel(0), 0);
+        else
+            assertEquals(10, stats.averageEntriesAtLevel(0), 0);
+    }
+
+    @Test
+    public void testTrailSizeGrowsWithDepth() {
+        StateManager sm = stateFactory.get();
+        sm.getStatistics().setEnabled(true);
+        StateIntArray a = sm.makeStateIntArray(100, 0);
+
+        long previous = -1;
+        for (int depth = 0; depth < 5; depth++) {
+            sm.saveState();
+            for (int i = 0; i < 100; i++)
+                a.set(i, depth + 1);
+            sm.saveState();
+            sm.restoreState();
+            long size = sm.getStatistics().trailSize();
+            assertTrue(size > previous);
+            previous = size;
+        }
+        assertTrue(sm.getStatistics().peakTrailSize() >= previous);
+        sm.restoreStateUntil(-1);
+        assertEquals(0, sm.getStatistics().trailSize());
+        assertEquals(0, a.get(50));
+    }
+
+}